@@ -0,0 +1,320 @@
+package com.furkanbegen.routes.cache;
+
+import com.furkanbegen.routes.model.Location;
+import com.furkanbegen.routes.model.Transportation;
+import com.furkanbegen.routes.model.TransportationType;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * Columnar binary format for the cached transportation list. Every location is written once into a
+ * dictionary that transportations refer to by position, so decoded transportations share their
+ * {@link Location} instances. Each column is written for all rows in turn, with a per-row bit mask
+ * marking which nullable fields are present. Audit fields are left out, as they are by the JSON
+ * format on reads.
+ */
+public class TransportationCodec implements RedisSerializer<List<Transportation>> {
+
+  private static final byte FORMAT_VERSION = 1;
+
+  private static final int LOCATION_NAME = 1;
+  private static final int LOCATION_LATITUDE = 1 << 1;
+  private static final int LOCATION_LONGITUDE = 1 << 2;
+  private static final int LOCATION_VERSION = 1 << 3;
+
+  private static final int FROM_LOCATION = 1;
+  private static final int TO_LOCATION = 1 << 1;
+  private static final int TYPE = 1 << 2;
+  private static final int NAME = 1 << 3;
+  private static final int PRICE = 1 << 4;
+  private static final int DURATION = 1 << 5;
+  private static final int VERSION = 1 << 6;
+
+  private static final TransportationType[] TYPES = TransportationType.values();
+
+  @Override
+  public byte[] serialize(List<Transportation> transportations) {
+    if (transportations == null) {
+      return new byte[0];
+    }
+
+    // Locations are deduplicated by id, falling back to identity for unsaved ones
+    Map<Long, Integer> locationIndexes = new HashMap<>();
+    Map<Location, Integer> unsavedIndexes = new IdentityHashMap<>();
+    List<Location> locations = new ArrayList<>();
+    int[] fromIndexes = new int[transportations.size()];
+    int[] toIndexes = new int[transportations.size()];
+    for (int i = 0; i < transportations.size(); i++) {
+      fromIndexes[i] =
+          indexOf(
+              transportations.get(i).getFromLocation(), locationIndexes, unsavedIndexes, locations);
+      toIndexes[i] =
+          indexOf(
+              transportations.get(i).getToLocation(), locationIndexes, unsavedIndexes, locations);
+    }
+
+    try {
+      var bytes = new ByteArrayOutputStream(64 + locations.size() * 48 + fromIndexes.length * 48);
+      var out = new DataOutputStream(bytes);
+      out.writeByte(FORMAT_VERSION);
+      writeLocations(out, locations);
+      writeTransportations(out, transportations, fromIndexes, toIndexes);
+      out.flush();
+      return bytes.toByteArray();
+    } catch (IOException e) {
+      throw new SerializationException("Could not encode transportations", e);
+    }
+  }
+
+  @Override
+  public List<Transportation> deserialize(byte[] bytes) {
+    if (bytes == null || bytes.length == 0) {
+      return null;
+    }
+
+    try {
+      ByteBuffer in = ByteBuffer.wrap(bytes);
+      byte formatVersion = in.get();
+      if (formatVersion != FORMAT_VERSION) {
+        throw new SerializationException(
+            String.format("Unsupported transportation format version %d", formatVersion));
+      }
+      Location[] locations = readLocations(in);
+      return readTransportations(in, locations);
+    } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+      throw new SerializationException("Could not decode transportations", e);
+    }
+  }
+
+  private static int indexOf(
+      Location location,
+      Map<Long, Integer> locationIndexes,
+      Map<Location, Integer> unsavedIndexes,
+      List<Location> locations) {
+    if (location == null) {
+      return -1;
+    }
+    Integer index =
+        location.getId() != null
+            ? locationIndexes.putIfAbsent(location.getId(), locations.size())
+            : unsavedIndexes.putIfAbsent(location, locations.size());
+    if (index != null) {
+      return index;
+    }
+    locations.add(location);
+    return locations.size() - 1;
+  }
+
+  private static void writeLocations(DataOutputStream out, List<Location> locations)
+      throws IOException {
+    out.writeInt(locations.size());
+    int[] masks = new int[locations.size()];
+    for (int i = 0; i < locations.size(); i++) {
+      Location location = locations.get(i);
+      masks[i] =
+          (location.getName() != null ? LOCATION_NAME : 0)
+              | (location.getLatitude() != null ? LOCATION_LATITUDE : 0)
+              | (location.getLongitude() != null ? LOCATION_LONGITUDE : 0)
+              | (location.getVersion() != null ? LOCATION_VERSION : 0);
+      out.writeByte(masks[i]);
+    }
+    for (Location location : locations) {
+      out.writeLong(location.getId() != null ? location.getId() : -1L);
+    }
+    for (int i = 0; i < locations.size(); i++) {
+      if ((masks[i] & LOCATION_NAME) != 0) {
+        writeString(out, locations.get(i).getName());
+      }
+    }
+    for (int i = 0; i < locations.size(); i++) {
+      if ((masks[i] & LOCATION_LATITUDE) != 0) {
+        out.writeDouble(locations.get(i).getLatitude());
+      }
+    }
+    for (int i = 0; i < locations.size(); i++) {
+      if ((masks[i] & LOCATION_LONGITUDE) != 0) {
+        out.writeDouble(locations.get(i).getLongitude());
+      }
+    }
+    for (int i = 0; i < locations.size(); i++) {
+      if ((masks[i] & LOCATION_VERSION) != 0) {
+        out.writeLong(locations.get(i).getVersion());
+      }
+    }
+  }
+
+  private static void writeTransportations(
+      DataOutputStream out,
+      List<Transportation> transportations,
+      int[] fromIndexes,
+      int[] toIndexes)
+      throws IOException {
+    int count = transportations.size();
+    out.writeInt(count);
+    int[] masks = new int[count];
+    for (int i = 0; i < count; i++) {
+      Transportation transportation = transportations.get(i);
+      masks[i] =
+          (fromIndexes[i] >= 0 ? FROM_LOCATION : 0)
+              | (toIndexes[i] >= 0 ? TO_LOCATION : 0)
+              | (transportation.getType() != null ? TYPE : 0)
+              | (transportation.getName() != null ? NAME : 0)
+              | (transportation.getPrice() != null ? PRICE : 0)
+              | (transportation.getDurationInMinutes() != null ? DURATION : 0)
+              | (transportation.getVersion() != null ? VERSION : 0);
+      out.writeByte(masks[i]);
+    }
+    for (Transportation transportation : transportations) {
+      out.writeLong(transportation.getId() != null ? transportation.getId() : -1L);
+    }
+    for (int i = 0; i < count; i++) {
+      if ((masks[i] & FROM_LOCATION) != 0) {
+        out.writeInt(fromIndexes[i]);
+      }
+    }
+    for (int i = 0; i < count; i++) {
+      if ((masks[i] & TO_LOCATION) != 0) {
+        out.writeInt(toIndexes[i]);
+      }
+    }
+    for (int i = 0; i < count; i++) {
+      if ((masks[i] & TYPE) != 0) {
+        out.writeByte(transportations.get(i).getType().ordinal());
+      }
+    }
+    for (int i = 0; i < count; i++) {
+      if ((masks[i] & NAME) != 0) {
+        writeString(out, transportations.get(i).getName());
+      }
+    }
+    for (int i = 0; i < count; i++) {
+      if ((masks[i] & PRICE) != 0) {
+        out.writeDouble(transportations.get(i).getPrice());
+      }
+    }
+    for (int i = 0; i < count; i++) {
+      if ((masks[i] & DURATION) != 0) {
+        out.writeDouble(transportations.get(i).getDurationInMinutes());
+      }
+    }
+    for (int i = 0; i < count; i++) {
+      if ((masks[i] & VERSION) != 0) {
+        out.writeLong(transportations.get(i).getVersion());
+      }
+    }
+  }
+
+  private static Location[] readLocations(ByteBuffer in) {
+    Location[] locations = new Location[readCount(in)];
+    byte[] masks = new byte[locations.length];
+    in.get(masks);
+    for (int i = 0; i < locations.length; i++) {
+      locations[i] = new Location();
+      long id = in.getLong();
+      locations[i].setId(id >= 0 ? id : null);
+    }
+    for (int i = 0; i < locations.length; i++) {
+      if ((masks[i] & LOCATION_NAME) != 0) {
+        locations[i].setName(readString(in));
+      }
+    }
+    for (int i = 0; i < locations.length; i++) {
+      if ((masks[i] & LOCATION_LATITUDE) != 0) {
+        locations[i].setLatitude(in.getDouble());
+      }
+    }
+    for (int i = 0; i < locations.length; i++) {
+      if ((masks[i] & LOCATION_LONGITUDE) != 0) {
+        locations[i].setLongitude(in.getDouble());
+      }
+    }
+    for (int i = 0; i < locations.length; i++) {
+      if ((masks[i] & LOCATION_VERSION) != 0) {
+        locations[i].setVersion(in.getLong());
+      }
+    }
+    return locations;
+  }
+
+  private static List<Transportation> readTransportations(ByteBuffer in, Location[] locations) {
+    int count = readCount(in);
+    byte[] masks = new byte[count];
+    in.get(masks);
+    Transportation[] transportations = new Transportation[count];
+    for (int i = 0; i < count; i++) {
+      transportations[i] = new Transportation();
+      long id = in.getLong();
+      transportations[i].setId(id >= 0 ? id : null);
+    }
+    for (int i = 0; i < count; i++) {
+      if ((masks[i] & FROM_LOCATION) != 0) {
+        transportations[i].setFromLocation(locations[in.getInt()]);
+      }
+    }
+    for (int i = 0; i < count; i++) {
+      if ((masks[i] & TO_LOCATION) != 0) {
+        transportations[i].setToLocation(locations[in.getInt()]);
+      }
+    }
+    for (int i = 0; i < count; i++) {
+      if ((masks[i] & TYPE) != 0) {
+        transportations[i].setType(TYPES[in.get()]);
+      }
+    }
+    for (int i = 0; i < count; i++) {
+      if ((masks[i] & NAME) != 0) {
+        transportations[i].setName(readString(in));
+      }
+    }
+    for (int i = 0; i < count; i++) {
+      if ((masks[i] & PRICE) != 0) {
+        transportations[i].setPrice(in.getDouble());
+      }
+    }
+    for (int i = 0; i < count; i++) {
+      if ((masks[i] & DURATION) != 0) {
+        transportations[i].setDurationInMinutes(in.getDouble());
+      }
+    }
+    for (int i = 0; i < count; i++) {
+      if ((masks[i] & VERSION) != 0) {
+        transportations[i].setVersion(in.getLong());
+      }
+    }
+    return new ArrayList<>(Arrays.asList(transportations));
+  }
+
+  private static int readCount(ByteBuffer in) {
+    int count = in.getInt();
+    // Every row takes at least a mask byte and an id
+    if (count < 0 || count > in.remaining() / 9) {
+      throw new SerializationException(String.format("Invalid row count %d", count));
+    }
+    return count;
+  }
+
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static String readString(ByteBuffer in) {
+    int length = in.getInt();
+    String value = new String(in.array(), in.position(), length, StandardCharsets.UTF_8);
+    in.position(in.position() + length);
+    return value;
+  }
+}
@@ -0,0 +1,216 @@
+package com.furkanbegen.routes.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+/**
+ * Serves reads from a bounded in-process cache and falls through to the shared remote cache on a
+ * miss. Evictions clear both levels and are announced so other instances drop their local copies.
+ *
+ * <p>Loads through {@link #get(Object, Callable)} are single-flight: while one caller loads a key,
+ * concurrent callers for the same key wait for its result instead of loading again. Given a {@code
+ * stale} cache, evicted values are kept aside in it and handed to those waiting callers until the
+ * reload completes; a value read or written later for the key replaces them, and the stale cache
+ * bounds how many are kept and for how long.
+ */
+public class TwoLevelCache implements Cache {
+
+  private final String name;
+  private final com.github.benmanes.caffeine.cache.Cache<Object, ValueWrapper> local;
+  private final Cache remote;
+  private final Consumer<String> invalidationPublisher;
+  private final com.github.benmanes.caffeine.cache.Cache<Object, ValueWrapper> stale;
+  private final Map<Object, CompletableFuture<Object>> loading = new ConcurrentHashMap<>();
+  private final Counter coalescedLoads;
+  private final Counter staleReads;
+
+  public TwoLevelCache(
+      String name,
+      com.github.benmanes.caffeine.cache.Cache<Object, ValueWrapper> local,
+      Cache remote,
+      Consumer<String> invalidationPublisher,
+      com.github.benmanes.caffeine.cache.Cache<Object, ValueWrapper> stale,
+      MeterRegistry meterRegistry) {
+    this.name = name;
+    this.local = local;
+    this.remote = remote;
+    this.invalidationPublisher = invalidationPublisher;
+    this.stale = stale;
+    this.coalescedLoads =
+        Counter.builder("cache.loads.coalesced")
+            .description("Loads that waited for a load of the same key already in flight")
+            .tag("cache", name)
+            .register(meterRegistry);
+    this.staleReads =
+        Counter.builder("cache.stale.reads")
+            .description("Reads answered with an evicted value while it was being reloaded")
+            .tag("cache", name)
+            .register(meterRegistry);
+  }
+
+  @Override
+  public String getName() {
+    return name;
+  }
+
+  @Override
+  public Object getNativeCache() {
+    return remote.getNativeCache();
+  }
+
+  @Override
+  public ValueWrapper get(Object key) {
+    ValueWrapper value = local.getIfPresent(key);
+    if (value != null) {
+      return value;
+    }
+
+    value = remote.get(key);
+    if (value != null) {
+      local.put(key, value);
+      dropStale(key);
+    }
+    return value;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> T get(Object key, Class<T> type) {
+    ValueWrapper value = get(key);
+    if (value == null) {
+      return null;
+    }
+    Object stored = value.get();
+    if (stored != null && type != null && !type.isInstance(stored)) {
+      throw new IllegalStateException(
+          String.format("Cached value is not of required type [%s]: %s", type.getName(), stored));
+    }
+    return (T) stored;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> T get(Object key, Callable<T> valueLoader) {
+    ValueWrapper value = get(key);
+    if (value != null) {
+      return (T) value.get();
+    }
+
+    CompletableFuture<Object> load = new CompletableFuture<>();
+    CompletableFuture<Object> inFlight = loading.putIfAbsent(key, load);
+    if (inFlight != null) {
+      coalescedLoads.increment();
+      ValueWrapper previous = stale != null ? stale.getIfPresent(key) : null;
+      if (previous != null) {
+        staleReads.increment();
+        return (T) previous.get();
+      }
+      return (T) await(inFlight);
+    }
+
+    try {
+      // A load may have completed between the miss and claiming the key
+      value = local.getIfPresent(key);
+      T loaded = value != null ? (T) value.get() : load(key, valueLoader);
+      local.put(key, new SimpleValueWrapper(loaded));
+      dropStale(key);
+      load.complete(loaded);
+      return loaded;
+    } catch (RuntimeException | Error e) {
+      load.completeExceptionally(e);
+      throw e;
+    } finally {
+      loading.remove(key, load);
+    }
+  }
+
+  // Loads are already single-flight here, so the remote's own locking get(key, loader) is not used:
+  // some implementations run the loader inside a monitor, which pins a virtual thread while it
+  // blocks
+  private <T> T load(Object key, Callable<T> valueLoader) {
+    T loaded;
+    try {
+      loaded = valueLoader.call();
+    } catch (Exception e) {
+      throw new ValueRetrievalException(key, valueLoader, e);
+    }
+    remote.put(key, loaded);
+    return loaded;
+  }
+
+  private static Object await(CompletableFuture<Object> load) {
+    try {
+      return load.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+
+  // Puts come from loads of the source of truth, so other instances keep their copies
+  @Override
+  public void put(Object key, Object value) {
+    remote.put(key, value);
+    local.put(key, new SimpleValueWrapper(value));
+    dropStale(key);
+  }
+
+  @Override
+  public ValueWrapper putIfAbsent(Object key, Object value) {
+    ValueWrapper existing = remote.putIfAbsent(key, value);
+    local.put(key, existing != null ? existing : new SimpleValueWrapper(value));
+    dropStale(key);
+    return existing;
+  }
+
+  @Override
+  public void evict(Object key) {
+    remote.evict(key);
+    keepStale(key);
+    local.invalidate(key);
+    invalidationPublisher.accept(name);
+  }
+
+  @Override
+  public void clear() {
+    remote.clear();
+    keepStale();
+    local.invalidateAll();
+    invalidationPublisher.accept(name);
+  }
+
+  /** Drops the local copies after another instance changed the shared cache. */
+  public void clearLocal() {
+    keepStale();
+    local.invalidateAll();
+  }
+
+  private void keepStale(Object key) {
+    ValueWrapper value = local.getIfPresent(key);
+    if (stale != null && value != null) {
+      stale.put(key, value);
+    }
+  }
+
+  private void keepStale() {
+    if (stale != null) {
+      stale.putAll(local.asMap());
+    }
+  }
+
+  private void dropStale(Object key) {
+    if (stale != null) {
+      stale.invalidate(key);
+    }
+  }
+}
@@ -0,0 +1,108 @@
+package com.furkanbegen.routes.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+/**
+ * Puts a local, size-bounded and expiring cache in front of every cache of a shared remote cache
+ * manager. Evictions are published as {@code <instance>:<cache>} messages; receiving one from
+ * another instance clears the local level of that cache and is passed on to the listener, so that
+ * anything built from the cached values can be dropped too. The TTL bounds staleness should a
+ * message be lost.
+ */
+@Slf4j
+public class TwoLevelCacheManager implements CacheManager {
+
+  private final CacheManager remote;
+  private final Consumer<String> publisher;
+  private final Consumer<String> remoteInvalidationListener;
+  private final long localMaximumSize;
+  private final Duration localTtl;
+  private final boolean staleWhileRevalidate;
+  private final MeterRegistry meterRegistry;
+
+  private final String instanceId = UUID.randomUUID().toString();
+  private final ConcurrentMap<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+
+  public TwoLevelCacheManager(
+      CacheManager remote,
+      Consumer<String> publisher,
+      Consumer<String> remoteInvalidationListener,
+      long localMaximumSize,
+      Duration localTtl,
+      boolean staleWhileRevalidate,
+      MeterRegistry meterRegistry) {
+    this.remote = remote;
+    this.publisher = publisher;
+    this.remoteInvalidationListener = remoteInvalidationListener;
+    this.localMaximumSize = localMaximumSize;
+    this.localTtl = localTtl;
+    this.staleWhileRevalidate = staleWhileRevalidate;
+    this.meterRegistry = meterRegistry;
+  }
+
+  @Override
+  public Cache getCache(String name) {
+    return caches.computeIfAbsent(name, this::createCache);
+  }
+
+  @Override
+  public Collection<String> getCacheNames() {
+    return remote.getCacheNames();
+  }
+
+  /** Handles an invalidation message published by this or another instance. */
+  public void onInvalidation(String message) {
+    int separator = message.indexOf(':');
+    if (separator < 0 || message.substring(0, separator).equals(instanceId)) {
+      return;
+    }
+
+    String name = message.substring(separator + 1);
+    TwoLevelCache cache = caches.get(name);
+    if (cache != null) {
+      log.debug("Cache {} changed on another instance, clearing local copies", name);
+      cache.clearLocal();
+    }
+    // After clearing, so that listeners reloading right away never get the old local copies
+    remoteInvalidationListener.accept(name);
+  }
+
+  private TwoLevelCache createCache(String name) {
+    Cache remoteCache = remote.getCache(name);
+    if (remoteCache == null) {
+      return null;
+    }
+
+    com.github.benmanes.caffeine.cache.Cache<Object, Cache.ValueWrapper> local =
+        Caffeine.newBuilder()
+            .maximumSize(localMaximumSize)
+            .expireAfterWrite(localTtl)
+            .recordStats()
+            .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, local, name, Tags.of("level", "local"));
+    // Stale values only need to outlive a reload, so they are bounded like the local copies
+    com.github.benmanes.caffeine.cache.Cache<Object, Cache.ValueWrapper> stale =
+        staleWhileRevalidate
+            ? Caffeine.newBuilder().maximumSize(localMaximumSize).expireAfterWrite(localTtl).build()
+            : null;
+    return new TwoLevelCache(
+        name,
+        local,
+        remoteCache,
+        cacheName -> publisher.accept(instanceId + ":" + cacheName),
+        stale,
+        meterRegistry);
+  }
+}
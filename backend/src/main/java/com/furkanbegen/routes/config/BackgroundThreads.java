@@ -0,0 +1,21 @@
+package com.furkanbegen.routes.config;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Threads for background rebuild jobs. They follow {@code spring.threads.virtual.enabled}, like the
+ * request and task executors Spring Boot configures; platform threads are daemons so that a rebuild
+ * in progress never holds up shutdown.
+ */
+public final class BackgroundThreads {
+
+  public static final String VIRTUAL_THREADS_PROPERTY = "${spring.threads.virtual.enabled:false}";
+
+  private BackgroundThreads() {}
+
+  public static ThreadFactory factory(String name, boolean virtual) {
+    return virtual
+        ? Thread.ofVirtual().name(name).factory()
+        : Thread.ofPlatform().name(name).daemon().factory();
+  }
+}
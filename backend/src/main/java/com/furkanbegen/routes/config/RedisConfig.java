@@ -1,12 +1,23 @@
 package com.furkanbegen.routes.config;
 
+import com.furkanbegen.routes.cache.TransportationCodec;
+import com.furkanbegen.routes.cache.TwoLevelCacheManager;
+import com.furkanbegen.routes.event.TransportationsInvalidatedEvent;
+import com.furkanbegen.routes.location.LocationChangeBroadcaster;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.RedisSerializer;
 
@@ -14,14 +25,67 @@ import org.springframework.data.redis.serializer.RedisSerializer;
 @EnableCaching
 public class RedisConfig {
 
+  public static final String TRANSPORTATIONS_CACHE = "transportations";
+
+  private static final String INVALIDATION_CHANNEL = "cache-invalidation";
+
   @Bean
-  public RedisCacheManager cacheManager(RedisConnectionFactory connectionFactory) {
+  public TwoLevelCacheManager cacheManager(
+      RedisConnectionFactory connectionFactory,
+      StringRedisTemplate redisTemplate,
+      ApplicationEventPublisher eventPublisher,
+      MeterRegistry meterRegistry,
+      @Value("${cache.local.maximum-size:100}") long localMaximumSize,
+      @Value("${cache.local.ttl:60s}") Duration localTtl,
+      @Value("${cache.local.stale-while-revalidate:false}") boolean staleWhileRevalidate) {
     RedisCacheConfiguration config =
         RedisCacheConfiguration.defaultCacheConfig()
             .entryTtl(Duration.ofHours(1))
             .serializeValuesWith(
                 RedisSerializationContext.SerializationPair.fromSerializer(RedisSerializer.json()));
 
-    return RedisCacheManager.builder(connectionFactory).cacheDefaults(config).build();
+    // The route graph reloads the whole transportation list, so it gets a compact binary format
+    RedisCacheConfiguration transportationsConfig =
+        config.serializeValuesWith(
+            RedisSerializationContext.SerializationPair.fromSerializer(new TransportationCodec()));
+
+    RedisCacheManager redisCacheManager =
+        RedisCacheManager.builder(connectionFactory)
+            .cacheDefaults(config)
+            .withCacheConfiguration(TRANSPORTATIONS_CACHE, transportationsConfig)
+            .build();
+    redisCacheManager.afterPropertiesSet();
+
+    return new TwoLevelCacheManager(
+        redisCacheManager,
+        message -> redisTemplate.convertAndSend(INVALIDATION_CHANNEL, message),
+        cacheName -> {
+          if (TRANSPORTATIONS_CACHE.equals(cacheName)) {
+            eventPublisher.publishEvent(new TransportationsInvalidatedEvent());
+          }
+        },
+        localMaximumSize,
+        localTtl,
+        staleWhileRevalidate,
+        meterRegistry);
+  }
+
+  @Bean
+  public RedisMessageListenerContainer cacheInvalidationListener(
+      RedisConnectionFactory connectionFactory,
+      TwoLevelCacheManager cacheManager,
+      LocationChangeBroadcaster locationChangeBroadcaster) {
+    var container = new RedisMessageListenerContainer();
+    container.setConnectionFactory(connectionFactory);
+    container.addMessageListener(
+        (message, pattern) ->
+            cacheManager.onInvalidation(new String(message.getBody(), StandardCharsets.UTF_8)),
+        new ChannelTopic(INVALIDATION_CHANNEL));
+    container.addMessageListener(
+        (message, pattern) ->
+            locationChangeBroadcaster.onMessage(
+                new String(message.getBody(), StandardCharsets.UTF_8)),
+        new ChannelTopic(LocationChangeBroadcaster.CHANNEL));
+    return container;
   }
 }
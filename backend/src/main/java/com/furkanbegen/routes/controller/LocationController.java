@@ -2,9 +2,11 @@ package com.furkanbegen.routes.controller;
 
 import static com.furkanbegen.routes.constant.AppConstant.API_BASE_PATH;
 
+import com.furkanbegen.routes.dto.CursorPage;
 import com.furkanbegen.routes.dto.LocationDTO;
 import com.furkanbegen.routes.service.LocationService;
 import jakarta.validation.Valid;
+import java.util.List;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -32,6 +34,13 @@ public class LocationController {
     return ResponseEntity.ok(locationService.getAllLocations(pageable));
   }
 
+  @GetMapping(params = "cursor")
+  public ResponseEntity<CursorPage<LocationDTO>> getLocationsAfter(
+      @RequestParam(name = "cursor") String cursor,
+      @RequestParam(name = "size", defaultValue = "10") int size) {
+    return ResponseEntity.ok(locationService.getLocationsAfter(cursor, size));
+  }
+
   @GetMapping("/{id}")
   public ResponseEntity<LocationDTO> getLocationById(@PathVariable(name = "id") Long id) {
     return ResponseEntity.ok(locationService.getLocationById(id));
@@ -54,6 +63,16 @@ public class LocationController {
     return ResponseEntity.noContent().build();
   }
 
+  @GetMapping("/nearby")
+  public ResponseEntity<List<LocationDTO>> getNearbyLocations(
+      @RequestParam(name = "lat") double latitude,
+      @RequestParam(name = "lon") double longitude,
+      @RequestParam(name = "radiusKm", defaultValue = "50") double radiusKm,
+      @RequestParam(name = "limit", defaultValue = "10") int limit) {
+    return ResponseEntity.ok(
+        locationService.findNearbyLocations(latitude, longitude, radiusKm, limit));
+  }
+
   @GetMapping("/search")
   public Page<LocationDTO> searchLocations(
       @RequestParam String query, @PageableDefault Pageable pageable) {
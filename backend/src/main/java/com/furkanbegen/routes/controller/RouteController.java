@@ -2,16 +2,27 @@ package com.furkanbegen.routes.controller;
 
 import static com.furkanbegen.routes.constant.AppConstant.API_BASE_PATH;
 
+import com.furkanbegen.routes.dto.CursorPage;
+import com.furkanbegen.routes.dto.RouteBatchRequestDTO;
+import com.furkanbegen.routes.dto.RouteBatchResultDTO;
 import com.furkanbegen.routes.dto.RouteDTO;
 import com.furkanbegen.routes.service.RouteService;
+import jakarta.validation.Valid;
+import java.util.List;
+import java.util.Set;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping(API_BASE_PATH + "/routes")
@@ -27,4 +38,37 @@ public class RouteController {
       @RequestParam(name = "toLocationId") Long toLocationId) {
     return routeService.findRoutes(fromLocationId, toLocationId, pageable);
   }
+
+  @GetMapping(params = "cursor")
+  public CursorPage<RouteDTO> findRoutesAfter(
+      @RequestParam(name = "fromLocationId") Long fromLocationId,
+      @RequestParam(name = "toLocationId") Long toLocationId,
+      @RequestParam(name = "cursor") String cursor,
+      @RequestParam(name = "size", defaultValue = "10") int size) {
+    return routeService.findRoutesAfter(fromLocationId, toLocationId, cursor, size);
+  }
+
+  @GetMapping(path = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public ResponseEntity<StreamingResponseBody> streamRoutes(
+      @RequestParam(name = "fromLocationId") Long fromLocationId,
+      @RequestParam(name = "toLocationId") Long toLocationId,
+      @RequestParam(name = "limit", defaultValue = "1000") int limit) {
+    return ResponseEntity.ok()
+        .contentType(MediaType.APPLICATION_NDJSON)
+        .body(routeService.streamRoutes(fromLocationId, toLocationId, limit));
+  }
+
+  @PostMapping("/batch")
+  public List<RouteBatchResultDTO> findRoutesBatch(
+      @PageableDefault Pageable pageable, @RequestBody @Valid RouteBatchRequestDTO request) {
+    return routeService.findRoutesBatch(request.getPairs(), pageable);
+  }
+
+  @GetMapping("/multi")
+  public Page<RouteDTO> findRoutesBetweenSets(
+      @PageableDefault Pageable pageable,
+      @RequestParam(name = "fromLocationIds") Set<Long> fromLocationIds,
+      @RequestParam(name = "toLocationIds") Set<Long> toLocationIds) {
+    return routeService.findRoutes(fromLocationIds, toLocationIds, pageable);
+  }
 }
@@ -2,6 +2,7 @@ package com.furkanbegen.routes.controller;
 
 import static com.furkanbegen.routes.constant.AppConstant.API_BASE_PATH;
 
+import com.furkanbegen.routes.dto.CursorPage;
 import com.furkanbegen.routes.dto.TransportationDTO;
 import com.furkanbegen.routes.dto.TransportationRequestDTO;
 import com.furkanbegen.routes.service.TransportationService;
@@ -26,6 +27,13 @@ public class TransportationController {
     return ResponseEntity.ok(transportationService.getAllTransportations(pageable));
   }
 
+  @GetMapping(params = "cursor")
+  public ResponseEntity<CursorPage<TransportationDTO>> getTransportationsAfter(
+      @RequestParam(name = "cursor") String cursor,
+      @RequestParam(name = "size", defaultValue = "10") int size) {
+    return ResponseEntity.ok(transportationService.getTransportationsAfter(cursor, size));
+  }
+
   @GetMapping("/{id}")
   public ResponseEntity<TransportationDTO> getTransportationById(
       @PathVariable(name = "id") Long id) {
@@ -0,0 +1,15 @@
+package com.furkanbegen.routes.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** One slice of a keyset-paginated list; {@code nextCursor} is null on the last slice. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+  private List<T> content;
+  private String nextCursor;
+}
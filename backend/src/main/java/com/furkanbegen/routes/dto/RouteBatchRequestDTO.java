@@ -0,0 +1,22 @@
+package com.furkanbegen.routes.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+import lombok.*;
+
+@Data
+@EqualsAndHashCode
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+public class RouteBatchRequestDTO {
+
+  public static final int MAX_PAIRS = 100;
+
+  @NotEmpty(message = "At least one location pair is required")
+  @Size(max = MAX_PAIRS, message = "At most " + MAX_PAIRS + " location pairs are allowed")
+  private List<@Valid @NotNull RoutePairDTO> pairs;
+}
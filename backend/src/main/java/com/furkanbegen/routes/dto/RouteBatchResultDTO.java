@@ -0,0 +1,15 @@
+package com.furkanbegen.routes.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Page;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RouteBatchResultDTO {
+  private Long fromLocationId;
+  private Long toLocationId;
+  private Page<RouteDTO> routes;
+}
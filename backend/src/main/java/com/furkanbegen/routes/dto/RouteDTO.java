@@ -5,6 +5,8 @@ import lombok.Data;
 
 @Data
 public class RouteDTO {
+  private Long fromLocationId;
+  private Long toLocationId;
   private List<TransportationDTO> transportations;
   private Double totalDuration;
   private Double totalPrice;
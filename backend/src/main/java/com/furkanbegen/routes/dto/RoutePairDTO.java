@@ -0,0 +1,18 @@
+package com.furkanbegen.routes.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+@Data
+@EqualsAndHashCode
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+public class RoutePairDTO {
+
+  @NotNull(message = "From location id is required")
+  private Long fromLocationId;
+
+  @NotNull(message = "To location id is required")
+  private Long toLocationId;
+}
@@ -0,0 +1,3 @@
+package com.furkanbegen.routes.event;
+
+public record LocationChangedEvent(Long locationId) {}
@@ -0,0 +1,18 @@
+package com.furkanbegen.routes.event;
+
+import com.furkanbegen.routes.model.Transportation;
+
+public record TransportationChangedEvent(Long transportationId, Transportation transportation) {
+
+  public static TransportationChangedEvent saved(Transportation transportation) {
+    return new TransportationChangedEvent(transportation.getId(), transportation);
+  }
+
+  public static TransportationChangedEvent deleted(Long transportationId) {
+    return new TransportationChangedEvent(transportationId, null);
+  }
+
+  public boolean isDeletion() {
+    return transportation == null;
+  }
+}
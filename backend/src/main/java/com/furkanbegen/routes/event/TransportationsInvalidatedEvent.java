@@ -0,0 +1,4 @@
+package com.furkanbegen.routes.event;
+
+/** The cached transportation list was evicted by another instance after it changed there. */
+public record TransportationsInvalidatedEvent() {}
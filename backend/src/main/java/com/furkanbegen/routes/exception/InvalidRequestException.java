@@ -0,0 +1,11 @@
+package com.furkanbegen.routes.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.BAD_REQUEST)
+public class InvalidRequestException extends RuntimeException {
+  public InvalidRequestException(final String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,109 @@
+package com.furkanbegen.routes.graph;
+
+import com.furkanbegen.routes.event.LocationChangedEvent;
+import com.furkanbegen.routes.event.TransportationChangedEvent;
+import com.furkanbegen.routes.event.TransportationsInvalidatedEvent;
+import com.furkanbegen.routes.service.CacheableTransportationService;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RouteGraph {
+
+  private final CacheableTransportationService cacheableTransportationService;
+
+  private final AtomicReference<RouteGraphSnapshot> snapshot = new AtomicReference<>();
+  private final ReentrantLock writeLock = new ReentrantLock();
+  private long version;
+
+  public RouteGraphSnapshot current() {
+    RouteGraphSnapshot current = snapshot.get();
+    return current != null ? current : load();
+  }
+
+  @EventListener
+  public void onTransportationChanged(TransportationChangedEvent event) {
+    writeLock.lock();
+    try {
+      RouteGraphSnapshot current = snapshot.get();
+      if (current == null) {
+        // Nothing compiled yet, the next search loads the graph including this change
+        return;
+      }
+
+      RouteGraphSnapshot updated =
+          event.isDeletion()
+              ? current.withoutTransportation(event.transportationId(), ++version)
+              : current.withTransportation(event.transportation(), ++version);
+      if (updated.needsCompaction()) {
+        updated = updated.compact();
+        log.debug("Compacted route graph v{}", updated.version());
+      }
+      snapshot.set(updated);
+    } catch (RuntimeException e) {
+      log.warn("Could not apply change of transportation {}, reloading route graph", event, e);
+      snapshot.set(null);
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  // Writes on other instances only reach this one as an eviction of the cached list, without the
+  // change itself, so the graph is compiled again. Runs first, so that listeners rebuilding from
+  // the
+  // graph get the reloaded one.
+  @EventListener
+  @Order(Ordered.HIGHEST_PRECEDENCE)
+  public void onTransportationsInvalidated(TransportationsInvalidatedEvent event) {
+    invalidate();
+  }
+
+  // Edges hold copies of their locations, so a renamed or moved location means a reload; location
+  // writes are rare next to transportation writes
+  @EventListener
+  public void onLocationChanged(LocationChangedEvent event) {
+    invalidate();
+  }
+
+  /** Drops the compiled graph, so that the next search compiles it again from the cached list. */
+  public void invalidate() {
+    writeLock.lock();
+    try {
+      snapshot.set(null);
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  private RouteGraphSnapshot load() {
+    writeLock.lock();
+    try {
+      RouteGraphSnapshot current = snapshot.get();
+      if (current != null) {
+        return current;
+      }
+
+      long start = System.nanoTime();
+      RouteGraphSnapshot compiled =
+          RouteGraphSnapshot.compile(cacheableTransportationService.findAll(), ++version);
+      snapshot.set(compiled);
+      log.info(
+          "Compiled route graph v{} with {} locations and {} transportations in {} ms",
+          compiled.version(),
+          compiled.locationCount(),
+          compiled.edgeCount(),
+          (System.nanoTime() - start) / 1_000_000);
+      return compiled;
+    } finally {
+      writeLock.unlock();
+    }
+  }
+}
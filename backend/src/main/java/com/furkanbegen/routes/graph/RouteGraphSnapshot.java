@@ -0,0 +1,560 @@
+package com.furkanbegen.routes.graph;
+
+import com.furkanbegen.routes.model.Transportation;
+import com.furkanbegen.routes.model.TransportationType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Immutable, compiled view of the transportation network. Locations are mapped to dense indexes and
+ * outgoing edges are stored in CSR layout. Single writes are applied as copy-on-write patches: the
+ * touched location gets its own edge list in a chunked overlay while every other location keeps
+ * pointing into the shared CSR arrays, until enough patches pile up to compact them again.
+ *
+ * <p>Edge ids stay the same across patches of one layout and are only reassigned when the graph is
+ * compiled again, whether by a reload or by compaction. Each patched location also records the
+ * version that last changed its edges, so that results derived from a few locations can tell
+ * whether a later snapshot still gives the same answer.
+ *
+ * <p>Writes find the edge a transportation id currently has through an index built on the first
+ * write after a compile and then updated by each write, so applying a delta never scans the graph.
+ */
+public final class RouteGraphSnapshot {
+
+  public static final byte FLIGHT = (byte) TransportationType.FLIGHT.ordinal();
+  public static final byte OTHER = (byte) TransportationType.OTHER.ordinal();
+
+  private static final int CHUNK_SHIFT = 8;
+  private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+  private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+  private final long version;
+  private final long layoutVersion;
+  private final Map<Long, Integer> locationIndexes;
+  private final long[] locationIds;
+  private final int locationCount;
+
+  // Edge columns are append-only: later snapshots may fill the spare capacity, which older
+  // snapshots never read because none of their edge lists reach past their own edge count.
+  private final int[] offsets;
+  private final int[] sources;
+  private final int[] targets;
+  private final byte[] types;
+  private final double[] prices;
+  private final double[] durations;
+  private final Transportation[] transportations;
+  private final int edgeCount;
+  private final int liveEdgeCount;
+
+  private final int[][][] patches;
+  private final long[][] patchVersions;
+  private final int patchedLocationCount;
+
+  private final Map<Class<?>, Object> derived = new ConcurrentHashMap<>();
+
+  // Only read and written by writes, which are serialized by the route graph
+  private EdgeIndex edgeIndex;
+
+  private RouteGraphSnapshot(
+      long version,
+      long layoutVersion,
+      Map<Long, Integer> locationIndexes,
+      long[] locationIds,
+      int locationCount,
+      int[] offsets,
+      int[] sources,
+      int[] targets,
+      byte[] types,
+      double[] prices,
+      double[] durations,
+      Transportation[] transportations,
+      int edgeCount,
+      int liveEdgeCount,
+      int[][][] patches,
+      long[][] patchVersions,
+      int patchedLocationCount,
+      EdgeIndex edgeIndex) {
+    this.version = version;
+    this.layoutVersion = layoutVersion;
+    this.locationIndexes = locationIndexes;
+    this.locationIds = locationIds;
+    this.locationCount = locationCount;
+    this.offsets = offsets;
+    this.sources = sources;
+    this.targets = targets;
+    this.types = types;
+    this.prices = prices;
+    this.durations = durations;
+    this.transportations = transportations;
+    this.edgeCount = edgeCount;
+    this.liveEdgeCount = liveEdgeCount;
+    this.patches = patches;
+    this.patchVersions = patchVersions;
+    this.patchedLocationCount = patchedLocationCount;
+    this.edgeIndex = edgeIndex;
+  }
+
+  public static RouteGraphSnapshot compile(List<Transportation> transportations, long version) {
+    Map<Long, Integer> locationIndexes = HashMap.newHashMap(transportations.size());
+    int edgeCount = transportations.size();
+    int[] sources = new int[edgeCount];
+    int[] edgeTargets = new int[edgeCount];
+
+    for (int i = 0; i < edgeCount; i++) {
+      Transportation transportation = transportations.get(i);
+      sources[i] = indexOf(locationIndexes, transportation.getFromLocation().getId());
+      edgeTargets[i] = indexOf(locationIndexes, transportation.getToLocation().getId());
+    }
+
+    int locationCount = locationIndexes.size();
+    long[] locationIds = new long[withHeadroom(locationCount)];
+    locationIndexes.forEach((id, index) -> locationIds[index] = id);
+
+    int[] offsets = new int[locationCount + 1];
+    for (int source : sources) {
+      offsets[source + 1]++;
+    }
+    for (int node = 0; node < locationCount; node++) {
+      offsets[node + 1] += offsets[node];
+    }
+
+    // Stable placement keeps each node's edges in their original order
+    int capacity = withHeadroom(edgeCount);
+    int[] cursor = new int[locationCount];
+    int[] edgeSources = new int[capacity];
+    int[] targets = new int[capacity];
+    byte[] types = new byte[capacity];
+    double[] prices = new double[capacity];
+    double[] durations = new double[capacity];
+    Transportation[] compiled = new Transportation[capacity];
+    for (int i = 0; i < edgeCount; i++) {
+      int edge = offsets[sources[i]] + cursor[sources[i]]++;
+      Transportation transportation = transportations.get(i);
+      edgeSources[edge] = sources[i];
+      targets[edge] = edgeTargets[i];
+      types[edge] = (byte) transportation.getType().ordinal();
+      prices[edge] = valueOf(transportation.getPrice());
+      durations[edge] = valueOf(transportation.getDurationInMinutes());
+      compiled[edge] = transportation;
+    }
+
+    return new RouteGraphSnapshot(
+        version,
+        version,
+        locationIndexes,
+        locationIds,
+        locationCount,
+        offsets,
+        edgeSources,
+        targets,
+        types,
+        prices,
+        durations,
+        compiled,
+        edgeCount,
+        edgeCount,
+        null,
+        null,
+        0,
+        null);
+  }
+
+  private static int indexOf(Map<Long, Integer> locationIndexes, Long locationId) {
+    return locationIndexes.computeIfAbsent(locationId, id -> locationIndexes.size());
+  }
+
+  // Missing prices and durations count as zero, as in the route totals
+  private static double valueOf(Double value) {
+    return value == null ? 0 : value;
+  }
+
+  private static int withHeadroom(int size) {
+    return size + (size >> 3) + 16;
+  }
+
+  public long version() {
+    return version;
+  }
+
+  /** Version this snapshot's edge ids were assigned in; snapshots of one layout share edge ids. */
+  public long layoutVersion() {
+    return layoutVersion;
+  }
+
+  /** Version of the snapshot that last changed the outgoing edges of {@code node}. */
+  public long changeVersion(int node) {
+    if (patch(node) == null) {
+      return layoutVersion;
+    }
+    return patchVersions[node >>> CHUNK_SHIFT][node & CHUNK_MASK];
+  }
+
+  public int locationCount() {
+    return locationCount;
+  }
+
+  public int edgeCount() {
+    return liveEdgeCount;
+  }
+
+  /** Returns the dense index of the location, or {@code -1} if it has no transportations. */
+  public int indexOf(Long locationId) {
+    Integer index = locationIndexes.get(locationId);
+    return index == null ? -1 : index;
+  }
+
+  public long locationId(int node) {
+    return locationIds[node];
+  }
+
+  public int degree(int node) {
+    int[] patch = patch(node);
+    if (patch != null) {
+      return patch.length;
+    }
+    return node < offsets.length - 1 ? offsets[node + 1] - offsets[node] : 0;
+  }
+
+  /** Returns the id of the {@code i}-th outgoing edge of {@code node}. */
+  public int edge(int node, int i) {
+    int[] patch = patch(node);
+    return patch != null ? patch[i] : offsets[node] + i;
+  }
+
+  public int target(int edge) {
+    return targets[edge];
+  }
+
+  public byte type(int edge) {
+    return types[edge];
+  }
+
+  public double price(int edge) {
+    return prices[edge];
+  }
+
+  public double duration(int edge) {
+    return durations[edge];
+  }
+
+  public Transportation transportation(int edge) {
+    return transportations[edge];
+  }
+
+  /**
+   * Returns a structure computed from this snapshot, building it on first use. Snapshots are
+   * immutable, so the result stays valid for as long as the snapshot is current.
+   */
+  public <T> T derived(Class<T> type, Function<RouteGraphSnapshot, T> factory) {
+    return type.cast(derived.computeIfAbsent(type, key -> factory.apply(this)));
+  }
+
+  private int[] patch(int node) {
+    if (patches == null || (node >>> CHUNK_SHIFT) >= patches.length) {
+      return null;
+    }
+    int[][] chunk = patches[node >>> CHUNK_SHIFT];
+    return chunk == null ? null : chunk[node & CHUNK_MASK];
+  }
+
+  RouteGraphSnapshot withTransportation(Transportation transportation, long nextVersion) {
+    var mutation = new Mutation(nextVersion);
+    int source = mutation.locationIndex(transportation.getFromLocation().getId());
+    int target = mutation.locationIndex(transportation.getToLocation().getId());
+    int[] existing = findEdge(transportation.getId());
+    int edge = mutation.appendEdge(source, target, transportation);
+    if (existing == null) {
+      mutation.addEdge(source, edge);
+    } else if (existing[0] == source) {
+      mutation.replaceEdge(source, existing[1], edge);
+    } else {
+      mutation.removeEdge(existing[0], existing[1]);
+      mutation.addEdge(source, edge);
+    }
+    mutation.indexEdge(transportation.getId(), edge);
+    return mutation.build();
+  }
+
+  RouteGraphSnapshot withoutTransportation(Long transportationId, long nextVersion) {
+    int[] existing = findEdge(transportationId);
+    if (existing == null) {
+      return this;
+    }
+    var mutation = new Mutation(nextVersion);
+    mutation.removeEdge(existing[0], existing[1]);
+    mutation.indexEdge(transportationId, -1);
+    return mutation.build();
+  }
+
+  boolean needsCompaction() {
+    return patchedLocationCount > Math.max(64, locationCount >> 4)
+        || edgeCount - liveEdgeCount > Math.max(64, liveEdgeCount >> 2);
+  }
+
+  RouteGraphSnapshot compact() {
+    List<Transportation> live = new ArrayList<>(liveEdgeCount);
+    for (int node = 0; node < locationCount; node++) {
+      for (int i = 0, degree = degree(node); i < degree; i++) {
+        live.add(transportations[edge(node, i)]);
+      }
+    }
+    return compile(live, version);
+  }
+
+  /** Returns {@code {node, slot}} of the live edge for the transportation, if it has one. */
+  private int[] findEdge(Long transportationId) {
+    if (edgeIndex == null) {
+      edgeIndex = EdgeIndex.of(this);
+    }
+    if (edgeIndex.version != version) {
+      // A write branching off an older snapshot, whose edges the index no longer describes
+      return scanEdge(transportationId);
+    }
+    Integer edge = edgeIndex.edges.get(transportationId);
+    if (edge == null) {
+      return null;
+    }
+    int node = sources[edge];
+    int[] patch = patch(node);
+    if (patch == null) {
+      return new int[] {node, edge - offsets[node]};
+    }
+    for (int i = 0; i < patch.length; i++) {
+      if (patch[i] == edge) {
+        return new int[] {node, i};
+      }
+    }
+    throw new IllegalStateException("Edge " + edge + " is not live at location " + node);
+  }
+
+  private int[] scanEdge(Long transportationId) {
+    for (int node = 0; node < locationCount; node++) {
+      int slot = findSlot(node, transportationId);
+      if (slot >= 0) {
+        return new int[] {node, slot};
+      }
+    }
+    return null;
+  }
+
+  private int findSlot(int node, Long transportationId) {
+    for (int i = 0, degree = degree(node); i < degree; i++) {
+      if (Objects.equals(transportations[edge(node, i)].getId(), transportationId)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private int[] adjacency(int node) {
+    int[] patch = patch(node);
+    if (patch != null) {
+      return patch;
+    }
+    int[] edges = new int[degree(node)];
+    for (int i = 0; i < edges.length; i++) {
+      edges[i] = offsets[node] + i;
+    }
+    return edges;
+  }
+
+  /** Accumulates one write, copying only the structures it actually touches. */
+  private final class Mutation {
+
+    private final long nextVersion;
+    private Map<Long, Integer> locationIndexes = RouteGraphSnapshot.this.locationIndexes;
+    private long[] locationIds = RouteGraphSnapshot.this.locationIds;
+    private int locationCount = RouteGraphSnapshot.this.locationCount;
+    private int[] sources = RouteGraphSnapshot.this.sources;
+    private int[] targets = RouteGraphSnapshot.this.targets;
+    private byte[] types = RouteGraphSnapshot.this.types;
+    private double[] prices = RouteGraphSnapshot.this.prices;
+    private double[] durations = RouteGraphSnapshot.this.durations;
+    private Transportation[] transportations = RouteGraphSnapshot.this.transportations;
+    private int edgeCount = RouteGraphSnapshot.this.edgeCount;
+    private int liveEdgeCount = RouteGraphSnapshot.this.liveEdgeCount;
+    private int[][][] patches;
+    private long[][] patchVersions;
+    private int patchedLocationCount = RouteGraphSnapshot.this.patchedLocationCount;
+    private EdgeIndex edgeIndex;
+    private final boolean[] copiedChunks;
+
+    private Mutation(long nextVersion) {
+      this.nextVersion = nextVersion;
+      int chunks = (locationIds.length + CHUNK_SIZE) >>> CHUNK_SHIFT;
+      int[][][] current = RouteGraphSnapshot.this.patches;
+      long[][] currentVersions = RouteGraphSnapshot.this.patchVersions;
+      patches =
+          current == null
+              ? new int[chunks][][]
+              : Arrays.copyOf(current, Math.max(chunks, current.length));
+      patchVersions =
+          currentVersions == null
+              ? new long[patches.length][]
+              : Arrays.copyOf(currentVersions, patches.length);
+      copiedChunks = new boolean[patches.length];
+    }
+
+    private int locationIndex(Long locationId) {
+      Integer index = locationIndexes.get(locationId);
+      if (index != null) {
+        return index;
+      }
+      if (locationIndexes == RouteGraphSnapshot.this.locationIndexes) {
+        locationIndexes = new HashMap<>(locationIndexes);
+      }
+      if (locationCount == locationIds.length) {
+        locationIds = Arrays.copyOf(locationIds, withHeadroom(locationCount));
+      }
+      locationIds[locationCount] = locationId;
+      locationIndexes.put(locationId, locationCount);
+      setPatch(locationCount, new int[0]);
+      return locationCount++;
+    }
+
+    private int appendEdge(int source, int target, Transportation transportation) {
+      if (edgeCount == targets.length) {
+        int capacity = withHeadroom(edgeCount);
+        sources = Arrays.copyOf(sources, capacity);
+        targets = Arrays.copyOf(targets, capacity);
+        types = Arrays.copyOf(types, capacity);
+        prices = Arrays.copyOf(prices, capacity);
+        durations = Arrays.copyOf(durations, capacity);
+        transportations = Arrays.copyOf(transportations, capacity);
+      }
+      sources[edgeCount] = source;
+      targets[edgeCount] = target;
+      types[edgeCount] = (byte) transportation.getType().ordinal();
+      prices[edgeCount] = valueOf(transportation.getPrice());
+      durations[edgeCount] = valueOf(transportation.getDurationInMinutes());
+      transportations[edgeCount] = transportation;
+      liveEdgeCount++;
+      return edgeCount++;
+    }
+
+    private void addEdge(int node, int edge) {
+      int[] current = currentAdjacency(node);
+      int[] updated = Arrays.copyOf(current, current.length + 1);
+      updated[current.length] = edge;
+      setPatch(node, updated);
+    }
+
+    private void replaceEdge(int node, int slot, int edge) {
+      int[] updated = currentAdjacency(node).clone();
+      updated[slot] = edge;
+      setPatch(node, updated);
+      liveEdgeCount--;
+    }
+
+    private void removeEdge(int node, int slot) {
+      int[] current = currentAdjacency(node);
+      int[] updated = new int[current.length - 1];
+      System.arraycopy(current, 0, updated, 0, slot);
+      System.arraycopy(current, slot + 1, updated, slot, updated.length - slot);
+      setPatch(node, updated);
+      liveEdgeCount--;
+    }
+
+    // Moves the index on to the new snapshot, unless the write branched off an older one
+    private void indexEdge(Long transportationId, int edge) {
+      EdgeIndex index = RouteGraphSnapshot.this.edgeIndex;
+      if (index == null || index.version != version) {
+        return;
+      }
+      if (edge < 0) {
+        index.edges.remove(transportationId);
+      } else {
+        index.edges.put(transportationId, edge);
+      }
+      index.version = nextVersion;
+      edgeIndex = index;
+    }
+
+    private int[] currentAdjacency(int node) {
+      int chunk = node >>> CHUNK_SHIFT;
+      if (chunk < patches.length && patches[chunk] != null) {
+        int[] patch = patches[chunk][node & CHUNK_MASK];
+        if (patch != null) {
+          return patch;
+        }
+      }
+      return node < RouteGraphSnapshot.this.locationCount ? adjacency(node) : new int[0];
+    }
+
+    private void setPatch(int node, int[] edges) {
+      int chunk = node >>> CHUNK_SHIFT;
+      if (chunk >= patches.length) {
+        patches = Arrays.copyOf(patches, chunk + 1);
+        patchVersions = Arrays.copyOf(patchVersions, chunk + 1);
+      }
+      if (chunk >= copiedChunks.length || !copiedChunks[chunk]) {
+        patches[chunk] = patches[chunk] == null ? new int[CHUNK_SIZE][] : patches[chunk].clone();
+        patchVersions[chunk] =
+            patchVersions[chunk] == null ? new long[CHUNK_SIZE] : patchVersions[chunk].clone();
+        if (chunk < copiedChunks.length) {
+          copiedChunks[chunk] = true;
+        }
+      }
+      if (patches[chunk][node & CHUNK_MASK] == null) {
+        patchedLocationCount++;
+      }
+      patches[chunk][node & CHUNK_MASK] = edges;
+      patchVersions[chunk][node & CHUNK_MASK] = nextVersion;
+    }
+
+    private RouteGraphSnapshot build() {
+      return new RouteGraphSnapshot(
+          nextVersion,
+          layoutVersion,
+          locationIndexes,
+          locationIds,
+          locationCount,
+          offsets,
+          sources,
+          targets,
+          types,
+          prices,
+          durations,
+          transportations,
+          edgeCount,
+          liveEdgeCount,
+          patches,
+          patchVersions,
+          patchedLocationCount,
+          edgeIndex);
+    }
+  }
+
+  /**
+   * Live edge of every transportation id as of snapshot {@code version}. Each write updates it in
+   * place and hands it on to the snapshot it builds, so older snapshots keep a reference to an
+   * index that no longer describes them and fall back to scanning.
+   */
+  private static final class EdgeIndex {
+
+    private final Map<Long, Integer> edges;
+    private long version;
+
+    private EdgeIndex(Map<Long, Integer> edges, long version) {
+      this.edges = edges;
+      this.version = version;
+    }
+
+    private static EdgeIndex of(RouteGraphSnapshot graph) {
+      Map<Long, Integer> edges = HashMap.newHashMap(graph.liveEdgeCount);
+      for (int node = 0; node < graph.locationCount; node++) {
+        for (int i = 0, degree = graph.degree(node); i < degree; i++) {
+          int edge = graph.edge(node, i);
+          edges.put(graph.transportations[edge].getId(), edge);
+        }
+      }
+      return new EdgeIndex(edges, graph.version);
+    }
+  }
+}
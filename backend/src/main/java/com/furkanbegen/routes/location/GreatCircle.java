@@ -0,0 +1,22 @@
+package com.furkanbegen.routes.location;
+
+/** Distances on a spherical earth, accurate to about 0.5% against the ellipsoid. */
+public final class GreatCircle {
+
+  public static final double EARTH_RADIUS_KM = 6371.0088;
+
+  private GreatCircle() {}
+
+  /** Haversine distance between two points given in degrees. */
+  public static double distanceKm(
+      double fromLatitude, double fromLongitude, double toLatitude, double toLongitude) {
+    double latitudeDelta = Math.toRadians(toLatitude - fromLatitude);
+    double longitudeDelta = Math.toRadians(toLongitude - fromLongitude);
+    double a =
+        Math.pow(Math.sin(latitudeDelta / 2), 2)
+            + Math.cos(Math.toRadians(fromLatitude))
+                * Math.cos(Math.toRadians(toLatitude))
+                * Math.pow(Math.sin(longitudeDelta / 2), 2);
+    return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+  }
+}
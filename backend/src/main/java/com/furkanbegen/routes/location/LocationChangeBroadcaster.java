@@ -0,0 +1,47 @@
+package com.furkanbegen.routes.location;
+
+import com.furkanbegen.routes.event.LocationChangedEvent;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Announces location writes to the other instances over Redis pub/sub as {@code
+ * <instance>:<location>} messages, and rebuilds the {@link LocationIndex} on receiving one from
+ * another instance.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LocationChangeBroadcaster {
+
+  public static final String CHANNEL = "location-changes";
+
+  private final StringRedisTemplate redisTemplate;
+  private final LocationIndex locationIndex;
+
+  private final String instanceId = UUID.randomUUID().toString();
+
+  @EventListener
+  public void onLocationChanged(LocationChangedEvent event) {
+    try {
+      redisTemplate.convertAndSend(CHANNEL, instanceId + ":" + event.locationId());
+    } catch (RuntimeException e) {
+      // The write itself succeeded; other instances catch up once their index reaches its max age
+      log.warn("Could not announce change of location {}", event.locationId(), e);
+    }
+  }
+
+  /** Handles a message published by this or another instance. */
+  public void onMessage(String message) {
+    int separator = message.indexOf(':');
+    if (separator < 0 || message.substring(0, separator).equals(instanceId)) {
+      return;
+    }
+    log.debug("Location {} changed on another instance", message.substring(separator + 1));
+    locationIndex.scheduleRebuild();
+  }
+}
@@ -0,0 +1,133 @@
+package com.furkanbegen.routes.location;
+
+import com.furkanbegen.routes.model.Location;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Immutable one-degree latitude/longitude grid over the locations that have coordinates. Cells are
+ * stored row by row in flat arrays, so a radius query visits only the cells overlapping the
+ * circle's bounding box (wrapping at the antimeridian, spanning all longitudes near a pole) and
+ * measures the great-circle distance to the points inside them.
+ */
+final class LocationGrid {
+
+  private static final int ROWS = 180;
+  private static final int COLUMNS = 360;
+
+  private final Location[] locations;
+  private final double[] latitudes;
+  private final double[] longitudes;
+  private final int[] cellStarts;
+
+  private LocationGrid(
+      Location[] locations, double[] latitudes, double[] longitudes, int[] cellStarts) {
+    this.locations = locations;
+    this.latitudes = latitudes;
+    this.longitudes = longitudes;
+    this.cellStarts = cellStarts;
+  }
+
+  static LocationGrid build(List<Location> locations) {
+    List<Location> placed =
+        locations.stream()
+            .filter(location -> location.getLatitude() != null && location.getLongitude() != null)
+            .toList();
+
+    // Counting sort by cell: count, turn counts into start offsets, then fill
+    int[] cells = new int[placed.size()];
+    int[] cellStarts = new int[ROWS * COLUMNS + 1];
+    for (int i = 0; i < cells.length; i++) {
+      Location location = placed.get(i);
+      cells[i] = row(location.getLatitude()) * COLUMNS + column(location.getLongitude());
+      cellStarts[cells[i] + 1]++;
+    }
+    for (int cell = 0; cell < ROWS * COLUMNS; cell++) {
+      cellStarts[cell + 1] += cellStarts[cell];
+    }
+
+    int[] next = cellStarts.clone();
+    Location[] sorted = new Location[cells.length];
+    double[] latitudes = new double[cells.length];
+    double[] longitudes = new double[cells.length];
+    for (int i = 0; i < cells.length; i++) {
+      int slot = next[cells[i]]++;
+      sorted[slot] = placed.get(i);
+      latitudes[slot] = placed.get(i).getLatitude();
+      longitudes[slot] = placed.get(i).getLongitude();
+    }
+    return new LocationGrid(sorted, latitudes, longitudes, cellStarts);
+  }
+
+  int size() {
+    return locations.length;
+  }
+
+  /** Returns up to {@code limit} locations within the radius, nearest first. */
+  List<Location> nearby(double latitude, double longitude, double radiusKm, int limit) {
+    // Farthest match kept so far on top, so it is the one to drop
+    PriorityQueue<Match> nearest =
+        new PriorityQueue<>(
+            Comparator.comparingDouble(Match::distanceKm).thenComparingInt(Match::slot).reversed());
+
+    double radiusDegrees = Math.toDegrees(radiusKm / GreatCircle.EARTH_RADIUS_KM);
+    double minLatitude = latitude - radiusDegrees;
+    double maxLatitude = latitude + radiusDegrees;
+    double longitudeSpan = longitudeSpan(latitude, radiusKm, minLatitude, maxLatitude);
+
+    int firstColumn = (int) Math.floor(longitude - longitudeSpan + 180);
+    int columnCount =
+        longitudeSpan >= 180
+            ? COLUMNS
+            : Math.min(
+                COLUMNS, (int) Math.floor(longitude + longitudeSpan + 180) - firstColumn + 1);
+
+    for (int row = row(Math.max(-90, minLatitude)); row <= row(Math.min(90, maxLatitude)); row++) {
+      for (int i = 0; i < columnCount; i++) {
+        int cell = row * COLUMNS + Math.floorMod(firstColumn + i, COLUMNS);
+        for (int slot = cellStarts[cell]; slot < cellStarts[cell + 1]; slot++) {
+          double distance =
+              GreatCircle.distanceKm(latitude, longitude, latitudes[slot], longitudes[slot]);
+          if (distance <= radiusKm) {
+            nearest.offer(new Match(slot, distance));
+            if (nearest.size() > limit) {
+              nearest.poll();
+            }
+          }
+        }
+      }
+    }
+
+    List<Location> result = new ArrayList<>(nearest.size());
+    while (!nearest.isEmpty()) {
+      result.add(locations[nearest.poll().slot()]);
+    }
+    return result.reversed();
+  }
+
+  /**
+   * Half-width in degrees of the longitudes a circle can reach, or 180 when it covers a pole.
+   * Outside the poles this is the exact bound for a spherical cap, {@code asin(sin r / cos lat)}.
+   */
+  private static double longitudeSpan(
+      double latitude, double radiusKm, double minLatitude, double maxLatitude) {
+    if (minLatitude <= -90 || maxLatitude >= 90) {
+      return 180;
+    }
+    double ratio =
+        Math.sin(radiusKm / GreatCircle.EARTH_RADIUS_KM) / Math.cos(Math.toRadians(latitude));
+    return ratio >= 1 ? 180 : Math.toDegrees(Math.asin(ratio));
+  }
+
+  private static int row(double latitude) {
+    return Math.min(ROWS - 1, Math.max(0, (int) Math.floor(latitude + 90)));
+  }
+
+  private static int column(double longitude) {
+    return Math.floorMod((int) Math.floor(longitude + 180), COLUMNS);
+  }
+
+  private record Match(int slot, double distanceKm) {}
+}
@@ -0,0 +1,128 @@
+package com.furkanbegen.routes.location;
+
+import com.furkanbegen.routes.config.BackgroundThreads;
+import com.furkanbegen.routes.event.LocationChangedEvent;
+import com.furkanbegen.routes.model.Location;
+import com.furkanbegen.routes.repository.LocationRepository;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory index over all locations, loaded in the background on startup and rebuilt after every
+ * location write, on this instance or, as relayed by {@link LocationChangeBroadcaster}, on another.
+ * Until the first build completes, lookups return empty and callers fall back to the database;
+ * afterwards they are answered from the latest build, which may trail a write by the time a rebuild
+ * takes. A build older than {@code locations.index.max-age} is rebuilt on its next lookup, which
+ * bounds staleness should a relayed write be lost.
+ */
+@Slf4j
+@Component
+public class LocationIndex {
+
+  private final LocationRepository locationRepository;
+  private final long maxAgeNanos;
+  private final ExecutorService executor;
+  private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+  private volatile LocationNameTable names;
+  private volatile LocationGrid grid;
+  private volatile long builtAt;
+
+  public LocationIndex(
+      LocationRepository locationRepository,
+      @Value("${locations.index.max-age:10m}") Duration maxAge,
+      @Value(BackgroundThreads.VIRTUAL_THREADS_PROPERTY) boolean virtualThreads) {
+    this.locationRepository = locationRepository;
+    this.maxAgeNanos = maxAge.toNanos();
+    this.executor =
+        Executors.newSingleThreadExecutor(
+            BackgroundThreads.factory("location-index", virtualThreads));
+  }
+
+  /**
+   * Ranks locations by how well their name matches the query: name prefixes first, then word
+   * prefixes, substrings and substrings with typos.
+   */
+  public Optional<Page<Location>> searchByName(String query, Pageable pageable) {
+    LocationNameTable current = names;
+    if (current == null) {
+      scheduleRebuild();
+      return Optional.empty();
+    }
+    rebuildIfOld();
+
+    int offset = pageable.isPaged() ? (int) Math.min(pageable.getOffset(), Integer.MAX_VALUE) : 0;
+    int limit = pageable.isPaged() ? pageable.getPageSize() : Integer.MAX_VALUE;
+    LocationNameTable.Matches matches = current.search(query, offset, limit);
+    return Optional.of(new PageImpl<>(matches.locations(), pageable, matches.total()));
+  }
+
+  /** Locations within the radius of the point, nearest first. */
+  public Optional<List<Location>> findNearby(
+      double latitude, double longitude, double radiusKm, int limit) {
+    LocationGrid current = grid;
+    if (current == null) {
+      scheduleRebuild();
+      return Optional.empty();
+    }
+    rebuildIfOld();
+    return Optional.of(current.nearby(latitude, longitude, radiusKm, limit));
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void onApplicationReady() {
+    scheduleRebuild();
+  }
+
+  @EventListener
+  public void onLocationChanged(LocationChangedEvent event) {
+    scheduleRebuild();
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  private void rebuildIfOld() {
+    if (System.nanoTime() - builtAt > maxAgeNanos) {
+      scheduleRebuild();
+    }
+  }
+
+  public void scheduleRebuild() {
+    if (rebuildScheduled.compareAndSet(false, true)) {
+      executor.execute(this::rebuild);
+    }
+  }
+
+  void rebuild() {
+    // Cleared before reading, so a write arriving mid-build schedules another pass
+    rebuildScheduled.set(false);
+    try {
+      long start = System.nanoTime();
+      List<Location> locations = locationRepository.findAll();
+      names = LocationNameTable.build(locations);
+      grid = LocationGrid.build(locations);
+      builtAt = start;
+      log.info(
+          "Indexed {} locations in {} ms",
+          locations.size(),
+          (System.nanoTime() - start) / 1_000_000);
+    } catch (RuntimeException e) {
+      log.warn("Could not build location index, searches fall back to the database", e);
+    }
+  }
+}
@@ -0,0 +1,259 @@
+package com.furkanbegen.routes.location;
+
+import com.furkanbegen.routes.model.Location;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable name index over a set of locations. Names are normalized (accents folded, lower case,
+ * punctuation collapsed to single spaces) and split into padded trigrams with an inverted list per
+ * trigram, the way {@code pg_trgm} does. A query first collects the locations sharing enough
+ * trigrams with it, then ranks each candidate as a name prefix, word prefix, substring or, for
+ * queries of four characters or more, a substring within one or two typos.
+ */
+final class LocationNameTable {
+
+  private static final int NAME_PREFIX = 0;
+  private static final int WORD_PREFIX = 1;
+  private static final int SUBSTRING = 2;
+  private static final int NO_MATCH = -1;
+  private static final int[] NO_LOCATIONS = new int[0];
+
+  private final Location[] locations;
+  private final String[] names;
+  private final Map<Long, int[]> postings;
+
+  private LocationNameTable(Location[] locations, String[] names, Map<Long, int[]> postings) {
+    this.locations = locations;
+    this.names = names;
+    this.postings = postings;
+  }
+
+  static LocationNameTable build(List<Location> locations) {
+    Location[] indexed = locations.toArray(Location[]::new);
+    String[] names = new String[indexed.length];
+    Map<Long, int[]> postings = new HashMap<>();
+    Map<Long, Integer> sizes = new HashMap<>();
+
+    for (int i = 0; i < indexed.length; i++) {
+      names[i] = normalize(indexed[i].getName());
+      for (long trigram : trigrams(names[i], true)) {
+        int size = sizes.merge(trigram, 1, Integer::sum);
+        int[] list = postings.get(trigram);
+        if (list == null || list.length < size) {
+          list = list == null ? new int[4] : Arrays.copyOf(list, list.length << 1);
+          postings.put(trigram, list);
+        }
+        list[size - 1] = i;
+      }
+    }
+    postings.replaceAll((trigram, list) -> Arrays.copyOf(list, sizes.get(trigram)));
+    return new LocationNameTable(indexed, names, postings);
+  }
+
+  int size() {
+    return locations.length;
+  }
+
+  /** Returns the requested slice of matches, best first, and how many there are in total. */
+  Matches search(String query, int offset, int limit) {
+    String normalized = normalize(query);
+    int maxEdits = normalized.length() < 4 ? 0 : normalized.length() < 8 ? 1 : 2;
+
+    List<long[]> matches = new ArrayList<>();
+    int[] candidates = candidates(normalized, maxEdits);
+    int candidateCount = candidates == null ? locations.length : candidates.length;
+    for (int i = 0; i < candidateCount; i++) {
+      int candidate = candidates == null ? i : candidates[i];
+      int rank = rank(names[candidate], normalized, maxEdits);
+      if (rank != NO_MATCH) {
+        matches.add(new long[] {rank, candidate});
+      }
+    }
+    matches.sort(
+        Comparator.<long[]>comparingLong(match -> match[0])
+            .thenComparingInt(match -> names[(int) match[1]].length())
+            .thenComparing(match -> names[(int) match[1]])
+            .thenComparingLong(match -> match[1]));
+
+    List<Location> page = new ArrayList<>();
+    for (int i = offset; i < Math.min(matches.size(), (long) offset + limit); i++) {
+      page.add(locations[(int) matches.get(i)[1]]);
+    }
+    return new Matches(page, matches.size());
+  }
+
+  record Matches(List<Location> locations, long total) {}
+
+  /**
+   * Returns the locations on enough of the query's posting lists, or {@code null} when the query is
+   * too short for trigrams and every name has to be checked directly. Posting lists hold locations
+   * in ascending order, so they are walked side by side and the work and garbage stay proportional
+   * to the lists rather than to the number of locations.
+   */
+  private int[] candidates(String query, int maxEdits) {
+    List<Long> inner = trigrams(query, false);
+    if (inner.isEmpty()) {
+      return null;
+    }
+
+    // A substring contains every unpadded trigram of the query, and each typo breaks at most three
+    int required = Math.max(1, inner.size() - 3 * maxEdits);
+    List<Long> trigrams = trigrams(query, true);
+    int[][] lists = new int[trigrams.size()][];
+    for (int i = 0; i < lists.length; i++) {
+      lists[i] = postings.getOrDefault(trigrams.get(i), NO_LOCATIONS);
+    }
+    int[] positions = new int[lists.length];
+    int[] candidates = new int[16];
+    int candidateCount = 0;
+    while (true) {
+      int location = Integer.MAX_VALUE;
+      for (int i = 0; i < lists.length; i++) {
+        if (positions[i] < lists[i].length) {
+          location = Math.min(location, lists[i][positions[i]]);
+        }
+      }
+      if (location == Integer.MAX_VALUE) {
+        return Arrays.copyOf(candidates, candidateCount);
+      }
+
+      int shared = 0;
+      for (int i = 0; i < lists.length; i++) {
+        if (positions[i] < lists[i].length && lists[i][positions[i]] == location) {
+          positions[i]++;
+          shared++;
+        }
+      }
+      if (shared >= required) {
+        if (candidateCount == candidates.length) {
+          candidates = Arrays.copyOf(candidates, candidateCount << 1);
+        }
+        candidates[candidateCount++] = location;
+      }
+    }
+  }
+
+  private static int rank(String name, String query, int maxEdits) {
+    if (name.startsWith(query)) {
+      return NAME_PREFIX;
+    }
+    if (name.contains(" " + query)) {
+      return WORD_PREFIX;
+    }
+    if (name.contains(query)) {
+      return SUBSTRING;
+    }
+    if (maxEdits > 0) {
+      int edits = substringDistance(query, name);
+      if (edits <= maxEdits) {
+        return SUBSTRING + edits;
+      }
+    }
+    return NO_MATCH;
+  }
+
+  /**
+   * Smallest edit distance between the query and any substring of the name, counting an adjacent
+   * transposition as one edit.
+   */
+  static int substringDistance(String query, String name) {
+    int m = query.length();
+    int[] before = new int[m + 1];
+    int[] previous = new int[m + 1];
+    int[] current = new int[m + 1];
+    for (int i = 0; i <= m; i++) {
+      previous[i] = i;
+    }
+
+    int best = previous[m];
+    for (int j = 1; j <= name.length(); j++) {
+      char c = name.charAt(j - 1);
+      // A match may start anywhere in the name
+      current[0] = 0;
+      for (int i = 1; i <= m; i++) {
+        int cost = query.charAt(i - 1) == c ? 0 : 1;
+        int distance = Math.min(previous[i - 1] + cost, Math.min(previous[i], current[i - 1]) + 1);
+        if (i > 1
+            && j > 1
+            && query.charAt(i - 1) == name.charAt(j - 2)
+            && query.charAt(i - 2) == c) {
+          distance = Math.min(distance, before[i - 2] + 1);
+        }
+        current[i] = distance;
+      }
+      best = Math.min(best, current[m]);
+
+      int[] recycled = before;
+      before = previous;
+      previous = current;
+      current = recycled;
+    }
+    return best;
+  }
+
+  static String normalize(String name) {
+    if (name == null) {
+      return "";
+    }
+    String decomposed = Normalizer.normalize(name, Normalizer.Form.NFKD);
+    StringBuilder normalized = new StringBuilder(decomposed.length());
+    boolean separated = true;
+    for (int i = 0; i < decomposed.length(); i++) {
+      char c = decomposed.charAt(i);
+      if (Character.getType(c) == Character.NON_SPACING_MARK) {
+        continue;
+      }
+      if (Character.isLetterOrDigit(c)) {
+        normalized.append(fold(c));
+        separated = false;
+      } else if (!separated) {
+        normalized.append(' ');
+        separated = true;
+      }
+    }
+    int length = normalized.length();
+    if (length > 0 && normalized.charAt(length - 1) == ' ') {
+      normalized.setLength(length - 1);
+    }
+    return normalized.toString();
+  }
+
+  // Letters that do not decompose into a base letter and a mark
+  private static char fold(char c) {
+    return switch (c) {
+      case 'ı', 'İ' -> 'i';
+      case 'ø', 'Ø' -> 'o';
+      case 'ł', 'Ł' -> 'l';
+      case 'đ', 'Đ' -> 'd';
+      default -> Character.toLowerCase(c);
+    };
+  }
+
+  /**
+   * Distinct trigrams of every word; padded ones add two leading spaces and one trailing space to
+   * each word, so that word starts and ends count as well.
+   */
+  private static List<Long> trigrams(String normalized, boolean padded) {
+    List<Long> trigrams = new ArrayList<>();
+    if (normalized.isEmpty()) {
+      return trigrams;
+    }
+    for (String word : normalized.split(" ")) {
+      String text = padded ? "  " + word + " " : word;
+      for (int i = 0; i + 3 <= text.length(); i++) {
+        long trigram =
+            ((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2);
+        if (!trigrams.contains(trigram)) {
+          trigrams.add(trigram);
+        }
+      }
+    }
+    return trigrams;
+  }
+}
@@ -0,0 +1,65 @@
+package com.furkanbegen.routes.mapper;
+
+import com.furkanbegen.routes.exception.InvalidRequestException;
+import java.nio.ByteBuffer;
+import java.util.Base64;
+
+/**
+ * Encodes keyset positions as opaque, URL-safe continuation tokens. An empty token stands for the
+ * start of the list.
+ */
+public final class CursorCodec {
+
+  public static final int MAX_PAGE_SIZE = 1000;
+
+  private static final long[] START = new long[0];
+
+  private CursorCodec() {}
+
+  public static String encode(long... keys) {
+    ByteBuffer buffer = ByteBuffer.allocate(keys.length * Long.BYTES);
+    for (long key : keys) {
+      buffer.putLong(key);
+    }
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+  }
+
+  public static long[] decode(String cursor) {
+    if (cursor == null || cursor.isEmpty()) {
+      return START;
+    }
+
+    byte[] bytes;
+    try {
+      bytes = Base64.getUrlDecoder().decode(cursor);
+    } catch (IllegalArgumentException e) {
+      throw new InvalidRequestException("Invalid cursor: " + cursor);
+    }
+    if (bytes.length == 0 || bytes.length % Long.BYTES != 0) {
+      throw new InvalidRequestException("Invalid cursor: " + cursor);
+    }
+
+    ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    long[] keys = new long[bytes.length / Long.BYTES];
+    for (int i = 0; i < keys.length; i++) {
+      keys[i] = buffer.getLong();
+    }
+    return keys;
+  }
+
+  /** Decodes a cursor over a single id key, returning {@code 0} for the start of the list. */
+  public static long decodeId(String cursor) {
+    long[] keys = decode(cursor);
+    if (keys.length > 1) {
+      throw new InvalidRequestException("Invalid cursor: " + cursor);
+    }
+    return keys.length == 0 ? 0 : keys[0];
+  }
+
+  public static void validateSize(int size) {
+    if (size < 1 || size > MAX_PAGE_SIZE) {
+      throw new InvalidRequestException(
+          String.format("Page size must be between 1 and %d", MAX_PAGE_SIZE));
+    }
+  }
+}
@@ -19,6 +19,11 @@ public class RouteMapper {
   public RouteDTO convertToRouteDTO(List<Transportation> transportations) {
     RouteDTO routeDTO = new RouteDTO();
     routeDTO.setTransportations(toTransportationDTOList(transportations));
+    if (transportations != null && !transportations.isEmpty()) {
+      routeDTO.setFromLocationId(transportations.get(0).getFromLocation().getId());
+      routeDTO.setToLocationId(
+          transportations.get(transportations.size() - 1).getToLocation().getId());
+    }
     calculateTotals(routeDTO);
     return routeDTO;
   }
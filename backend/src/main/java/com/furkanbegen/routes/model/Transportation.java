@@ -8,17 +8,22 @@ import lombok.EqualsAndHashCode;
 @Entity
 @Table(name = "transportations")
 @EqualsAndHashCode(callSuper = true)
+@NamedEntityGraph(
+    name = Transportation.WITH_LOCATIONS,
+    attributeNodes = {@NamedAttributeNode("fromLocation"), @NamedAttributeNode("toLocation")})
 public class Transportation extends BaseEntity {
 
+  public static final String WITH_LOCATIONS = "Transportation.withLocations";
+
   @Id
   @GeneratedValue(strategy = GenerationType.IDENTITY)
   private Long id;
 
-  @ManyToOne
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "from_location_id")
   private Location fromLocation;
 
-  @ManyToOne
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "to_location_id")
   private Location toLocation;
 
@@ -1,6 +1,8 @@
 package com.furkanbegen.routes.repository;
 
 import com.furkanbegen.routes.model.Location;
+import java.util.List;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -12,4 +14,15 @@ import org.springframework.stereotype.Repository;
 public interface LocationRepository extends JpaRepository<Location, Long> {
   @Query("SELECT l FROM Location l WHERE LOWER(l.name) LIKE LOWER(CONCAT('%', :query, '%'))")
   Page<Location> searchByNameContainingIgnoreCase(@Param("query") String query, Pageable pageable);
+
+  List<Location> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+  List<Location> findByLatitudeBetween(double minLatitude, double maxLatitude, Limit limit);
+
+  List<Location> findByLatitudeBetweenAndLongitudeBetween(
+      double minLatitude,
+      double maxLatitude,
+      double minLongitude,
+      double maxLongitude,
+      Limit limit);
 }
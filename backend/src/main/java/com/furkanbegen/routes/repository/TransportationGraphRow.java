@@ -0,0 +1,51 @@
+package com.furkanbegen.routes.repository;
+
+import com.furkanbegen.routes.model.Location;
+import com.furkanbegen.routes.model.Transportation;
+import com.furkanbegen.routes.model.TransportationType;
+import java.util.Map;
+
+/** The columns the route graph and its route mapping read, without any managed entity. */
+public record TransportationGraphRow(
+    Long id,
+    TransportationType type,
+    String name,
+    Double price,
+    Double durationInMinutes,
+    Long fromLocationId,
+    String fromLocationName,
+    Double fromLocationLatitude,
+    Double fromLocationLongitude,
+    Long toLocationId,
+    String toLocationName,
+    Double toLocationLatitude,
+    Double toLocationLongitude) {
+
+  /** Builds a detached transportation, sharing one location instance per id across rows. */
+  public Transportation toTransportation(Map<Long, Location> locations) {
+    var transportation = new Transportation();
+    transportation.setId(id);
+    transportation.setType(type);
+    transportation.setName(name);
+    transportation.setPrice(price);
+    transportation.setDurationInMinutes(durationInMinutes);
+    transportation.setFromLocation(
+        locations.computeIfAbsent(
+            fromLocationId,
+            id -> location(id, fromLocationName, fromLocationLatitude, fromLocationLongitude)));
+    transportation.setToLocation(
+        locations.computeIfAbsent(
+            toLocationId,
+            id -> location(id, toLocationName, toLocationLatitude, toLocationLongitude)));
+    return transportation;
+  }
+
+  private static Location location(Long id, String name, Double latitude, Double longitude) {
+    var location = new Location();
+    location.setId(id);
+    location.setName(name);
+    location.setLatitude(latitude);
+    location.setLongitude(longitude);
+    return location;
+  }
+}
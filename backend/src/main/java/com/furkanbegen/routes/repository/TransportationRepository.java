@@ -1,8 +1,54 @@
 package com.furkanbegen.routes.repository;
 
 import com.furkanbegen.routes.model.Transportation;
+import jakarta.persistence.QueryHint;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+/**
+ * Locations are lazy on {@link Transportation}; every read that hands transportations out fetches
+ * them in the same statement.
+ */
 @Repository
-public interface TransportationRepository extends JpaRepository<Transportation, Long> {}
+public interface TransportationRepository extends JpaRepository<Transportation, Long> {
+
+  @Override
+  @EntityGraph(Transportation.WITH_LOCATIONS)
+  List<Transportation> findAll();
+
+  @Override
+  @EntityGraph(Transportation.WITH_LOCATIONS)
+  Page<Transportation> findAll(Pageable pageable);
+
+  @Override
+  @EntityGraph(Transportation.WITH_LOCATIONS)
+  Optional<Transportation> findById(Long id);
+
+  @EntityGraph(Transportation.WITH_LOCATIONS)
+  List<Transportation> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+  /**
+   * Streams the route graph columns through a forward-only cursor. Must be consumed and closed
+   * inside a transaction.
+   */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+  @Query(
+      """
+      SELECT new com.furkanbegen.routes.repository.TransportationGraphRow(
+        t.id, t.type, t.name, t.price, t.durationInMinutes,
+        f.id, f.name, f.latitude, f.longitude,
+        d.id, d.name, d.latitude, d.longitude)
+      FROM Transportation t JOIN t.fromLocation f JOIN t.toLocation d
+      """)
+  Stream<TransportationGraphRow> streamGraphRows();
+}
@@ -0,0 +1,268 @@
+package com.furkanbegen.routes.search;
+
+import static com.furkanbegen.routes.validator.RouteValidator.MAX_TRANSPORTATIONS;
+
+import com.furkanbegen.routes.graph.RouteGraphSnapshot;
+import com.furkanbegen.routes.validator.RouteValidator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Exhaustive depth-first search over the snapshot. For {@linkplain RouteSink#isExhaustive()
+ * exhaustive} sinks, origins with at least {@code parallelMinFanOut} outgoing legs are searched in
+ * parallel: their first legs are split into fork-join tasks, each with its own path state and route
+ * buffer, and the buffers are replayed in first-leg order, so routes come out in the same order as
+ * from a sequential search. Sinks that can stop early are always searched sequentially, as the
+ * tasks would otherwise find and buffer routes the sink never takes.
+ */
+@Component
+@ConditionalOnProperty(
+    prefix = "routes.search",
+    name = "engine",
+    havingValue = "depth-first",
+    matchIfMissing = true)
+public class DepthFirstRouteSearchEngine implements RouteSearchEngine {
+
+  // Tasks per worker thread, so uneven branches still balance out
+  private static final int TASKS_PER_THREAD = 4;
+
+  private final RouteValidator routeValidator;
+  private final int parallelMinFanOut;
+  private final RouteSearchMetrics metrics;
+  private final ForkJoinPool pool = ForkJoinPool.commonPool();
+
+  public DepthFirstRouteSearchEngine(RouteValidator routeValidator) {
+    this(routeValidator, 0, RouteSearchMetrics.disabled());
+  }
+
+  @Autowired
+  public DepthFirstRouteSearchEngine(
+      RouteValidator routeValidator,
+      @Value("${routes.search.parallel.min-fan-out:0}") int parallelMinFanOut,
+      RouteSearchMetrics metrics) {
+    this.routeValidator = routeValidator;
+    this.parallelMinFanOut = parallelMinFanOut;
+    this.metrics = metrics;
+  }
+
+  @Override
+  public void search(RouteGraphSnapshot graph, int[] origins, int[] destinations, RouteSink sink) {
+    var destinationSet = new Destinations(graph.locationCount(), destinations);
+    int[] pathEdges = new int[MAX_TRANSPORTATIONS];
+    int[] pathLocations = new int[MAX_TRANSPORTATIONS + 1];
+    var counts = new TraversalCounts();
+    try {
+      for (int origin : origins) {
+        boolean completed =
+            sink.isExhaustive()
+                    && parallelMinFanOut > 0
+                    && graph.degree(origin) >= parallelMinFanOut
+                ? searchInParallel(graph, origin, destinationSet, sink, counts)
+                : searchRecursive(
+                    graph,
+                    origin,
+                    destinationSet,
+                    RouteValidator.START,
+                    0,
+                    pathEdges,
+                    pathLocations,
+                    sink,
+                    counts);
+        if (!completed) {
+          return;
+        }
+      }
+    } finally {
+      counts.publish(metrics);
+    }
+  }
+
+  // The origin itself is never a route, as no leg has been taken, so the search starts at depth 1
+  private boolean searchInParallel(
+      RouteGraphSnapshot graph,
+      int origin,
+      Destinations destinations,
+      RouteSink sink,
+      TraversalCounts counts) {
+    int degree = graph.degree(origin);
+    counts.nodesExpanded++;
+    int chunk = Math.max(1, degree / (pool.getParallelism() * TASKS_PER_THREAD));
+    var stopped = new AtomicBoolean();
+
+    List<ForkJoinTask<RouteBuffer>> tasks = new ArrayList<>();
+    for (int start = 0; start < degree; start += chunk) {
+      int first = start;
+      int last = Math.min(degree, start + chunk);
+      tasks.add(
+          pool.submit(() -> searchFirstLegs(graph, origin, first, last, destinations, stopped)));
+    }
+
+    try {
+      for (ForkJoinTask<RouteBuffer> task : tasks) {
+        RouteBuffer buffer = task.join();
+        counts.add(buffer.counts);
+        if (!buffer.replay(sink)) {
+          stopped.set(true);
+          return false;
+        }
+      }
+      return true;
+    } finally {
+      tasks.forEach(task -> task.cancel(false));
+    }
+  }
+
+  private RouteBuffer searchFirstLegs(
+      RouteGraphSnapshot graph,
+      int origin,
+      int first,
+      int last,
+      Destinations destinations,
+      AtomicBoolean stopped) {
+    var buffer = new RouteBuffer(stopped);
+    int[] pathEdges = new int[MAX_TRANSPORTATIONS];
+    int[] pathLocations = new int[MAX_TRANSPORTATIONS + 1];
+    pathLocations[0] = origin;
+
+    for (int i = first; i < last; i++) {
+      int edge = graph.edge(origin, i);
+      int next = graph.target(edge);
+      int nextState = routeValidator.next(RouteValidator.START, graph.type(edge));
+      if (next == origin) {
+        continue;
+      }
+      if (nextState == RouteValidator.REJECT) {
+        buffer.counts.edgesPruned++;
+        continue;
+      }
+
+      pathEdges[0] = edge;
+      if (!searchRecursive(
+          graph,
+          next,
+          destinations,
+          nextState,
+          1,
+          pathEdges,
+          pathLocations,
+          buffer,
+          buffer.counts)) {
+        break;
+      }
+    }
+    return buffer;
+  }
+
+  private boolean searchRecursive(
+      RouteGraphSnapshot graph,
+      int current,
+      Destinations destinations,
+      int state,
+      int depth,
+      int[] pathEdges,
+      int[] pathLocations,
+      RouteSink sink,
+      TraversalCounts counts) {
+
+    if (destinations.contains(current) && routeValidator.isAccepting(state)) {
+      if (!sink.accept(pathEdges, depth)) {
+        return false;
+      }
+      // A route may pass one destination on its way to another, but never return to its own
+      if (destinations.isSingle()) {
+        return true;
+      }
+    }
+
+    if (depth == MAX_TRANSPORTATIONS) {
+      return true;
+    }
+
+    // The path never holds more than a handful of locations, so a linear scan beats a visited set
+    pathLocations[depth] = current;
+    counts.nodesExpanded++;
+
+    for (int i = 0, degree = graph.degree(current); i < degree; i++) {
+      int edge = graph.edge(current, i);
+      int next = graph.target(edge);
+      if (isOnPath(pathLocations, depth, next)) {
+        continue;
+      }
+
+      int nextState = routeValidator.next(state, graph.type(edge));
+      if (nextState == RouteValidator.REJECT) {
+        counts.edgesPruned++;
+        continue;
+      }
+
+      pathEdges[depth] = edge;
+      if (!searchRecursive(
+          graph,
+          next,
+          destinations,
+          nextState,
+          depth + 1,
+          pathEdges,
+          pathLocations,
+          sink,
+          counts)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  static boolean isOnPath(int[] pathLocations, int depth, int location) {
+    for (int i = 0; i <= depth; i++) {
+      if (pathLocations[i] == location) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** Routes found by one task, kept as their length followed by their edges, and its work. */
+  private static final class RouteBuffer implements RouteSink {
+
+    private final AtomicBoolean stopped;
+    private final TraversalCounts counts = new TraversalCounts();
+    private int[] routes = new int[64];
+    private int size;
+
+    private RouteBuffer(AtomicBoolean stopped) {
+      this.stopped = stopped;
+    }
+
+    @Override
+    public boolean accept(int[] edges, int length) {
+      if (size + length + 1 > routes.length) {
+        routes = Arrays.copyOf(routes, Math.max(routes.length << 1, size + length + 1));
+      }
+      routes[size++] = length;
+      System.arraycopy(edges, 0, routes, size, length);
+      size += length;
+      return !stopped.get();
+    }
+
+    private boolean replay(RouteSink sink) {
+      int[] edges = new int[MAX_TRANSPORTATIONS];
+      for (int position = 0; position < size; ) {
+        int length = routes[position++];
+        System.arraycopy(routes, position, edges, 0, length);
+        position += length;
+        if (!sink.accept(edges, length)) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+}
@@ -0,0 +1,38 @@
+package com.furkanbegen.routes.search;
+
+/** Membership test for the destination indexes of a search, scanning small sets directly. */
+final class Destinations {
+
+  private static final int SCAN_THRESHOLD = 8;
+
+  private final int[] destinations;
+  private final boolean[] mask;
+
+  Destinations(int locationCount, int[] destinations) {
+    this.destinations = destinations;
+    if (destinations.length > SCAN_THRESHOLD) {
+      mask = new boolean[locationCount];
+      for (int destination : destinations) {
+        mask[destination] = true;
+      }
+    } else {
+      mask = null;
+    }
+  }
+
+  boolean contains(int node) {
+    if (mask != null) {
+      return mask[node];
+    }
+    for (int destination : destinations) {
+      if (destination == node) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  boolean isSingle() {
+    return destinations.length == 1;
+  }
+}
@@ -0,0 +1,66 @@
+package com.furkanbegen.routes.search;
+
+import com.furkanbegen.routes.graph.RouteGraphSnapshot;
+
+/** Per-snapshot adjacency split by transportation type, with OTHER legs also indexed by target. */
+final class FlightAnchoredIndex {
+
+  final int[] flightOffsets;
+  final int[] flightEdges;
+  final int[] otherOutOffsets;
+  final int[] otherOutEdges;
+  final int[] otherInOffsets;
+  final int[] otherInEdges;
+  final int[] otherInSources;
+
+  private FlightAnchoredIndex(RouteGraphSnapshot graph) {
+    int locationCount = graph.locationCount();
+    flightOffsets = new int[locationCount + 1];
+    otherOutOffsets = new int[locationCount + 1];
+    otherInOffsets = new int[locationCount + 1];
+
+    for (int node = 0; node < locationCount; node++) {
+      for (int i = 0, degree = graph.degree(node); i < degree; i++) {
+        int edge = graph.edge(node, i);
+        if (graph.type(edge) == RouteGraphSnapshot.FLIGHT) {
+          flightOffsets[node + 1]++;
+        } else {
+          otherOutOffsets[node + 1]++;
+          otherInOffsets[graph.target(edge) + 1]++;
+        }
+      }
+    }
+    for (int node = 0; node < locationCount; node++) {
+      flightOffsets[node + 1] += flightOffsets[node];
+      otherOutOffsets[node + 1] += otherOutOffsets[node];
+      otherInOffsets[node + 1] += otherInOffsets[node];
+    }
+
+    flightEdges = new int[flightOffsets[locationCount]];
+    otherOutEdges = new int[otherOutOffsets[locationCount]];
+    otherInEdges = new int[otherInOffsets[locationCount]];
+    otherInSources = new int[otherInOffsets[locationCount]];
+
+    int[] inCursor = new int[locationCount];
+    for (int node = 0; node < locationCount; node++) {
+      int flights = flightOffsets[node];
+      int others = otherOutOffsets[node];
+      for (int i = 0, degree = graph.degree(node); i < degree; i++) {
+        int edge = graph.edge(node, i);
+        if (graph.type(edge) == RouteGraphSnapshot.FLIGHT) {
+          flightEdges[flights++] = edge;
+        } else {
+          otherOutEdges[others++] = edge;
+          int target = graph.target(edge);
+          int slot = otherInOffsets[target] + inCursor[target]++;
+          otherInEdges[slot] = edge;
+          otherInSources[slot] = node;
+        }
+      }
+    }
+  }
+
+  static FlightAnchoredIndex of(RouteGraphSnapshot graph) {
+    return new FlightAnchoredIndex(graph);
+  }
+}
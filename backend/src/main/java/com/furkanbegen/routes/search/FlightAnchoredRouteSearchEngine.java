@@ -0,0 +1,237 @@
+package com.furkanbegen.routes.search;
+
+import static com.furkanbegen.routes.validator.RouteValidator.MAX_TRANSPORTATIONS;
+
+import com.furkanbegen.routes.graph.RouteGraphSnapshot;
+import java.util.Arrays;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Enumerates routes around their single flight: OTHER-only paths walked backwards from the
+ * destination give the post-flight part, OTHER-only paths walked forwards from the origin give the
+ * pre-flight part, and the two are joined through the flights leaving each pre-flight location.
+ * Only OTHER chains that can actually meet a flight are expanded, instead of every branch up to the
+ * full route length. Legs that would break the route rules are never considered, so no edges are
+ * counted as pruned.
+ */
+@Component
+@ConditionalOnProperty(prefix = "routes.search", name = "engine", havingValue = "flight-anchored")
+public class FlightAnchoredRouteSearchEngine implements RouteSearchEngine {
+
+  private static final int MAX_OTHER = MAX_TRANSPORTATIONS - 1;
+
+  private final RouteSearchMetrics metrics;
+
+  public FlightAnchoredRouteSearchEngine() {
+    this(RouteSearchMetrics.disabled());
+  }
+
+  @Autowired
+  public FlightAnchoredRouteSearchEngine(RouteSearchMetrics metrics) {
+    this.metrics = metrics;
+  }
+
+  @Override
+  public void search(RouteGraphSnapshot graph, int[] origins, int[] destinations, RouteSink sink) {
+    FlightAnchoredIndex index = graph.derived(FlightAnchoredIndex.class, FlightAnchoredIndex::of);
+
+    // Post-flight paths towards every destination share one table, keyed by where they start
+    var counts = new TraversalCounts();
+    var postFlightPaths = new PostFlightPaths(counts);
+    for (int destination : destinations) {
+      postFlightPaths.collect(index, destination);
+    }
+    postFlightPaths.sortByStart();
+
+    var join =
+        new Join(
+            graph,
+            index,
+            postFlightPaths,
+            new Destinations(graph.locationCount(), destinations),
+            sink,
+            counts);
+    try {
+      for (int origin : origins) {
+        if (!join.walkPreFlight(origin, 0)) {
+          return;
+        }
+      }
+    } finally {
+      counts.publish(metrics);
+    }
+  }
+
+  private static boolean contains(int[] nodes, int from, int count, int node) {
+    for (int i = from; i < from + count; i++) {
+      if (nodes[i] == node) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** OTHER-only paths ending at a destination, stored in flat arrays with a fixed stride. */
+  private static final class PostFlightPaths {
+
+    private static final int NODE_STRIDE = MAX_OTHER + 1;
+
+    private final TraversalCounts counts;
+    private int count;
+    private int[] lengths = new int[16];
+    private int[] edges = new int[16 * MAX_OTHER];
+    private int[] nodes = new int[16 * NODE_STRIDE];
+    private long[] byStart;
+
+    private PostFlightPaths(TraversalCounts counts) {
+      this.counts = counts;
+    }
+
+    private void collect(FlightAnchoredIndex index, int destination) {
+      int[] reversedEdges = new int[MAX_OTHER];
+      int[] reversedNodes = new int[NODE_STRIDE];
+      reversedNodes[0] = destination;
+      walkBackward(index, destination, 0, reversedEdges, reversedNodes);
+    }
+
+    private void walkBackward(
+        FlightAnchoredIndex index, int node, int depth, int[] reversedEdges, int[] reversedNodes) {
+      add(depth, reversedEdges, reversedNodes);
+      if (depth == MAX_OTHER) {
+        return;
+      }
+      counts.nodesExpanded++;
+
+      for (int slot = index.otherInOffsets[node]; slot < index.otherInOffsets[node + 1]; slot++) {
+        int source = index.otherInSources[slot];
+        if (contains(reversedNodes, 0, depth + 1, source)) {
+          continue;
+        }
+        reversedEdges[depth] = index.otherInEdges[slot];
+        reversedNodes[depth + 1] = source;
+        walkBackward(index, source, depth + 1, reversedEdges, reversedNodes);
+      }
+    }
+
+    private void add(int length, int[] reversedEdges, int[] reversedNodes) {
+      if (count == lengths.length) {
+        lengths = Arrays.copyOf(lengths, count << 1);
+        edges = Arrays.copyOf(edges, (count << 1) * MAX_OTHER);
+        nodes = Arrays.copyOf(nodes, (count << 1) * NODE_STRIDE);
+      }
+      lengths[count] = length;
+      for (int i = 0; i < length; i++) {
+        edges[count * MAX_OTHER + i] = reversedEdges[length - 1 - i];
+      }
+      for (int i = 0; i <= length; i++) {
+        nodes[count * NODE_STRIDE + i] = reversedNodes[length - i];
+      }
+      count++;
+    }
+
+    private void sortByStart() {
+      byStart = new long[count];
+      for (int path = 0; path < count; path++) {
+        byStart[path] = ((long) nodes[path * NODE_STRIDE] << 32) | path;
+      }
+      Arrays.sort(byStart);
+    }
+
+    private int firstStartingAt(int node) {
+      int position = Arrays.binarySearch(byStart, (long) node << 32);
+      return position >= 0 ? position : -position - 1;
+    }
+
+    private boolean startsAt(int position, int node) {
+      return position < count && (int) (byStart[position] >>> 32) == node;
+    }
+
+    private int pathAt(int position) {
+      return (int) byStart[position];
+    }
+
+    private boolean isDisjoint(int path, int[] otherNodes, int otherCount) {
+      for (int i = 0; i <= lengths[path]; i++) {
+        if (contains(otherNodes, 0, otherCount, nodes[path * NODE_STRIDE + i])) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  private static final class Join {
+
+    private final RouteGraphSnapshot graph;
+    private final FlightAnchoredIndex index;
+    private final PostFlightPaths postFlightPaths;
+    private final Destinations destinations;
+    private final RouteSink sink;
+    private final TraversalCounts counts;
+    private final int[] route = new int[MAX_TRANSPORTATIONS];
+    private final int[] preFlightNodes = new int[MAX_OTHER + 1];
+
+    private Join(
+        RouteGraphSnapshot graph,
+        FlightAnchoredIndex index,
+        PostFlightPaths postFlightPaths,
+        Destinations destinations,
+        RouteSink sink,
+        TraversalCounts counts) {
+      this.graph = graph;
+      this.index = index;
+      this.postFlightPaths = postFlightPaths;
+      this.destinations = destinations;
+      this.sink = sink;
+      this.counts = counts;
+    }
+
+    private boolean walkPreFlight(int node, int depth) {
+      preFlightNodes[depth] = node;
+      counts.nodesExpanded++;
+
+      for (int slot = index.flightOffsets[node]; slot < index.flightOffsets[node + 1]; slot++) {
+        int flight = index.flightEdges[slot];
+        int landing = graph.target(flight);
+        for (int position = postFlightPaths.firstStartingAt(landing);
+            postFlightPaths.startsAt(position, landing);
+            position++) {
+          int path = postFlightPaths.pathAt(position);
+          int postLength = postFlightPaths.lengths[path];
+          if (depth + 1 + postLength > MAX_TRANSPORTATIONS
+              || !postFlightPaths.isDisjoint(path, preFlightNodes, depth + 1)) {
+            continue;
+          }
+
+          route[depth] = flight;
+          System.arraycopy(postFlightPaths.edges, path * MAX_OTHER, route, depth + 1, postLength);
+          if (!sink.accept(route, depth + 1 + postLength)) {
+            return false;
+          }
+        }
+      }
+
+      if (depth == MAX_OTHER) {
+        return true;
+      }
+
+      for (int slot = index.otherOutOffsets[node]; slot < index.otherOutOffsets[node + 1]; slot++) {
+        int edge = index.otherOutEdges[slot];
+        int next = graph.target(edge);
+        // With a single destination every route ends there, so no pre-flight leg may pass through
+        // it
+        if ((destinations.isSingle() && destinations.contains(next))
+            || contains(preFlightNodes, 0, depth + 1, next)) {
+          continue;
+        }
+        route[depth] = edge;
+        if (!walkPreFlight(next, depth + 1)) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+}
@@ -0,0 +1,52 @@
+package com.furkanbegen.routes.search;
+
+import com.furkanbegen.routes.graph.RouteGraphSnapshot;
+import com.furkanbegen.routes.location.GreatCircle;
+import com.furkanbegen.routes.model.Location;
+import java.util.Arrays;
+
+/** Per-snapshot coordinates of every location index; {@code NaN} where a location has none. */
+final class GeoCoordinates {
+
+  private final double[] latitudes;
+  private final double[] longitudes;
+
+  private GeoCoordinates(RouteGraphSnapshot graph) {
+    int locationCount = graph.locationCount();
+    latitudes = new double[locationCount];
+    longitudes = new double[locationCount];
+    Arrays.fill(latitudes, Double.NaN);
+    Arrays.fill(longitudes, Double.NaN);
+
+    for (int node = 0; node < locationCount; node++) {
+      for (int i = 0, degree = graph.degree(node); i < degree; i++) {
+        int edge = graph.edge(node, i);
+        place(node, graph.transportation(edge).getFromLocation());
+        place(graph.target(edge), graph.transportation(edge).getToLocation());
+      }
+    }
+  }
+
+  static GeoCoordinates of(RouteGraphSnapshot graph) {
+    return new GeoCoordinates(graph);
+  }
+
+  boolean isPlaced(int node) {
+    return !Double.isNaN(latitudes[node]);
+  }
+
+  /** Great-circle distance in km, or {@code 0} when either location has no coordinates. */
+  double distanceKm(int from, int to) {
+    if (!isPlaced(from) || !isPlaced(to)) {
+      return 0;
+    }
+    return GreatCircle.distanceKm(latitudes[from], longitudes[from], latitudes[to], longitudes[to]);
+  }
+
+  private void place(int node, Location location) {
+    if (location.getLatitude() != null && location.getLongitude() != null) {
+      latitudes[node] = location.getLatitude();
+      longitudes[node] = location.getLongitude();
+    }
+  }
+}
@@ -0,0 +1,161 @@
+package com.furkanbegen.routes.search;
+
+import static com.furkanbegen.routes.validator.RouteValidator.MAX_TRANSPORTATIONS;
+
+import com.furkanbegen.routes.graph.RouteGraphSnapshot;
+import com.furkanbegen.routes.validator.RouteValidator;
+import java.util.Arrays;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Depth-first search bounded by geography, A*-style: a leg is only taken if the distance travelled
+ * so far, plus the leg, plus the great-circle distance left to a destination stays within {@code
+ * maxDetourRatio} times the direct distance between origin and that destination. Legs are expanded
+ * nearest-to-destination first, so early routes are the geographically direct ones. This is a
+ * heuristic: it drops long detours that the exhaustive engines would return. Legs touching a
+ * location without coordinates are never pruned.
+ */
+@Component
+@ConditionalOnProperty(prefix = "routes.search", name = "engine", havingValue = "geographic")
+public class GeographicRouteSearchEngine implements RouteSearchEngine {
+
+  // Trips shorter than this, such as transfers within a city, get this much room anyway
+  static final double MIN_DIRECT_KM = 100;
+
+  private final RouteValidator routeValidator;
+  private final double maxDetourRatio;
+  private final RouteSearchMetrics metrics;
+
+  public GeographicRouteSearchEngine(RouteValidator routeValidator, double maxDetourRatio) {
+    this(routeValidator, maxDetourRatio, RouteSearchMetrics.disabled());
+  }
+
+  @Autowired
+  public GeographicRouteSearchEngine(
+      RouteValidator routeValidator,
+      @Value("${routes.search.geographic.max-detour-ratio:2.0}") double maxDetourRatio,
+      RouteSearchMetrics metrics) {
+    if (!(maxDetourRatio >= 1)) {
+      throw new IllegalArgumentException("Maximum detour ratio must be at least 1");
+    }
+    this.routeValidator = routeValidator;
+    this.maxDetourRatio = maxDetourRatio;
+    this.metrics = metrics;
+  }
+
+  @Override
+  public void search(RouteGraphSnapshot graph, int[] origins, int[] destinations, RouteSink sink) {
+    GeoCoordinates coordinates = graph.derived(GeoCoordinates.class, GeoCoordinates::of);
+    var search = new Search(graph, coordinates, destinations, sink);
+    try {
+      for (int origin : origins) {
+        for (int i = 0; i < destinations.length; i++) {
+          boolean bounded = coordinates.isPlaced(origin) && coordinates.isPlaced(destinations[i]);
+          search.budgets[i] =
+              bounded
+                  ? maxDetourRatio
+                      * Math.max(coordinates.distanceKm(origin, destinations[i]), MIN_DIRECT_KM)
+                  : Double.POSITIVE_INFINITY;
+        }
+        if (!search.expand(origin, RouteValidator.START, 0, 0)) {
+          return;
+        }
+      }
+    } finally {
+      search.counts.publish(metrics);
+    }
+  }
+
+  /** State of one search; buffers are reused across origins and depths. */
+  private final class Search {
+
+    private final RouteGraphSnapshot graph;
+    private final GeoCoordinates coordinates;
+    private final int[] destinationIndexes;
+    private final Destinations destinations;
+    private final RouteSink sink;
+    private final double[] budgets;
+    private final int[] pathEdges = new int[MAX_TRANSPORTATIONS];
+    private final int[] pathLocations = new int[MAX_TRANSPORTATIONS + 1];
+    private final long[][] candidates = new long[MAX_TRANSPORTATIONS][16];
+    private final TraversalCounts counts = new TraversalCounts();
+
+    private Search(
+        RouteGraphSnapshot graph, GeoCoordinates coordinates, int[] destinations, RouteSink sink) {
+      this.graph = graph;
+      this.coordinates = coordinates;
+      this.destinationIndexes = destinations;
+      this.destinations = new Destinations(graph.locationCount(), destinations);
+      this.sink = sink;
+      this.budgets = new double[destinations.length];
+    }
+
+    private boolean expand(int current, int state, int depth, double travelledKm) {
+      if (destinations.contains(current) && routeValidator.isAccepting(state)) {
+        if (!sink.accept(pathEdges, depth)) {
+          return false;
+        }
+        // A route may pass one destination on its way to another, but never return to its own
+        if (destinations.isSingle()) {
+          return true;
+        }
+      }
+
+      if (depth == MAX_TRANSPORTATIONS) {
+        return true;
+      }
+
+      pathLocations[depth] = current;
+      counts.nodesExpanded++;
+
+      // Surviving legs packed as (remaining distance, slot); non-negative float bits sort in order
+      int degree = graph.degree(current);
+      if (candidates[depth].length < degree) {
+        candidates[depth] = new long[degree];
+      }
+      long[] ordered = candidates[depth];
+      int count = 0;
+      for (int i = 0; i < degree; i++) {
+        int edge = graph.edge(current, i);
+        int next = graph.target(edge);
+        if (DepthFirstRouteSearchEngine.isOnPath(pathLocations, depth, next)) {
+          continue;
+        }
+        if (routeValidator.next(state, graph.type(edge)) == RouteValidator.REJECT) {
+          counts.edgesPruned++;
+          continue;
+        }
+
+        double reachedKm = travelledKm + coordinates.distanceKm(current, next);
+        double remainingKm = Double.POSITIVE_INFINITY;
+        boolean withinBudget = false;
+        for (int d = 0; d < destinationIndexes.length; d++) {
+          double toDestinationKm = coordinates.distanceKm(next, destinationIndexes[d]);
+          remainingKm = Math.min(remainingKm, toDestinationKm);
+          withinBudget |= reachedKm + toDestinationKm <= budgets[d];
+        }
+        if (withinBudget) {
+          ordered[count++] = ((long) Float.floatToIntBits((float) remainingKm) << 32) | i;
+        }
+      }
+      Arrays.sort(ordered, 0, count);
+
+      for (int c = 0; c < count; c++) {
+        int edge = graph.edge(current, (int) ordered[c]);
+        int next = graph.target(edge);
+        pathEdges[depth] = edge;
+        if (!expand(
+            next,
+            routeValidator.next(state, graph.type(edge)),
+            depth + 1,
+            travelledKm + coordinates.distanceKm(current, next))) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+}
@@ -0,0 +1,87 @@
+package com.furkanbegen.routes.search;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing map from non-negative {@code long} keys to {@code int} values, without boxing.
+ */
+final class LongIntHashMap {
+
+  static final int MISSING = -1;
+
+  private static final long EMPTY = -1L;
+
+  private long[] keys;
+  private int[] values;
+  private int size;
+
+  LongIntHashMap(int expectedSize) {
+    int capacity = Integer.highestOneBit(Math.max(expectedSize, 8) * 2 - 1) << 1;
+    keys = new long[capacity];
+    values = new int[capacity];
+    Arrays.fill(keys, EMPTY);
+  }
+
+  int size() {
+    return size;
+  }
+
+  int get(long key) {
+    int mask = keys.length - 1;
+    for (int slot = mix(key) & mask; ; slot = (slot + 1) & mask) {
+      if (keys[slot] == key) {
+        return values[slot];
+      }
+      if (keys[slot] == EMPTY) {
+        return MISSING;
+      }
+    }
+  }
+
+  /**
+   * Returns the value already mapped to {@code key}, or maps it to {@code value} and returns it.
+   */
+  int putIfAbsent(long key, int value) {
+    if ((size + 1) * 2 > keys.length) {
+      resize();
+    }
+    int mask = keys.length - 1;
+    for (int slot = mix(key) & mask; ; slot = (slot + 1) & mask) {
+      if (keys[slot] == key) {
+        return values[slot];
+      }
+      if (keys[slot] == EMPTY) {
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+        return value;
+      }
+    }
+  }
+
+  private void resize() {
+    long[] oldKeys = keys;
+    int[] oldValues = values;
+    keys = new long[oldKeys.length << 1];
+    values = new int[oldKeys.length << 1];
+    Arrays.fill(keys, EMPTY);
+
+    int mask = keys.length - 1;
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldKeys[i] == EMPTY) {
+        continue;
+      }
+      int slot = mix(oldKeys[i]) & mask;
+      while (keys[slot] != EMPTY) {
+        slot = (slot + 1) & mask;
+      }
+      keys[slot] = oldKeys[i];
+      values[slot] = oldValues[i];
+    }
+  }
+
+  private static int mix(long key) {
+    long hash = key * 0x9E3779B97F4A7C15L;
+    return (int) (hash ^ (hash >>> 32));
+  }
+}
@@ -0,0 +1,205 @@
+package com.furkanbegen.routes.search;
+
+import static com.furkanbegen.routes.validator.RouteValidator.MAX_TRANSPORTATIONS;
+
+import com.furkanbegen.routes.graph.RouteGraphSnapshot;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.Arrays;
+import java.util.function.Consumer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Size-bounded cache of complete route search results per origin and destination. Each entry keeps
+ * the snapshot version it was found in and the locations within reach of its origin, which are the
+ * only ones whose edges its routes can use. An entry is replayed as long as none of those locations
+ * changed since; a write elsewhere in the graph leaves it in place, and a write within reach makes
+ * the next search replace it. Reloads and compactions renumber edges, so entries from an earlier
+ * layout are searched again.
+ */
+@Component
+@ConditionalOnProperty(
+    prefix = "routes.cache",
+    name = "enabled",
+    havingValue = "true",
+    matchIfMissing = true)
+public class RouteCache {
+
+  private final Cache<Key, Entry> cache;
+  private final long maxEdges;
+
+  public RouteCache(
+      @Value("${routes.cache.max-edges:1000000}") long maxEdges, MeterRegistry meterRegistry) {
+    this.maxEdges = maxEdges;
+    // Weighed by size, plus one so that pairs without routes are evicted too
+    this.cache =
+        Caffeine.newBuilder()
+            .maximumWeight(maxEdges)
+            .weigher((Key key, Entry entry) -> entry.routes.length + entry.reach.length + 1)
+            .recordStats()
+            .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, "routes");
+  }
+
+  /**
+   * Replays the cached routes between two location indexes of {@code graph} into {@code sink}. On a
+   * miss, runs {@code search} instead and, for an {@linkplain RouteSink#isExhaustive() exhaustive}
+   * sink, caches what it finds. Sinks that can stop early, like a streamed response, are searched
+   * without recording, as they are meant to hold no more routes than they take.
+   */
+  public void search(
+      RouteGraphSnapshot graph, int from, int to, RouteSink sink, Consumer<RouteSink> search) {
+    Key key = new Key(graph.locationId(from), graph.locationId(to));
+    Entry entry = cache.getIfPresent(key);
+    if (entry != null && entry.isCurrentIn(graph)) {
+      replay(entry.routes, sink);
+      return;
+    }
+    if (!sink.isExhaustive()) {
+      search.accept(sink);
+      return;
+    }
+
+    var recorder = new Recorder(sink);
+    search.accept(recorder);
+    if (recorder.complete) {
+      cache.put(
+          key,
+          new Entry(
+              graph.layoutVersion(),
+              graph.version(),
+              reach(graph, from),
+              Arrays.copyOf(recorder.routes, recorder.size)));
+    }
+  }
+
+  // The origin and every location within MAX_TRANSPORTATIONS - 1 legs of it, whether or not the
+  // route rules would take those legs
+  private static int[] reach(RouteGraphSnapshot graph, int from) {
+    int[] reach = {from};
+    int[] level = reach;
+    for (int depth = 1; depth < MAX_TRANSPORTATIONS; depth++) {
+      int[] next = new int[16];
+      int size = 0;
+      for (int node : level) {
+        for (int i = 0, degree = graph.degree(node); i < degree; i++) {
+          if (size == next.length) {
+            next = Arrays.copyOf(next, size << 1);
+          }
+          next[size++] = graph.target(graph.edge(node, i));
+        }
+      }
+      level = without(distinct(next, size), reach);
+      reach = merge(reach, level);
+    }
+    return reach;
+  }
+
+  private static int[] distinct(int[] nodes, int size) {
+    Arrays.sort(nodes, 0, size);
+    int count = 0;
+    for (int i = 0; i < size; i++) {
+      if (count == 0 || nodes[count - 1] != nodes[i]) {
+        nodes[count++] = nodes[i];
+      }
+    }
+    return Arrays.copyOf(nodes, count);
+  }
+
+  // Both arrays sorted and distinct
+  private static int[] without(int[] nodes, int[] excluded) {
+    int count = 0;
+    for (int node : nodes) {
+      if (Arrays.binarySearch(excluded, node) < 0) {
+        nodes[count++] = node;
+      }
+    }
+    return Arrays.copyOf(nodes, count);
+  }
+
+  private static int[] merge(int[] first, int[] second) {
+    int[] merged = Arrays.copyOf(first, first.length + second.length);
+    System.arraycopy(second, 0, merged, first.length, second.length);
+    Arrays.sort(merged);
+    return merged;
+  }
+
+  private static void replay(int[] routes, RouteSink sink) {
+    int[] edges = new int[MAX_TRANSPORTATIONS];
+    for (int position = 0; position < routes.length; ) {
+      int length = routes[position++];
+      System.arraycopy(routes, position, edges, 0, length);
+      position += length;
+      if (!sink.accept(edges, length)) {
+        return;
+      }
+    }
+  }
+
+  private record Key(long fromLocationId, long toLocationId) {}
+
+  private record Entry(long layoutVersion, long version, int[] reach, int[] routes) {
+
+    private boolean isCurrentIn(RouteGraphSnapshot graph) {
+      // Entries found in a newer snapshot may use edges an older one does not have
+      if (graph.layoutVersion() != layoutVersion || graph.version() < version) {
+        return false;
+      }
+      for (int node : reach) {
+        if (graph.changeVersion(node) > version) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  // Records each route as its length followed by its edges
+  private final class Recorder implements RouteSink {
+
+    private final RouteSink sink;
+    private int[] routes = new int[64];
+    private int size;
+    private boolean complete = true;
+
+    private Recorder(RouteSink sink) {
+      this.sink = sink;
+    }
+
+    @Override
+    public boolean accept(int[] edges, int length) {
+      if (complete) {
+        record(edges, length);
+      }
+      if (!sink.accept(edges, length)) {
+        complete = false;
+        return false;
+      }
+      return true;
+    }
+
+    @Override
+    public boolean isExhaustive() {
+      return true;
+    }
+
+    private void record(int[] edges, int length) {
+      if (size + length + 1 > maxEdges) {
+        // Too large to be cached anyway
+        complete = false;
+        routes = null;
+        return;
+      }
+      if (size + length + 1 > routes.length) {
+        routes = Arrays.copyOf(routes, Math.max(routes.length << 1, size + length + 1));
+      }
+      routes[size++] = length;
+      System.arraycopy(edges, 0, routes, size, length);
+      size += length;
+    }
+  }
+}
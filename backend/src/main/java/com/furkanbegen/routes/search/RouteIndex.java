@@ -0,0 +1,141 @@
+package com.furkanbegen.routes.search;
+
+import com.furkanbegen.routes.config.BackgroundThreads;
+import com.furkanbegen.routes.event.TransportationChangedEvent;
+import com.furkanbegen.routes.event.TransportationsInvalidatedEvent;
+import com.furkanbegen.routes.graph.RouteGraph;
+import com.furkanbegen.routes.graph.RouteGraphSnapshot;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * All-pairs route index, materialized in the background from the current route graph and rebuilt
+ * whenever a transportation changes, here or on another instance. Lookups are only answered from a
+ * table built for the exact snapshot being searched; otherwise the caller falls back to a live
+ * search.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "routes.index", name = "enabled", havingValue = "true")
+public class RouteIndex implements MeterBinder {
+
+  private final RouteGraph routeGraph;
+  private final Timer buildTimer;
+
+  private final ExecutorService executor;
+  private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+  private volatile RouteTable table;
+
+  public RouteIndex(
+      RouteGraph routeGraph,
+      MeterRegistry meterRegistry,
+      @Value(BackgroundThreads.VIRTUAL_THREADS_PROPERTY) boolean virtualThreads) {
+    this.routeGraph = routeGraph;
+    this.executor =
+        Executors.newSingleThreadExecutor(BackgroundThreads.factory("route-index", virtualThreads));
+    this.buildTimer =
+        Timer.builder("routes.index.build")
+            .description("Time to materialize the all-pairs route index")
+            .register(meterRegistry);
+  }
+
+  // Bound once the index is constructed, so the gauges never see it half-built
+  @Override
+  public void bindTo(MeterRegistry meterRegistry) {
+    Gauge.builder("routes.index.pairs", this, RouteIndex::pairCount)
+        .description("Origin-destination pairs with at least one route")
+        .register(meterRegistry);
+    Gauge.builder("routes.index.routes", this, RouteIndex::routeCount)
+        .description("Routes held by the index")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Emits the indexed routes between two location indexes of {@code graph}. Returns {@code false},
+   * without emitting anything, when the index has not caught up with that snapshot yet.
+   */
+  public boolean lookup(RouteGraphSnapshot graph, int from, int to, RouteSink sink) {
+    RouteTable current = table;
+    if (current == null || current.graph != graph) {
+      scheduleRebuild();
+      return false;
+    }
+    current.forEachRoute(from, to, sink);
+    return true;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void onApplicationReady() {
+    scheduleRebuild();
+  }
+
+  @EventListener
+  public void onTransportationChanged(TransportationChangedEvent event) {
+    scheduleRebuild();
+  }
+
+  @EventListener
+  public void onTransportationsInvalidated(TransportationsInvalidatedEvent event) {
+    scheduleRebuild();
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  void scheduleRebuild() {
+    if (rebuildScheduled.compareAndSet(false, true)) {
+      executor.execute(this::rebuild);
+    }
+  }
+
+  void rebuild() {
+    // Cleared before reading the graph, so a change arriving mid-build schedules another pass
+    rebuildScheduled.set(false);
+    try {
+      RouteGraphSnapshot graph = routeGraph.current();
+      RouteTable current = table;
+      if (current != null && current.graph == graph) {
+        return;
+      }
+
+      long start = System.nanoTime();
+      RouteTable built = RouteTable.build(graph);
+      long elapsed = System.nanoTime() - start;
+      buildTimer.record(elapsed, TimeUnit.NANOSECONDS);
+      table = built;
+      log.info(
+          "Built route index for graph v{} with {} routes over {} pairs in {} ms",
+          graph.version(),
+          built.routeCount(),
+          built.pairCount(),
+          elapsed / 1_000_000);
+    } catch (RuntimeException e) {
+      log.warn("Could not build route index, searches fall back to the live graph", e);
+    }
+  }
+
+  private double pairCount() {
+    RouteTable current = table;
+    return current == null ? 0 : current.pairCount();
+  }
+
+  private double routeCount() {
+    RouteTable current = table;
+    return current == null ? 0 : current.routeCount();
+  }
+}
@@ -0,0 +1,18 @@
+package com.furkanbegen.routes.search;
+
+import com.furkanbegen.routes.graph.RouteGraphSnapshot;
+
+public interface RouteSearchEngine {
+
+  /**
+   * Emits every valid route from any of the origin location indexes to any of the destination
+   * indexes in one combined search, so the cost follows the graph rather than the number of pairs.
+   * Both arrays must be free of duplicates.
+   */
+  void search(RouteGraphSnapshot graph, int[] origins, int[] destinations, RouteSink sink);
+
+  /** Emits every valid route between the two location indexes of the snapshot. */
+  default void search(RouteGraphSnapshot graph, int from, int to, RouteSink sink) {
+    search(graph, new int[] {from}, new int[] {to}, sink);
+  }
+}
@@ -0,0 +1,92 @@
+package com.furkanbegen.routes.search;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import java.util.concurrent.TimeUnit;
+import org.springframework.stereotype.Component;
+
+/**
+ * Meters for the phases of a route search and the work done by the engines. Every meter is
+ * registered up front, and callers pass in plain {@link System#nanoTime()} readings and counts
+ * summed in local fields, so recording never allocates or looks up a meter per search.
+ */
+@Component
+public class RouteSearchMetrics {
+
+  public enum Phase {
+    LOCATION_LOOKUP("location-lookup"),
+    GRAPH("graph"),
+    TRAVERSAL("traversal"),
+    MAPPING("mapping"),
+    PAGINATION("pagination");
+
+    private final String tag;
+
+    Phase(String tag) {
+      this.tag = tag;
+    }
+  }
+
+  private final Timer[] phaseTimers = new Timer[Phase.values().length];
+  private final Counter nodesExpanded;
+  private final Counter edgesPruned;
+  private final Counter routesFound;
+  private final DistributionSummary resultSize;
+
+  public RouteSearchMetrics(MeterRegistry meterRegistry) {
+    for (Phase phase : Phase.values()) {
+      phaseTimers[phase.ordinal()] =
+          Timer.builder("routes.search.phase")
+              .description("Time spent in one phase of a route search")
+              .tag("phase", phase.tag)
+              .publishPercentileHistogram()
+              .register(meterRegistry);
+    }
+    this.nodesExpanded =
+        Counter.builder("routes.search.nodes.expanded")
+            .description("Locations whose outgoing legs were examined by a route search")
+            .register(meterRegistry);
+    this.edgesPruned =
+        Counter.builder("routes.search.edges.pruned")
+            .description("Legs not taken because the route validator rejected them")
+            .register(meterRegistry);
+    this.routesFound =
+        Counter.builder("routes.search.routes.found")
+            .description("Routes found by route searches")
+            .register(meterRegistry);
+    this.resultSize =
+        DistributionSummary.builder("routes.search.results")
+            .description("Routes found by one route search")
+            .baseUnit("routes")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+  }
+
+  /** Metrics that are counted nowhere, for engines and services built outside the context. */
+  public static RouteSearchMetrics disabled() {
+    return new RouteSearchMetrics(new CompositeMeterRegistry());
+  }
+
+  /**
+   * Records the time from {@code startNanos} to now against the phase and returns now, so that
+   * consecutive phases can be timed from one reading to the next.
+   */
+  public long recordPhase(Phase phase, long startNanos) {
+    long now = System.nanoTime();
+    phaseTimers[phase.ordinal()].record(now - startNanos, TimeUnit.NANOSECONDS);
+    return now;
+  }
+
+  public void recordTraversal(long expanded, long pruned) {
+    nodesExpanded.increment(expanded);
+    edgesPruned.increment(pruned);
+  }
+
+  public void recordResults(long routes) {
+    routesFound.increment(routes);
+    resultSize.record(routes);
+  }
+}
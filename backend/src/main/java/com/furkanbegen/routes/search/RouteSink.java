@@ -0,0 +1,19 @@
+package com.furkanbegen.routes.search;
+
+/**
+ * Receives routes as they are found. The edge buffer is reused by the engine, so implementations
+ * copy whatever they keep. Returning {@code false} stops the search.
+ */
+@FunctionalInterface
+public interface RouteSink {
+
+  boolean accept(int[] edges, int length);
+
+  /**
+   * Whether the sink takes every route it is offered. Engines may run ahead of an exhaustive sink,
+   * but must follow one that can stop early route by route, so that stopping ends the search.
+   */
+  default boolean isExhaustive() {
+    return false;
+  }
+}
@@ -0,0 +1,191 @@
+package com.furkanbegen.routes.search;
+
+import static com.furkanbegen.routes.validator.RouteValidator.MAX_TRANSPORTATIONS;
+
+import com.furkanbegen.routes.graph.RouteGraphSnapshot;
+import java.util.Arrays;
+
+/**
+ * Every valid route of one snapshot, grouped by (origin, destination) location index. Routes are
+ * stored column-wise with a fixed stride of {@link
+ * com.furkanbegen.routes.validator.RouteValidator#MAX_TRANSPORTATIONS} edge ids, next to their
+ * length.
+ */
+final class RouteTable {
+
+  private static final int MAX_OTHER = MAX_TRANSPORTATIONS - 1;
+
+  final RouteGraphSnapshot graph;
+  private final LongIntHashMap pairs;
+  private final int[] pairStarts;
+  private final int[] edges;
+  private final byte[] lengths;
+
+  private RouteTable(RouteGraphSnapshot graph, LongIntHashMap pairs, int[] pairCounts) {
+    this.graph = graph;
+    this.pairs = pairs;
+
+    int pairCount = pairs.size();
+    pairStarts = new int[pairCount + 1];
+    for (int pair = 0; pair < pairCount; pair++) {
+      pairStarts[pair + 1] = pairStarts[pair] + pairCounts[pair];
+    }
+
+    int routeCount = pairStarts[pairCount];
+    edges = new int[routeCount * MAX_TRANSPORTATIONS];
+    lengths = new byte[routeCount];
+  }
+
+  static RouteTable build(RouteGraphSnapshot graph) {
+    FlightAnchoredIndex index = graph.derived(FlightAnchoredIndex.class, FlightAnchoredIndex::of);
+
+    // First pass sizes every pair, second pass fills the routes into their pair's range
+    var pairs = new LongIntHashMap(graph.locationCount());
+    int[][] pairCounts = {new int[64]};
+    new Enumeration(graph, index)
+        .forEachRoute(
+            (from, to, route, length) -> {
+              int pair = pairs.putIfAbsent(key(from, to), pairs.size());
+              if (pair == pairCounts[0].length) {
+                pairCounts[0] = Arrays.copyOf(pairCounts[0], pair << 1);
+              }
+              pairCounts[0][pair]++;
+            });
+
+    var table = new RouteTable(graph, pairs, pairCounts[0]);
+    int[] cursors = Arrays.copyOf(table.pairStarts, pairs.size());
+    new Enumeration(graph, index)
+        .forEachRoute(
+            (from, to, route, length) ->
+                table.set(cursors[pairs.get(key(from, to))]++, route, length));
+    return table;
+  }
+
+  int pairCount() {
+    return pairs.size();
+  }
+
+  int routeCount() {
+    return lengths.length;
+  }
+
+  /**
+   * Emits the routes between the two location indexes, returning {@code false} if the sink stopped.
+   */
+  boolean forEachRoute(int from, int to, RouteSink sink) {
+    int pair = pairs.get(key(from, to));
+    if (pair == LongIntHashMap.MISSING) {
+      return true;
+    }
+
+    int[] route = new int[MAX_TRANSPORTATIONS];
+    for (int i = pairStarts[pair]; i < pairStarts[pair + 1]; i++) {
+      System.arraycopy(edges, i * MAX_TRANSPORTATIONS, route, 0, lengths[i]);
+      if (!sink.accept(route, lengths[i])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void set(int position, int[] route, int length) {
+    System.arraycopy(route, 0, edges, position * MAX_TRANSPORTATIONS, length);
+    lengths[position] = (byte) length;
+  }
+
+  private static long key(int from, int to) {
+    return ((long) from << 32) | to;
+  }
+
+  @FunctionalInterface
+  private interface RouteVisitor {
+
+    void visit(int from, int to, int[] route, int length);
+  }
+
+  /**
+   * Walks every route once, anchored on its flight: OTHER chains backwards from the flight's origin
+   * and forwards from its landing, with all locations on the route distinct.
+   */
+  private static final class Enumeration {
+
+    private final RouteGraphSnapshot graph;
+    private final FlightAnchoredIndex index;
+    private final int[] reversedPreEdges = new int[MAX_OTHER];
+    private final int[] nodes = new int[MAX_TRANSPORTATIONS + 1];
+    private final int[] route = new int[MAX_TRANSPORTATIONS];
+    private RouteVisitor visitor;
+    private int flight;
+
+    private Enumeration(RouteGraphSnapshot graph, FlightAnchoredIndex index) {
+      this.graph = graph;
+      this.index = index;
+    }
+
+    private void forEachRoute(RouteVisitor visitor) {
+      this.visitor = visitor;
+      for (int node = 0; node < graph.locationCount(); node++) {
+        for (int slot = index.flightOffsets[node]; slot < index.flightOffsets[node + 1]; slot++) {
+          flight = index.flightEdges[slot];
+          nodes[0] = node;
+          walkBackward(node, 0);
+        }
+      }
+    }
+
+    // nodes[0..preLength] holds the pre-flight locations, newest first
+    private void walkBackward(int node, int preLength) {
+      int landing = graph.target(flight);
+      if (!contains(nodes, preLength + 1, landing)) {
+        for (int i = 0; i < preLength; i++) {
+          route[i] = reversedPreEdges[preLength - 1 - i];
+        }
+        route[preLength] = flight;
+        nodes[preLength + 1] = landing;
+        walkForward(nodes[preLength], landing, preLength + 1);
+      }
+
+      if (preLength == MAX_OTHER) {
+        return;
+      }
+      for (int slot = index.otherInOffsets[node]; slot < index.otherInOffsets[node + 1]; slot++) {
+        int source = index.otherInSources[slot];
+        if (contains(nodes, preLength + 1, source)) {
+          continue;
+        }
+        reversedPreEdges[preLength] = index.otherInEdges[slot];
+        nodes[preLength + 1] = source;
+        walkBackward(source, preLength + 1);
+      }
+    }
+
+    // nodes[0..nodeCount) holds every location on the route so far, in no particular order
+    private void walkForward(int origin, int node, int length) {
+      visitor.visit(origin, node, route, length);
+
+      if (length == MAX_TRANSPORTATIONS) {
+        return;
+      }
+      int nodeCount = length + 1;
+      for (int slot = index.otherOutOffsets[node]; slot < index.otherOutOffsets[node + 1]; slot++) {
+        int edge = index.otherOutEdges[slot];
+        int next = graph.target(edge);
+        if (contains(nodes, nodeCount, next)) {
+          continue;
+        }
+        route[length] = edge;
+        nodes[nodeCount] = next;
+        walkForward(origin, next, length + 1);
+      }
+    }
+
+    private static boolean contains(int[] nodes, int count, int node) {
+      for (int i = 0; i < count; i++) {
+        if (nodes[i] == node) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+}
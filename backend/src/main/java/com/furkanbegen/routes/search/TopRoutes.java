@@ -0,0 +1,288 @@
+package com.furkanbegen.routes.search;
+
+import static com.furkanbegen.routes.validator.RouteValidator.MAX_TRANSPORTATIONS;
+
+import com.furkanbegen.routes.exception.InvalidRequestException;
+import com.furkanbegen.routes.graph.RouteGraphSnapshot;
+import java.util.Arrays;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Keeps the best {@code limit} routes seen so far in a bounded max-heap, worst route at the root,
+ * while counting every route. Routes are primitive records in parallel columns; nothing is
+ * allocated per route once the heap has reached its limit.
+ *
+ * <p>Routes are ordered by the {@link Sort} properties {@code totalPrice}, {@code totalDuration}
+ * and {@code legCount}, then by discovery order, so an unsorted request keeps the search order.
+ * {@link #after} instead orders routes by their transportation ids, which stays stable across graph
+ * snapshots and so can back a keyset cursor.
+ */
+public final class TopRoutes implements RouteSink {
+
+  public static final String TOTAL_PRICE = "totalPrice";
+  public static final String TOTAL_DURATION = "totalDuration";
+  public static final String LEG_COUNT = "legCount";
+
+  private static final byte BY_PRICE = 0;
+  private static final byte BY_DURATION = 1;
+  private static final byte BY_LEGS = 2;
+  private static final byte BY_IDS = 3;
+
+  private final RouteGraphSnapshot graph;
+  private final int limit;
+  private final byte[] keys;
+  private final boolean[] descending;
+  private final long[] after;
+  private final long[] candidateIds;
+
+  private int[] edges = new int[16 * MAX_TRANSPORTATIONS];
+  private byte[] lengths = new byte[16];
+  private double[] totalPrices = new double[16];
+  private double[] totalDurations = new double[16];
+  private long[] sequences = new long[16];
+  private long[] ids;
+  // Heap of record slots; records stay where they were written
+  private int[] heap = new int[16];
+  private int size;
+  private long total;
+
+  public TopRoutes(RouteGraphSnapshot graph, Sort sort, int limit) {
+    this.graph = graph;
+    this.limit = limit;
+
+    int orders = (int) sort.stream().count();
+    keys = new byte[orders];
+    descending = new boolean[orders];
+    int i = 0;
+    for (Sort.Order order : sort) {
+      keys[i] = keyOf(order.getProperty());
+      descending[i++] = order.isDescending();
+    }
+    after = null;
+    candidateIds = null;
+  }
+
+  private TopRoutes(RouteGraphSnapshot graph, long[] after, int limit) {
+    this.graph = graph;
+    this.limit = limit;
+    this.keys = new byte[] {BY_IDS};
+    this.descending = new boolean[1];
+    this.after = after;
+    this.candidateIds = new long[MAX_TRANSPORTATIONS];
+    this.ids = new long[16 * MAX_TRANSPORTATIONS];
+  }
+
+  /**
+   * Keeps the first {@code limit} routes, in transportation id order, that come strictly after the
+   * route with the given ids. An empty {@code after} starts from the first route.
+   */
+  public static TopRoutes after(RouteGraphSnapshot graph, long[] after, int limit) {
+    return new TopRoutes(graph, after, limit);
+  }
+
+  private static byte keyOf(String property) {
+    return switch (property) {
+      case TOTAL_PRICE -> BY_PRICE;
+      case TOTAL_DURATION -> BY_DURATION;
+      case LEG_COUNT -> BY_LEGS;
+      default ->
+          throw new InvalidRequestException(
+              String.format(
+                  "Routes cannot be sorted by %s, use one of %s, %s, %s",
+                  property, TOTAL_PRICE, TOTAL_DURATION, LEG_COUNT));
+    };
+  }
+
+  @Override
+  public boolean accept(int[] route, int length) {
+    if (candidateIds != null) {
+      for (int i = 0; i < length; i++) {
+        candidateIds[i] = graph.transportation(route[i]).getId();
+      }
+      if (compareIds(candidateIds, 0, length, after, 0, after.length) <= 0) {
+        return true;
+      }
+    }
+
+    long sequence = total++;
+    if (limit == 0) {
+      return true;
+    }
+
+    double totalPrice = 0;
+    double totalDuration = 0;
+    for (int i = 0; i < length; i++) {
+      totalPrice += graph.price(route[i]);
+      totalDuration += graph.duration(route[i]);
+    }
+
+    if (size < limit) {
+      ensureCapacity(size + 1);
+      heap[size] = size;
+      write(size, route, length, totalPrice, totalDuration, sequence);
+      siftUp(size++);
+    } else if (compare(totalPrice, totalDuration, length, sequence, candidateIds, 0, heap[0]) < 0) {
+      write(heap[0], route, length, totalPrice, totalDuration, sequence);
+      siftDown(0);
+    }
+    return true;
+  }
+
+  @Override
+  public boolean isExhaustive() {
+    return true;
+  }
+
+  /**
+   * Number of routes seen, kept or not. Routes at or before the {@link #after} key are not seen.
+   */
+  public long total() {
+    return total;
+  }
+
+  /**
+   * Drains the heap and returns the edge ids of the kept routes from position {@code offset}
+   * onwards, best first.
+   */
+  public int[][] drain(int offset) {
+    int[][] sorted = new int[Math.max(0, size - offset)][];
+    while (size > 0) {
+      int position = size - 1 - offset;
+      if (position >= 0) {
+        int slot = heap[0];
+        sorted[position] =
+            Arrays.copyOfRange(
+                edges, slot * MAX_TRANSPORTATIONS, slot * MAX_TRANSPORTATIONS + lengths[slot]);
+      }
+      heap[0] = heap[--size];
+      siftDown(0);
+    }
+    return sorted;
+  }
+
+  private void write(
+      int slot, int[] route, int length, double totalPrice, double totalDuration, long sequence) {
+    System.arraycopy(route, 0, edges, slot * MAX_TRANSPORTATIONS, length);
+    lengths[slot] = (byte) length;
+    totalPrices[slot] = totalPrice;
+    totalDurations[slot] = totalDuration;
+    sequences[slot] = sequence;
+    if (ids != null) {
+      System.arraycopy(candidateIds, 0, ids, slot * MAX_TRANSPORTATIONS, length);
+    }
+  }
+
+  /** Returns the transportation ids of a drained route, as used for {@link #after}. */
+  public long[] idsOf(int[] route) {
+    long[] routeIds = new long[route.length];
+    for (int i = 0; i < route.length; i++) {
+      routeIds[i] = graph.transportation(route[i]).getId();
+    }
+    return routeIds;
+  }
+
+  private void siftUp(int position) {
+    while (position > 0) {
+      int parent = (position - 1) >>> 1;
+      if (compare(heap[position], heap[parent]) <= 0) {
+        return;
+      }
+      swap(position, parent);
+      position = parent;
+    }
+  }
+
+  private void siftDown(int position) {
+    while (true) {
+      int worst = position;
+      int left = (position << 1) + 1;
+      int right = left + 1;
+      if (left < size && compare(heap[left], heap[worst]) > 0) {
+        worst = left;
+      }
+      if (right < size && compare(heap[right], heap[worst]) > 0) {
+        worst = right;
+      }
+      if (worst == position) {
+        return;
+      }
+      swap(position, worst);
+      position = worst;
+    }
+  }
+
+  private int compare(int a, int b) {
+    return compare(
+        totalPrices[a],
+        totalDurations[a],
+        lengths[a],
+        sequences[a],
+        ids,
+        a * MAX_TRANSPORTATIONS,
+        b);
+  }
+
+  private int compare(
+      double totalPrice,
+      double totalDuration,
+      int length,
+      long sequence,
+      long[] routeIds,
+      int routeIdsOffset,
+      int other) {
+    for (int i = 0; i < keys.length; i++) {
+      int result =
+          switch (keys[i]) {
+            case BY_PRICE -> Double.compare(totalPrice, totalPrices[other]);
+            case BY_DURATION -> Double.compare(totalDuration, totalDurations[other]);
+            case BY_LEGS -> Integer.compare(length, lengths[other]);
+            default ->
+                compareIds(
+                    routeIds,
+                    routeIdsOffset,
+                    length,
+                    ids,
+                    other * MAX_TRANSPORTATIONS,
+                    lengths[other]);
+          };
+      if (result != 0) {
+        return descending[i] ? -result : result;
+      }
+    }
+    return Long.compare(sequence, sequences[other]);
+  }
+
+  // Lexicographic, with a route ordered before any longer route it is a prefix of
+  private static int compareIds(
+      long[] a, int aOffset, int aLength, long[] b, int bOffset, int bLength) {
+    for (int i = 0; i < Math.min(aLength, bLength); i++) {
+      int result = Long.compare(a[aOffset + i], b[bOffset + i]);
+      if (result != 0) {
+        return result;
+      }
+    }
+    return Integer.compare(aLength, bLength);
+  }
+
+  private void swap(int a, int b) {
+    int slot = heap[a];
+    heap[a] = heap[b];
+    heap[b] = slot;
+  }
+
+  private void ensureCapacity(int capacity) {
+    if (capacity <= lengths.length) {
+      return;
+    }
+    int grown = Math.min(Math.max(capacity, lengths.length << 1), limit);
+    edges = Arrays.copyOf(edges, grown * MAX_TRANSPORTATIONS);
+    lengths = Arrays.copyOf(lengths, grown);
+    totalPrices = Arrays.copyOf(totalPrices, grown);
+    totalDurations = Arrays.copyOf(totalDurations, grown);
+    sequences = Arrays.copyOf(sequences, grown);
+    heap = Arrays.copyOf(heap, grown);
+    if (ids != null) {
+      ids = Arrays.copyOf(ids, grown * MAX_TRANSPORTATIONS);
+    }
+  }
+}
@@ -0,0 +1,17 @@
+package com.furkanbegen.routes.search;
+
+/** Work done by one search, summed in plain fields and published once the search ends. */
+final class TraversalCounts {
+
+  long nodesExpanded;
+  long edgesPruned;
+
+  void add(TraversalCounts other) {
+    nodesExpanded += other.nodesExpanded;
+    edgesPruned += other.edgesPruned;
+  }
+
+  void publish(RouteSearchMetrics metrics) {
+    metrics.recordTraversal(nodesExpanded, edgesPruned);
+  }
+}
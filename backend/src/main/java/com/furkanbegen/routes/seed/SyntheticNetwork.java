@@ -0,0 +1,258 @@
+package com.furkanbegen.routes.seed;
+
+import com.furkanbegen.routes.location.GreatCircle;
+import com.furkanbegen.routes.model.Location;
+import com.furkanbegen.routes.model.Transportation;
+import com.furkanbegen.routes.model.TransportationType;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Seeded transportation network of cities around airports. Every city has one airport and a number
+ * of other locations nearby; OTHER legs stay within a city, while flights connect airports, a share
+ * of them through a few hub airports. The same seed and shape always produce the same network, with
+ * ids assigned in list order starting at 1.
+ */
+public final class SyntheticNetwork {
+
+  private static final String[] SYLLABLES = {
+    "an", "bel", "cor", "da", "el", "fen", "gar", "hal", "is", "jor", "ka", "lin", "mar", "nor",
+    "os", "pra", "quel", "ros", "sal", "tor", "ur", "val", "wen", "yar", "zan"
+  };
+  private static final String[] PLACES = {
+    "Central Station",
+    "Harbour",
+    "Old Town",
+    "Bus Terminal",
+    "University",
+    "Market",
+    "Stadium",
+    "Cathedral",
+    "Business Park",
+    "Riverside"
+  };
+  private static final double CITY_RADIUS_DEGREES = 0.3;
+
+  /**
+   * @param locations total number of locations, airports included
+   * @param cities number of cities, each with exactly one airport
+   * @param hubs number of airports that take a share of all flights
+   * @param flightsPerAirport average FLIGHT legs leaving each airport
+   * @param hubShare fraction of flights with a hub at one end
+   * @param groundLegsPerLocation average OTHER legs leaving each location
+   */
+  public record Shape(
+      int locations,
+      int cities,
+      int hubs,
+      double flightsPerAirport,
+      double hubShare,
+      double groundLegsPerLocation) {
+
+    public Shape {
+      if (cities < 2 || cities > locations) {
+        throw new IllegalArgumentException("cities must be between 2 and the location count");
+      }
+      if (hubs < 1 || hubs > cities) {
+        throw new IllegalArgumentException("hubs must be between 1 and the city count");
+      }
+      if (flightsPerAirport < 0 || groundLegsPerLocation < 0) {
+        throw new IllegalArgumentException("densities must not be negative");
+      }
+      if (hubShare < 0 || hubShare > 1) {
+        throw new IllegalArgumentException("hubShare must be between 0 and 1");
+      }
+    }
+
+    /** Cities of ten locations and one hub per twenty cities, half of all flights via hubs. */
+    public static Shape of(int locations, double flightsPerAirport, double groundLegsPerLocation) {
+      int cities = Math.max(2, locations / 10);
+      return new Shape(
+          locations,
+          cities,
+          Math.max(1, cities / 20),
+          flightsPerAirport,
+          0.5,
+          groundLegsPerLocation);
+    }
+  }
+
+  private final Shape shape;
+  private final List<Location> locations;
+  private final List<Transportation> transportations;
+  private final List<Transportation> flights;
+  private final List<List<Transportation>> groundLegsTo;
+  private final List<List<Transportation>> groundLegsFrom;
+
+  private SyntheticNetwork(
+      Shape shape, List<Location> locations, List<Transportation> transportations) {
+    this.shape = shape;
+    this.locations = locations;
+    this.transportations = transportations;
+    this.flights = new ArrayList<>();
+    this.groundLegsTo = new ArrayList<>(locations.size());
+    this.groundLegsFrom = new ArrayList<>(locations.size());
+    for (int i = 0; i < locations.size(); i++) {
+      groundLegsTo.add(new ArrayList<>());
+      groundLegsFrom.add(new ArrayList<>());
+    }
+    for (Transportation transportation : transportations) {
+      if (transportation.getType() == TransportationType.FLIGHT) {
+        flights.add(transportation);
+      } else {
+        groundLegsTo.get(index(transportation.getToLocation())).add(transportation);
+        groundLegsFrom.get(index(transportation.getFromLocation())).add(transportation);
+      }
+    }
+  }
+
+  public static SyntheticNetwork generate(long seed, Shape shape) {
+    Random random = new Random(seed);
+    int cities = shape.cities();
+
+    // Location i belongs to city i % cities, so the first locations are the airports
+    List<String> cityNames = cityNames(cities, random);
+    List<Location> locations = new ArrayList<>(shape.locations());
+    for (int i = 0; i < shape.locations(); i++) {
+      var location = new Location();
+      location.setId(i + 1L);
+      int city = i % cities;
+      int member = i / cities;
+      if (member == 0) {
+        location.setName(cityNames.get(city) + " Airport");
+        location.setLatitude(random.nextDouble() * 120 - 60);
+        location.setLongitude(random.nextDouble() * 360 - 180);
+      } else {
+        Location airport = locations.get(city);
+        int place = (member - 1) % PLACES.length;
+        int round = (member - 1) / PLACES.length;
+        location.setName(
+            cityNames.get(city) + " " + PLACES[place] + (round > 0 ? " " + (round + 1) : ""));
+        location.setLatitude(airport.getLatitude() + offset(random));
+        location.setLongitude(airport.getLongitude() + offset(random));
+      }
+      locations.add(location);
+    }
+
+    List<Transportation> transportations = new ArrayList<>();
+    long flights = Math.round(cities * shape.flightsPerAirport());
+    for (long i = 0; i < flights; i++) {
+      int from = random.nextInt(cities);
+      int to = random.nextInt(cities);
+      if (random.nextDouble() < shape.hubShare()) {
+        if (random.nextBoolean()) {
+          from = random.nextInt(shape.hubs());
+        } else {
+          to = random.nextInt(shape.hubs());
+        }
+      }
+      if (from != to) {
+        transportations.add(
+            flight(transportations.size() + 1L, locations.get(from), locations.get(to), random));
+      }
+    }
+    long groundLegs = Math.round(shape.locations() * shape.groundLegsPerLocation());
+    for (long i = 0; i < groundLegs; i++) {
+      int from = random.nextInt(shape.locations());
+      int city = from % cities;
+      int members = (shape.locations() - city + cities - 1) / cities;
+      int to = city + cities * random.nextInt(members);
+      if (from != to) {
+        transportations.add(
+            groundLeg(transportations.size() + 1L, locations.get(from), locations.get(to), random));
+      }
+    }
+    return new SyntheticNetwork(shape, locations, transportations);
+  }
+
+  public Shape shape() {
+    return shape;
+  }
+
+  public List<Location> locations() {
+    return locations;
+  }
+
+  public List<Transportation> transportations() {
+    return transportations;
+  }
+
+  /**
+   * Origin and destination ids around a random flight, reaching it over an OTHER leg on either side
+   * where the network has one, so that at least one route connects them.
+   */
+  public long[] connectedPair(Random random) {
+    Transportation flight = flights.get(random.nextInt(flights.size()));
+    List<Transportation> before = groundLegsTo.get(index(flight.getFromLocation()));
+    List<Transportation> after = groundLegsFrom.get(index(flight.getToLocation()));
+    Location origin =
+        before.isEmpty()
+            ? flight.getFromLocation()
+            : before.get(random.nextInt(before.size())).getFromLocation();
+    Location destination =
+        after.isEmpty()
+            ? flight.getToLocation()
+            : after.get(random.nextInt(after.size())).getToLocation();
+    return new long[] {origin.getId(), destination.getId()};
+  }
+
+  private static int index(Location location) {
+    return (int) (location.getId() - 1);
+  }
+
+  private static List<String> cityNames(int count, Random random) {
+    Set<String> names = new HashSet<>();
+    List<String> ordered = new ArrayList<>(count);
+    while (ordered.size() < count) {
+      StringBuilder name = new StringBuilder();
+      // Longer names once the short ones run out
+      int syllables = 2 + random.nextInt(2) + names.size() / 10_000;
+      for (int i = 0; i < syllables; i++) {
+        name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+      }
+      name.setCharAt(0, Character.toUpperCase(name.charAt(0)));
+      if (names.add(name.toString())) {
+        ordered.add(name.toString());
+      }
+    }
+    return ordered;
+  }
+
+  private static double offset(Random random) {
+    return (random.nextDouble() * 2 - 1) * CITY_RADIUS_DEGREES;
+  }
+
+  private static Transportation flight(long id, Location from, Location to, Random random) {
+    double km = distanceKm(from, to);
+    var flight = transportation(id, from, to, TransportationType.FLIGHT, "Flight " + id);
+    flight.setPrice(Math.round((40 + km * 0.08) * (0.8 + random.nextDouble() * 0.4)) * 1.0);
+    flight.setDurationInMinutes((double) Math.round(40 + km / 800 * 60));
+    return flight;
+  }
+
+  private static Transportation groundLeg(long id, Location from, Location to, Random random) {
+    var leg = transportation(id, from, to, TransportationType.OTHER, "Transfer " + id);
+    leg.setPrice((double) (2 + random.nextInt(40)));
+    leg.setDurationInMinutes((double) Math.round(10 + distanceKm(from, to) * 1.5));
+    return leg;
+  }
+
+  private static Transportation transportation(
+      long id, Location from, Location to, TransportationType type, String name) {
+    var transportation = new Transportation();
+    transportation.setId(id);
+    transportation.setName(name);
+    transportation.setFromLocation(from);
+    transportation.setToLocation(to);
+    transportation.setType(type);
+    return transportation;
+  }
+
+  private static double distanceKm(Location from, Location to) {
+    return GreatCircle.distanceKm(
+        from.getLatitude(), from.getLongitude(), to.getLatitude(), to.getLongitude());
+  }
+}
@@ -0,0 +1,121 @@
+package com.furkanbegen.routes.seed;
+
+import com.furkanbegen.routes.service.CacheableTransportationService;
+import java.sql.Timestamp;
+import java.time.Instant;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Fills an empty database with a {@link SyntheticNetwork} on startup, in JDBC batches and with the
+ * generated ids, so that a load driver can regenerate the same network from the same settings and
+ * knows every id and name without reading them back. Databases that already hold locations are left
+ * untouched.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "seed.network.enabled", havingValue = "true")
+public class SyntheticNetworkLoader implements CommandLineRunner {
+
+  private static final int BATCH_SIZE = 1000;
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final CacheableTransportationService cacheableTransportationService;
+  private final long seed;
+  private final SyntheticNetwork.Shape shape;
+
+  public SyntheticNetworkLoader(
+      JdbcTemplate jdbcTemplate,
+      TransactionTemplate transactionTemplate,
+      CacheableTransportationService cacheableTransportationService,
+      @Value("${seed.network.seed:42}") long seed,
+      @Value("${seed.network.locations:10000}") int locations,
+      @Value("${seed.network.cities:1000}") int cities,
+      @Value("${seed.network.hubs:50}") int hubs,
+      @Value("${seed.network.flights-per-airport:5}") double flightsPerAirport,
+      @Value("${seed.network.hub-share:0.5}") double hubShare,
+      @Value("${seed.network.ground-legs-per-location:2}") double groundLegsPerLocation) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = transactionTemplate;
+    this.cacheableTransportationService = cacheableTransportationService;
+    this.seed = seed;
+    this.shape =
+        new SyntheticNetwork.Shape(
+            locations, cities, hubs, flightsPerAirport, hubShare, groundLegsPerLocation);
+  }
+
+  @Override
+  public void run(final String... args) {
+    Long existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM locations", Long.class);
+    if (existing != null && existing > 0) {
+      log.info("Not loading synthetic network, {} locations already exist", existing);
+      return;
+    }
+
+    long start = System.nanoTime();
+    SyntheticNetwork network = SyntheticNetwork.generate(seed, shape);
+    transactionTemplate.executeWithoutResult(status -> insert(network));
+    // A cached transportation list from before the load would hide the new network
+    cacheableTransportationService.evictAll();
+    log.info(
+        "Loaded synthetic network {} with seed {}: {} locations and {} transportations in {} ms",
+        shape,
+        seed,
+        network.locations().size(),
+        network.transportations().size(),
+        (System.nanoTime() - start) / 1_000_000);
+  }
+
+  private void insert(SyntheticNetwork network) {
+    Timestamp now = Timestamp.from(Instant.now());
+    jdbcTemplate.batchUpdate(
+        "INSERT INTO locations (id, name, latitude, longitude, created_at, updated_at, version) "
+            + "VALUES (?, ?, ?, ?, ?, ?, 0)",
+        network.locations(),
+        BATCH_SIZE,
+        (statement, location) -> {
+          statement.setLong(1, location.getId());
+          statement.setString(2, location.getName());
+          statement.setDouble(3, location.getLatitude());
+          statement.setDouble(4, location.getLongitude());
+          statement.setTimestamp(5, now);
+          statement.setTimestamp(6, now);
+        });
+    jdbcTemplate.batchUpdate(
+        "INSERT INTO transportations (id, from_location_id, to_location_id, type, name, price, "
+            + "duration_in_minutes, created_at, updated_at, version) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 0)",
+        network.transportations(),
+        BATCH_SIZE,
+        (statement, transportation) -> {
+          statement.setLong(1, transportation.getId());
+          statement.setLong(2, transportation.getFromLocation().getId());
+          statement.setLong(3, transportation.getToLocation().getId());
+          statement.setString(4, transportation.getType().name());
+          statement.setString(5, transportation.getName());
+          statement.setDouble(6, transportation.getPrice());
+          statement.setDouble(7, transportation.getDurationInMinutes());
+          statement.setTimestamp(8, now);
+          statement.setTimestamp(9, now);
+        });
+
+    // Ids were given explicitly, so move the identity columns past them for later inserts
+    restartIdentity("locations", network.locations().size());
+    restartIdentity("transportations", network.transportations().size());
+  }
+
+  private void restartIdentity(String table, int lastId) {
+    jdbcTemplate.queryForObject(
+        "SELECT setval(pg_get_serial_sequence(?, 'id'), ?, ?)",
+        Long.class,
+        table,
+        Math.max(1, lastId),
+        lastId > 0);
+  }
+}
@@ -1,15 +1,24 @@
 package com.furkanbegen.routes.service;
 
+import com.furkanbegen.routes.model.Location;
 import com.furkanbegen.routes.model.Transportation;
+import com.furkanbegen.routes.repository.TransportationGraphRow;
 import com.furkanbegen.routes.repository.TransportationRepository;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import lombok.RequiredArgsConstructor;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 @RequiredArgsConstructor
@@ -17,15 +26,27 @@ public class CacheableTransportationService {
 
   private final TransportationRepository transportationRepository;
 
-  @Cacheable("transportations")
+  // Synchronized so that concurrent misses after an eviction share one load
+  @Cacheable(value = "transportations", sync = true)
+  @Transactional(readOnly = true)
   public List<Transportation> findAll() {
-    return transportationRepository.findAll();
+    // Only the route graph reads the full list, so it is built from a streamed projection
+    // instead of managed entities
+    Map<Long, Location> locations = new HashMap<>();
+    try (Stream<TransportationGraphRow> rows = transportationRepository.streamGraphRows()) {
+      return rows.map(row -> row.toTransportation(locations))
+          .collect(Collectors.toCollection(ArrayList::new));
+    }
   }
 
   public Page<Transportation> findAllPaged(Pageable pageable) {
     return transportationRepository.findAll(pageable);
   }
 
+  public List<Transportation> findAfter(Long id, int limit) {
+    return transportationRepository.findByIdGreaterThanOrderByIdAsc(id, Limit.of(limit));
+  }
+
   public Optional<Transportation> findById(Long id) {
     return transportationRepository.findById(id);
   }
@@ -48,4 +69,9 @@ public class CacheableTransportationService {
   public Transportation update(Transportation transportation) {
     return transportationRepository.save(transportation);
   }
+
+  @CacheEvict(value = "transportations", allEntries = true)
+  public void evictAll() {
+    // Only the eviction is needed, for writes that bypass this service
+  }
 }
@@ -1,10 +1,22 @@
 package com.furkanbegen.routes.service;
 
+import com.furkanbegen.routes.dto.CursorPage;
 import com.furkanbegen.routes.dto.LocationDTO;
+import com.furkanbegen.routes.event.LocationChangedEvent;
 import com.furkanbegen.routes.exception.*;
+import com.furkanbegen.routes.location.GreatCircle;
+import com.furkanbegen.routes.location.LocationIndex;
+import com.furkanbegen.routes.mapper.CursorCodec;
 import com.furkanbegen.routes.mapper.LocationMapper;
+import com.furkanbegen.routes.model.Location;
 import com.furkanbegen.routes.repository.LocationRepository;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -13,13 +25,35 @@ import org.springframework.stereotype.Service;
 @RequiredArgsConstructor
 public class LocationService {
 
+  public static final double MAX_NEARBY_RADIUS_KM = 20_000;
+  public static final int MAX_NEARBY_LIMIT = 100;
+  public static final int MAX_COLD_NEARBY_ROWS = 5_000;
+  private static final Duration COLD_NEARBY_RETRY_AFTER = Duration.ofSeconds(5);
+
   private final LocationRepository locationRepository;
   private final LocationMapper locationMapper;
+  private final LocationIndex locationIndex;
+  private final CacheableTransportationService cacheableTransportationService;
+  private final ApplicationEventPublisher eventPublisher;
 
   public Page<LocationDTO> getAllLocations(Pageable pageable) {
     return locationRepository.findAll(pageable).map(locationMapper::toDTO);
   }
 
+  public CursorPage<LocationDTO> getLocationsAfter(String cursor, int size) {
+    CursorCodec.validateSize(size);
+    // One extra row tells whether another slice follows, without a count query
+    List<Location> locations =
+        locationRepository.findByIdGreaterThanOrderByIdAsc(
+            CursorCodec.decodeId(cursor), Limit.of(size + 1));
+
+    boolean hasNext = locations.size() > size;
+    List<Location> slice = hasNext ? locations.subList(0, size) : locations;
+    return new CursorPage<>(
+        slice.stream().map(locationMapper::toDTO).toList(),
+        hasNext ? CursorCodec.encode(slice.get(size - 1).getId()) : null);
+  }
+
   public LocationDTO getLocationById(Long id) {
     var location =
         locationRepository
@@ -32,8 +66,10 @@ public class LocationService {
   public LocationDTO createLocation(LocationDTO dto) {
 
     var location = locationMapper.toEntity(dto);
+    var savedLocation = locationRepository.save(location);
+    eventPublisher.publishEvent(new LocationChangedEvent(savedLocation.getId()));
 
-    return locationMapper.toDTO(locationRepository.save(location));
+    return locationMapper.toDTO(savedLocation);
   }
 
   public LocationDTO updateLocation(Long id, LocationDTO dto) {
@@ -44,8 +80,12 @@ public class LocationService {
             .orElseThrow(() -> new ResourceNotFoundException("Location not found"));
 
     var locationForUpdate = locationMapper.toEntity(dto, location);
+    var updatedLocation = locationRepository.save(locationForUpdate);
+    // Cached transportations carry copies of their locations
+    cacheableTransportationService.evictAll();
+    eventPublisher.publishEvent(new LocationChangedEvent(id));
 
-    return locationMapper.toDTO(locationRepository.save(locationForUpdate));
+    return locationMapper.toDTO(updatedLocation);
   }
 
   public void deleteLocation(Long id) {
@@ -55,11 +95,95 @@ public class LocationService {
             .orElseThrow(() -> new ResourceNotFoundException("Location not found"));
 
     locationRepository.delete(location);
+    cacheableTransportationService.evictAll();
+    eventPublisher.publishEvent(new LocationChangedEvent(id));
   }
 
   public Page<LocationDTO> searchLocations(String query, Pageable pageable) {
-    return locationRepository
-        .searchByNameContainingIgnoreCase(query, pageable)
+    // The index ranks by match quality, so an explicit sort goes to the database
+    var locations =
+        pageable.getSort().isSorted()
+            ? Optional.<Page<Location>>empty()
+            : locationIndex.searchByName(query, pageable);
+
+    return locations
+        .orElseGet(() -> locationRepository.searchByNameContainingIgnoreCase(query, pageable))
         .map(locationMapper::toDTO);
   }
+
+  public List<LocationDTO> findNearbyLocations(
+      double latitude, double longitude, double radiusKm, int limit) {
+    if (!(latitude >= -90 && latitude <= 90) || !(longitude >= -180 && longitude <= 180)) {
+      throw new InvalidRequestException("Latitude must be within ±90 and longitude within ±180");
+    }
+    if (!(radiusKm > 0 && radiusKm <= MAX_NEARBY_RADIUS_KM)) {
+      throw new InvalidRequestException(
+          String.format("Radius must be between 0 and %.0f km", MAX_NEARBY_RADIUS_KM));
+    }
+    if (limit < 1 || limit > MAX_NEARBY_LIMIT) {
+      throw new InvalidRequestException(
+          String.format("Limit must be between 1 and %d", MAX_NEARBY_LIMIT));
+    }
+
+    return locationIndex
+        .findNearby(latitude, longitude, radiusKm, limit)
+        .orElseGet(() -> findNearbyInDatabase(latitude, longitude, radiusKm, limit))
+        .stream()
+        .map(locationMapper::toDTO)
+        .toList();
+  }
+
+  /**
+   * Until the index is built: narrow to the bounding box in the database, then measure each
+   * candidate. Near a pole or across the antimeridian only latitude is bounded. Either way at most
+   * {@value #MAX_COLD_NEARBY_ROWS} rows are read, and a box holding more is refused with a retry
+   * hint rather than loaded, since the index answers it cheaply once built.
+   */
+  private List<Location> findNearbyInDatabase(
+      double latitude, double longitude, double radiusKm, int limit) {
+    double radius = radiusKm / GreatCircle.EARTH_RADIUS_KM;
+    double radiusDegrees = Math.toDegrees(radius);
+    double minLatitude = latitude - radiusDegrees;
+    double maxLatitude = latitude + radiusDegrees;
+    Limit rows = Limit.of(MAX_COLD_NEARBY_ROWS + 1);
+
+    List<Location> box = null;
+    if (minLatitude > -90 && maxLatitude < 90) {
+      double longitudeDegrees =
+          Math.toDegrees(Math.asin(Math.sin(radius) / Math.cos(Math.toRadians(latitude))));
+      if (longitude - longitudeDegrees >= -180 && longitude + longitudeDegrees <= 180) {
+        box =
+            locationRepository.findByLatitudeBetweenAndLongitudeBetween(
+                minLatitude,
+                maxLatitude,
+                longitude - longitudeDegrees,
+                longitude + longitudeDegrees,
+                rows);
+      }
+    }
+    if (box == null) {
+      box = locationRepository.findByLatitudeBetween(minLatitude, maxLatitude, rows);
+    }
+    if (box.size() > MAX_COLD_NEARBY_ROWS) {
+      throw new ServiceUnavailableException(
+          "The location index is still loading; retry shortly or use a smaller radius",
+          COLD_NEARBY_RETRY_AFTER);
+    }
+
+    Comparator<Location> byDistance =
+        Comparator.comparingDouble(
+            location ->
+                GreatCircle.distanceKm(
+                    latitude, longitude, location.getLatitude(), location.getLongitude()));
+    return box.stream()
+        .filter(location -> location.getLongitude() != null)
+        .filter(
+            location ->
+                GreatCircle.distanceKm(
+                        latitude, longitude, location.getLatitude(), location.getLongitude())
+                    <= radiusKm)
+        .sorted(byDistance)
+        .limit(limit)
+        .toList();
+  }
 }
@@ -1,129 +1,332 @@
 package com.furkanbegen.routes.service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.furkanbegen.routes.dto.CursorPage;
+import com.furkanbegen.routes.dto.RouteBatchResultDTO;
 import com.furkanbegen.routes.dto.RouteDTO;
+import com.furkanbegen.routes.dto.RoutePairDTO;
+import com.furkanbegen.routes.exception.InvalidRequestException;
 import com.furkanbegen.routes.exception.ResourceNotFoundException;
+import com.furkanbegen.routes.graph.RouteGraph;
+import com.furkanbegen.routes.graph.RouteGraphSnapshot;
+import com.furkanbegen.routes.mapper.CursorCodec;
 import com.furkanbegen.routes.mapper.RouteMapper;
 import com.furkanbegen.routes.model.Location;
 import com.furkanbegen.routes.model.Transportation;
 import com.furkanbegen.routes.repository.LocationRepository;
-import com.furkanbegen.routes.validator.RouteValidator;
+import com.furkanbegen.routes.search.RouteCache;
+import com.furkanbegen.routes.search.RouteIndex;
+import com.furkanbegen.routes.search.RouteSearchEngine;
+import com.furkanbegen.routes.search.RouteSearchMetrics;
+import com.furkanbegen.routes.search.RouteSearchMetrics.Phase;
+import com.furkanbegen.routes.search.RouteSink;
+import com.furkanbegen.routes.search.TopRoutes;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class RouteService {
 
-  private final CacheableTransportationService cacheableTransportationService;
+  public static final int MAX_STREAMED_ROUTES = 10_000;
+  public static final int MAX_LOCATIONS_PER_SIDE = 50;
+
+  private static final int STREAM_FLUSH_INTERVAL = 64;
+  private static final int PARALLEL_BATCH_THRESHOLD = 4;
+
+  private final RouteGraph routeGraph;
   private final LocationRepository locationRepository;
   private final RouteMapper routeMapper;
-  private final RouteValidator routeValidator;
+  private final RouteSearchEngine routeSearchEngine;
+  private final Optional<RouteIndex> routeIndex;
+  private final Optional<RouteCache> routeCache;
+  private final ObjectMapper objectMapper;
+  private final RouteSearchMetrics routeSearchMetrics;
 
   public Page<RouteDTO> findRoutes(Long fromLocationId, Long toLocationId, Pageable pageable) {
-    Location fromLocation =
-        locationRepository
-            .findById(fromLocationId)
-            .orElseThrow(
-                () ->
-                    new ResourceNotFoundException(
-                        String.format("Location not found with id: %d", fromLocationId)));
-
-    Location toLocation =
-        locationRepository
-            .findById(toLocationId)
-            .orElseThrow(
-                () ->
-                    new ResourceNotFoundException(
-                        String.format("Location not found with id: %d", toLocationId)));
-
-    // Use ID-based map for reliable lookups
-    Map<Long, List<Transportation>> graph =
-        cacheableTransportationService.findAll().stream()
-            .collect(Collectors.groupingBy(t -> t.getFromLocation().getId()));
-
-    List<List<Transportation>> validRoutes = findValidRoutes(graph, fromLocation, toLocation);
+    long phaseStart = System.nanoTime();
+    Location fromLocation = findLocation(fromLocationId);
+    Location toLocation = findLocation(toLocationId);
+    phaseStart = routeSearchMetrics.recordPhase(Phase.LOCATION_LOOKUP, phaseStart);
+    RouteGraphSnapshot graph = routeGraph.current();
+    routeSearchMetrics.recordPhase(Phase.GRAPH, phaseStart);
+
+    Page<RouteDTO> routes = findRoutes(graph, fromLocation, toLocation, pageable);
     log.info(
         "Found {} valid routes from {} to {}",
-        validRoutes.size(),
+        routes.getTotalElements(),
         fromLocation.getName(),
         toLocation.getName());
+    return routes;
+  }
 
-    List<RouteDTO> routeDTOs = validRoutes.stream().map(routeMapper::convertToRouteDTO).toList();
+  /**
+   * Finds routes from any of the origins to any of the destinations with one combined search,
+   * instead of one search per combination. Each route carries its own endpoints.
+   */
+  public Page<RouteDTO> findRoutes(
+      Set<Long> fromLocationIds, Set<Long> toLocationIds, Pageable pageable) {
+    if (fromLocationIds.isEmpty()
+        || toLocationIds.isEmpty()
+        || fromLocationIds.size() > MAX_LOCATIONS_PER_SIDE
+        || toLocationIds.size() > MAX_LOCATIONS_PER_SIDE) {
+      throw new InvalidRequestException(
+          String.format(
+              "Between 1 and %d origin and destination locations are required",
+              MAX_LOCATIONS_PER_SIDE));
+    }
+    long phaseStart = System.nanoTime();
+    Set<Long> locationIds = new HashSet<>(fromLocationIds);
+    locationIds.addAll(toLocationIds);
+    Map<Long, Location> locations = findLocations(locationIds);
+    phaseStart = routeSearchMetrics.recordPhase(Phase.LOCATION_LOOKUP, phaseStart);
 
-    // Pagination
-    int start = (int) pageable.getOffset();
-    int end = Math.min((start + pageable.getPageSize()), routeDTOs.size());
-    List<RouteDTO> pageContent =
-        start >= routeDTOs.size() ? Collections.emptyList() : routeDTOs.subList(start, end);
+    RouteGraphSnapshot graph = routeGraph.current();
+    int[] origins = indexesOf(graph, fromLocationIds);
+    int[] destinations = indexesOf(graph, toLocationIds);
+    routeSearchMetrics.recordPhase(Phase.GRAPH, phaseStart);
 
-    return new PageImpl<>(pageContent, pageable, routeDTOs.size());
+    Page<RouteDTO> routes =
+        findRoutes(
+            graph,
+            pageable,
+            topRoutes -> {
+              if (origins.length > 0 && destinations.length > 0) {
+                routeSearchEngine.search(graph, origins, destinations, topRoutes);
+              }
+            });
+    log.info(
+        "Found {} valid routes from {} locations to {} locations",
+        routes.getTotalElements(),
+        fromLocationIds.size(),
+        toLocationIds.size());
+    return routes;
   }
 
-  private List<List<Transportation>> findValidRoutes(
-      Map<Long, List<Transportation>> graph, Location fromLocation, Location toLocation) {
-    // Pre-size collections based on known constraints
-    List<List<Transportation>> validRoutes = new ArrayList<>();
-    Deque<Transportation> currentPath = new ArrayDeque<>(4);
-    Set<Long> visited = HashSet.newHashSet(graph.size());
+  /**
+   * Searches every pair against the same graph snapshot, after resolving all locations with a
+   * single query. Results come back in request order, one page per pair.
+   */
+  public List<RouteBatchResultDTO> findRoutesBatch(List<RoutePairDTO> pairs, Pageable pageable) {
+    long phaseStart = System.nanoTime();
+    Set<Long> locationIds = new HashSet<>();
+    for (RoutePairDTO pair : pairs) {
+      locationIds.add(pair.getFromLocationId());
+      locationIds.add(pair.getToLocationId());
+    }
+    Map<Long, Location> locations = findLocations(locationIds);
+    phaseStart = routeSearchMetrics.recordPhase(Phase.LOCATION_LOOKUP, phaseStart);
 
-    findRoutesRecursive(graph, fromLocation, toLocation, currentPath, visited, validRoutes);
-    validRoutes.forEach(Collections::reverse);
-    return validRoutes;
+    RouteGraphSnapshot graph = routeGraph.current();
+    routeSearchMetrics.recordPhase(Phase.GRAPH, phaseStart);
+    var stream = pairs.stream();
+    // The snapshot is immutable, so pairs can be searched concurrently once there are enough of
+    // them
+    if (pairs.size() >= PARALLEL_BATCH_THRESHOLD) {
+      stream = stream.parallel();
+    }
+    List<RouteBatchResultDTO> results =
+        stream
+            .map(
+                pair ->
+                    new RouteBatchResultDTO(
+                        pair.getFromLocationId(),
+                        pair.getToLocationId(),
+                        findRoutes(
+                            graph,
+                            locations.get(pair.getFromLocationId()),
+                            locations.get(pair.getToLocationId()),
+                            pageable)))
+            .toList();
+    log.info("Searched routes for {} location pairs", pairs.size());
+    return results;
   }
 
-  private void findRoutesRecursive(
-      Map<Long, List<Transportation>> graph,
-      Location current,
-      Location destination,
-      Deque<Transportation> currentPath,
-      Set<Long> visited,
-      List<List<Transportation>> validRoutes) {
+  /**
+   * Returns the routes that follow the cursor in transportation id order, which unlike the search
+   * order stays stable while the graph changes between requests.
+   */
+  public CursorPage<RouteDTO> findRoutesAfter(
+      Long fromLocationId, Long toLocationId, String cursor, int size) {
+    CursorCodec.validateSize(size);
+    long[] after = CursorCodec.decode(cursor);
+    long phaseStart = System.nanoTime();
+    Location fromLocation = findLocation(fromLocationId);
+    Location toLocation = findLocation(toLocationId);
+    phaseStart = routeSearchMetrics.recordPhase(Phase.LOCATION_LOOKUP, phaseStart);
 
-    if (currentPath.size() > 3) {
-      return;
+    RouteGraphSnapshot graph = routeGraph.current();
+    phaseStart = routeSearchMetrics.recordPhase(Phase.GRAPH, phaseStart);
+    var topRoutes = TopRoutes.after(graph, after, size + 1);
+    searchRoutes(graph, fromLocation, toLocation, topRoutes);
+    phaseStart = routeSearchMetrics.recordPhase(Phase.TRAVERSAL, phaseStart);
+
+    int[][] routes = topRoutes.drain(0);
+    boolean hasNext = routes.length > size;
+    phaseStart = routeSearchMetrics.recordPhase(Phase.PAGINATION, phaseStart);
+    List<RouteDTO> content = new ArrayList<>();
+    for (int i = 0; i < Math.min(routes.length, size); i++) {
+      content.add(toRouteDTO(graph, routes[i]));
     }
+    routeSearchMetrics.recordPhase(Phase.MAPPING, phaseStart);
+    routeSearchMetrics.recordResults(topRoutes.total());
 
-    if (current.getId().equals(destination.getId()) && routeValidator.isValidPath(currentPath)) {
-      log.info(
-          "Found valid path: "
-              + currentPath.stream()
-                  .map(Transportation::getName)
-                  .collect(Collectors.joining(" -> ")));
-      validRoutes.add(new ArrayList<>(currentPath));
-      return;
+    return new CursorPage<>(
+        content, hasNext ? CursorCodec.encode(topRoutes.idsOf(routes[size - 1])) : null);
+  }
+
+  /**
+   * Validates the request up front, then returns a body that writes each route as one JSON line as
+   * soon as the search finds it. Writes block on a slow client, which holds the search back, and
+   * the search stops after {@code limit} routes or when the client goes away.
+   */
+  public StreamingResponseBody streamRoutes(Long fromLocationId, Long toLocationId, int limit) {
+    if (limit < 1 || limit > MAX_STREAMED_ROUTES) {
+      throw new InvalidRequestException(
+          String.format("Limit must be between 1 and %d", MAX_STREAMED_ROUTES));
     }
+    long phaseStart = System.nanoTime();
+    Location fromLocation = findLocation(fromLocationId);
+    Location toLocation = findLocation(toLocationId);
+    phaseStart = routeSearchMetrics.recordPhase(Phase.LOCATION_LOOKUP, phaseStart);
+    RouteGraphSnapshot graph = routeGraph.current();
+    routeSearchMetrics.recordPhase(Phase.GRAPH, phaseStart);
+
+    // Traversal and mapping interleave with writes to the client, so only the result is recorded
+    return outputStream -> {
+      try (JsonGenerator generator = objectMapper.createGenerator(outputStream)) {
+        int[] written = new int[1];
+        searchRoutes(
+            graph,
+            fromLocation,
+            toLocation,
+            (edges, length) -> {
+              try {
+                generator.writeObject(toRouteDTO(graph, Arrays.copyOf(edges, length)));
+                generator.writeRaw('\n');
+                // The first route goes out at once, later ones in batches
+                if (++written[0] == 1 || written[0] % STREAM_FLUSH_INTERVAL == 0) {
+                  generator.flush();
+                }
+              } catch (IOException e) {
+                throw new UncheckedIOException(e);
+              }
+              return written[0] < limit;
+            });
+        routeSearchMetrics.recordResults(written[0]);
+        log.info(
+            "Streamed {} routes from {} to {}",
+            written[0],
+            fromLocation.getName(),
+            toLocation.getName());
+      } catch (UncheckedIOException e) {
+        throw e.getCause();
+      }
+    };
+  }
+
+  private Page<RouteDTO> findRoutes(
+      RouteGraphSnapshot graph, Location fromLocation, Location toLocation, Pageable pageable) {
+    return findRoutes(
+        graph, pageable, topRoutes -> searchRoutes(graph, fromLocation, toLocation, topRoutes));
+  }
 
-    visited.add(current.getId());
+  private Page<RouteDTO> findRoutes(
+      RouteGraphSnapshot graph, Pageable pageable, Consumer<TopRoutes> search) {
+    int offset = pageable.isPaged() ? (int) Math.min(pageable.getOffset(), Integer.MAX_VALUE) : 0;
+    int limit =
+        pageable.isPaged()
+            ? (int) Math.min(offset + (long) pageable.getPageSize(), Integer.MAX_VALUE)
+            : Integer.MAX_VALUE;
 
-    List<Transportation> possibleTransportations =
-        graph.getOrDefault(current.getId(), Collections.emptyList());
+    // Only the routes up to the end of the requested page are kept, and only the page is mapped
+    long phaseStart = System.nanoTime();
+    var topRoutes = new TopRoutes(graph, pageable.getSort(), limit);
+    search.accept(topRoutes);
+    phaseStart = routeSearchMetrics.recordPhase(Phase.TRAVERSAL, phaseStart);
 
-    for (Transportation possibleTransportation : possibleTransportations) {
-      Long nextLocationId = possibleTransportation.getToLocation().getId();
+    int[][] page = topRoutes.drain(offset);
+    phaseStart = routeSearchMetrics.recordPhase(Phase.PAGINATION, phaseStart);
 
-      if (visited.contains(nextLocationId)
-          || !routeValidator.isValidAddition(currentPath, possibleTransportation)) {
-        continue;
+    List<RouteDTO> pageContent = new ArrayList<>(page.length);
+    for (int[] edges : page) {
+      pageContent.add(toRouteDTO(graph, edges));
+    }
+    routeSearchMetrics.recordPhase(Phase.MAPPING, phaseStart);
+    routeSearchMetrics.recordResults(topRoutes.total());
+
+    return new PageImpl<>(pageContent, pageable, topRoutes.total());
+  }
+
+  private Map<Long, Location> findLocations(Set<Long> locationIds) {
+    Map<Long, Location> locations = new HashMap<>();
+    for (Location location : locationRepository.findAllById(locationIds)) {
+      locations.put(location.getId(), location);
+    }
+    for (Long locationId : locationIds) {
+      if (!locations.containsKey(locationId)) {
+        throw new ResourceNotFoundException(
+            String.format("Location not found with id: %d", locationId));
       }
+    }
+    return locations;
+  }
+
+  // Locations without any transportation are not in the graph and cannot be on a route
+  private static int[] indexesOf(RouteGraphSnapshot graph, Set<Long> locationIds) {
+    return locationIds.stream().mapToInt(graph::indexOf).filter(index -> index >= 0).toArray();
+  }
 
-      currentPath.addFirst(possibleTransportation);
-      findRoutesRecursive(
-          graph,
-          possibleTransportation.getToLocation(),
-          destination,
-          currentPath,
-          visited,
-          validRoutes);
-      currentPath.removeFirst();
+  private Location findLocation(Long locationId) {
+    return locationRepository
+        .findById(locationId)
+        .orElseThrow(
+            () ->
+                new ResourceNotFoundException(
+                    String.format("Location not found with id: %d", locationId)));
+  }
+
+  private RouteDTO toRouteDTO(RouteGraphSnapshot graph, int[] edges) {
+    List<Transportation> route = new ArrayList<>(edges.length);
+    for (int edge : edges) {
+      route.add(graph.transportation(edge));
     }
+    return routeMapper.convertToRouteDTO(route);
+  }
 
-    visited.remove(current.getId());
+  private void searchRoutes(
+      RouteGraphSnapshot graph, Location fromLocation, Location toLocation, RouteSink sink) {
+    int from = graph.indexOf(fromLocation.getId());
+    int to = graph.indexOf(toLocation.getId());
+    if (from < 0 || to < 0) {
+      return;
+    }
+
+    if (routeIndex.isPresent() && routeIndex.get().lookup(graph, from, to, sink)) {
+      return;
+    }
+    if (routeCache.isPresent()) {
+      routeCache
+          .get()
+          .search(
+              graph,
+              from,
+              to,
+              sink,
+              recorder -> routeSearchEngine.search(graph, from, to, recorder));
+    } else {
+      routeSearchEngine.search(graph, from, to, sink);
+    }
   }
 }
@@ -1,11 +1,17 @@
 package com.furkanbegen.routes.service;
 
+import com.furkanbegen.routes.dto.CursorPage;
 import com.furkanbegen.routes.dto.TransportationDTO;
 import com.furkanbegen.routes.dto.TransportationRequestDTO;
+import com.furkanbegen.routes.event.TransportationChangedEvent;
 import com.furkanbegen.routes.exception.ResourceNotFoundException;
+import com.furkanbegen.routes.mapper.CursorCodec;
 import com.furkanbegen.routes.mapper.TransportationMapper;
+import com.furkanbegen.routes.model.Transportation;
 import jakarta.validation.Valid;
+import java.util.List;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -16,11 +22,24 @@ public class TransportationService {
 
   private final CacheableTransportationService cacheableTransportationService;
   private final TransportationMapper transportationMapper;
+  private final ApplicationEventPublisher eventPublisher;
 
   public Page<TransportationDTO> getAllTransportations(Pageable pageable) {
     return cacheableTransportationService.findAllPaged(pageable).map(transportationMapper::toDTO);
   }
 
+  public CursorPage<TransportationDTO> getTransportationsAfter(String cursor, int size) {
+    CursorCodec.validateSize(size);
+    List<Transportation> transportations =
+        cacheableTransportationService.findAfter(CursorCodec.decodeId(cursor), size + 1);
+
+    boolean hasNext = transportations.size() > size;
+    List<Transportation> slice = hasNext ? transportations.subList(0, size) : transportations;
+    return new CursorPage<>(
+        slice.stream().map(transportationMapper::toDTO).toList(),
+        hasNext ? CursorCodec.encode(slice.get(size - 1).getId()) : null);
+  }
+
   public TransportationDTO getTransportationById(Long id) {
     var transportation =
         cacheableTransportationService
@@ -32,6 +51,8 @@ public class TransportationService {
   public TransportationDTO createTransportation(@Valid TransportationRequestDTO requestDTO) {
     var transportation = transportationMapper.toEntity(requestDTO);
     var savedTransportation = cacheableTransportationService.save(transportation);
+    // Published once the cache eviction has run, so listeners never reload a stale list
+    eventPublisher.publishEvent(TransportationChangedEvent.saved(savedTransportation));
     return transportationMapper.toDTO(savedTransportation);
   }
 
@@ -44,6 +65,7 @@ public class TransportationService {
 
     var transportationForUpdate = transportationMapper.toEntity(requestDTO, existingTransportation);
     var updatedTransportation = cacheableTransportationService.update(transportationForUpdate);
+    eventPublisher.publishEvent(TransportationChangedEvent.saved(updatedTransportation));
     return transportationMapper.toDTO(updatedTransportation);
   }
 
@@ -52,5 +74,6 @@ public class TransportationService {
       throw new ResourceNotFoundException("Transportation not found");
     }
     cacheableTransportationService.deleteById(id);
+    eventPublisher.publishEvent(TransportationChangedEvent.deleted(id));
   }
 }
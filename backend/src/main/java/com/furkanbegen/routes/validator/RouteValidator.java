@@ -2,49 +2,55 @@ package com.furkanbegen.routes.validator;
 
 import com.furkanbegen.routes.model.Transportation;
 import com.furkanbegen.routes.model.TransportationType;
-import java.util.ArrayList;
 import java.util.Deque;
-import java.util.List;
-import java.util.Stack;
+import java.util.Iterator;
 import org.springframework.stereotype.Component;
 
+/**
+ * Route rules as a finite-state automaton over transportation types: a route has exactly one
+ * FLIGHT, any OTHER legs before and after it, and at most {@link #MAX_TRANSPORTATIONS} legs. States
+ * are plain ints so the search can carry them through recursion without allocating.
+ */
 @Component
 public class RouteValidator {
 
-  public boolean isValidPath(Deque<Transportation> path) {
-    if (path.isEmpty()) {
-      return false;
-    }
-
-    long flightCount =
-        path.stream()
-            .filter(transportation -> TransportationType.FLIGHT.equals(transportation.getType()))
-            .count();
-
-    // Must have exactly one flight
-    if (flightCount != 1) {
-      return false;
-    }
-
-    List<TransportationType> types = path.stream().map(Transportation::getType).toList();
-
-    // If there's only one transportation, it must be a flight
-    if (types.size() == 1) {
-      return TransportationType.FLIGHT.equals(types.get(0));
+  public static final int MAX_TRANSPORTATIONS = 3;
+
+  public static final int START = 0;
+  public static final int REJECT = -1;
+
+  // A state packs the number of legs taken (upper bits) with whether one of them is the flight
+  private static final int FLIGHT_TAKEN = 1;
+  private static final int[][] TRANSITIONS = buildTransitions();
+
+  private static int[][] buildTransitions() {
+    int[][] transitions = new int[(MAX_TRANSPORTATIONS + 1) << 1][];
+    for (int state = 0; state < transitions.length; state++) {
+      int legs = state >> 1;
+      boolean flightTaken = (state & FLIGHT_TAKEN) != 0;
+      transitions[state] = new int[TransportationType.values().length];
+      for (TransportationType type : TransportationType.values()) {
+        boolean isFlight = type == TransportationType.FLIGHT;
+        transitions[state][type.ordinal()] =
+            legs == MAX_TRANSPORTATIONS || (flightTaken && isFlight)
+                ? REJECT
+                : ((legs + 1) << 1) | (flightTaken || isFlight ? FLIGHT_TAKEN : 0);
+      }
     }
+    return transitions;
+  }
 
-    int flightIndex = types.indexOf(TransportationType.FLIGHT);
-
-    // All transportations before flight must be OTHER
-    boolean validBefore =
-        types.subList(0, flightIndex).stream().allMatch(TransportationType.OTHER::equals);
+  /** Returns the state after taking a leg of the given type (its ordinal), or {@link #REJECT}. */
+  public int next(int state, byte type) {
+    return state == REJECT ? REJECT : TRANSITIONS[state][type];
+  }
 
-    // All transportations after flight must be OTHER
-    boolean validAfter =
-        types.subList(flightIndex + 1, types.size()).stream()
-            .allMatch(TransportationType.OTHER::equals);
+  public boolean isAccepting(int state) {
+    return state != REJECT && (state & FLIGHT_TAKEN) != 0;
+  }
 
-    return validBefore && validAfter;
+  public boolean isValidPath(Deque<Transportation> path) {
+    return !path.isEmpty() && isAccepting(stateOf(path));
   }
 
   public boolean isValidAddition(
@@ -54,41 +60,19 @@ public class RouteValidator {
       return true;
     }
 
-    List<Transportation> pathWithNew = new ArrayList<>(currentPath);
-    pathWithNew.add(newTransportation);
-
-    long flightCount =
-        pathWithNew.stream()
-            .filter(transportation -> TransportationType.FLIGHT.equals(transportation.getType()))
-            .count();
-
-    // There can be at most one flight
-    if (flightCount > 1) {
-      return false;
-    }
-
-    // If we're trying to add OTHER after FLIGHT when we already have one after flight
-    if (TransportationType.OTHER.equals(newTransportation.getType())) {
-      boolean hasFlightInPath =
-          currentPath.stream()
-              .anyMatch(
-                  transportation -> TransportationType.FLIGHT.equals(transportation.getType()));
-      if (hasFlightInPath) {
-        long afterFlightCount = 0;
-        boolean flightFound = false;
-        for (Transportation transportation : currentPath) {
-          if (flightFound && TransportationType.FLIGHT.equals(transportation.getType())) {
-            afterFlightCount++;
-          }
+    return next(stateOf(currentPath), code(newTransportation)) != REJECT;
+  }
 
-          if (TransportationType.FLIGHT.equals(transportation.getType())) {
-            flightFound = true;
-          }
-        }
-        return afterFlightCount == 0;
-      }
+  // Paths are built with addFirst, so the oldest leg is at the tail
+  private int stateOf(Deque<Transportation> path) {
+    int state = START;
+    for (Iterator<Transportation> it = path.descendingIterator(); it.hasNext(); ) {
+      state = next(state, code(it.next()));
     }
+    return state;
+  }
 
-    return true;
+  private static byte code(Transportation transportation) {
+    return (byte) transportation.getType().ordinal();
   }
 }
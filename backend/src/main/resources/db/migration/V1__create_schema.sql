@@ -0,0 +1,40 @@
+-- Schema as previously created by Hibernate; existing databases are baselined past this version
+CREATE TABLE locations (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name       VARCHAR(255) UNIQUE,
+    latitude   FLOAT(53),
+    longitude  FLOAT(53),
+    created_at TIMESTAMP(6),
+    updated_at TIMESTAMP(6),
+    created_by BIGINT,
+    updated_by BIGINT,
+    version    BIGINT NOT NULL
+);
+
+CREATE TABLE transportations (
+    id                  BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    from_location_id    BIGINT REFERENCES locations (id),
+    to_location_id      BIGINT REFERENCES locations (id),
+    type                VARCHAR(255) NOT NULL CHECK (type IN ('FLIGHT', 'OTHER')),
+    name                VARCHAR(255),
+    price               FLOAT(53),
+    duration_in_minutes FLOAT(53),
+    created_at          TIMESTAMP(6),
+    updated_at          TIMESTAMP(6),
+    created_by          BIGINT,
+    updated_by          BIGINT,
+    version             BIGINT NOT NULL
+);
+
+CREATE TABLE users (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name       VARCHAR(255),
+    surname    VARCHAR(255),
+    email      VARCHAR(255) NOT NULL UNIQUE,
+    password   VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP(6),
+    updated_at TIMESTAMP(6),
+    created_by BIGINT,
+    updated_by BIGINT,
+    version    BIGINT NOT NULL
+);
@@ -0,0 +1,9 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Transportations by endpoint, for location deletes and per-location lookups
+CREATE INDEX IF NOT EXISTS idx_transportations_from_location_id ON transportations (from_location_id);
+CREATE INDEX IF NOT EXISTS idx_transportations_to_location_id ON transportations (to_location_id);
+CREATE INDEX IF NOT EXISTS idx_transportations_type ON transportations (type);
+
+-- Serves LOWER(name) LIKE '%query%' location searches
+CREATE INDEX IF NOT EXISTS idx_locations_name_trgm ON locations USING GIN (LOWER(name) gin_trgm_ops);
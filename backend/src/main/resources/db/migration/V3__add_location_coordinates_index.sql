@@ -0,0 +1,2 @@
+-- Narrows nearby-location lookups to a bounding box while the in-memory grid is being built
+CREATE INDEX IF NOT EXISTS idx_locations_latitude_longitude ON locations (latitude, longitude);
@@ -0,0 +1,52 @@
+package com.furkanbegen.routes;
+
+import com.furkanbegen.routes.model.Location;
+import com.furkanbegen.routes.model.Transportation;
+import com.furkanbegen.routes.model.TransportationType;
+
+/** Locations and transportations for tests that build route graphs by hand. */
+public final class RouteFixtures {
+
+  private RouteFixtures() {}
+
+  public static Location createLocation(Long id) {
+    return createLocation(id, "Location " + id);
+  }
+
+  public static Location createLocation(Long id, String name) {
+    var location = new Location();
+    location.setId(id);
+    location.setName(name);
+    return location;
+  }
+
+  public static Location createLocation(Long id, Double latitude, Double longitude) {
+    var location = createLocation(id);
+    location.setLatitude(latitude);
+    location.setLongitude(longitude);
+    return location;
+  }
+
+  public static Transportation createTransportation(Long id, Location from, Location to) {
+    return createTransportation(id, from, to, TransportationType.FLIGHT);
+  }
+
+  public static Transportation createTransportation(
+      Long id, Location from, Location to, TransportationType type) {
+    var transportation = new Transportation();
+    transportation.setId(id);
+    transportation.setFromLocation(from);
+    transportation.setToLocation(to);
+    transportation.setType(type);
+    transportation.setName(type.name());
+    return transportation;
+  }
+
+  public static Transportation createTransportation(
+      Long id, Location from, Location to, double price, double duration) {
+    var transportation = createTransportation(id, from, to);
+    transportation.setPrice(price);
+    transportation.setDurationInMinutes(duration);
+    return transportation;
+  }
+}
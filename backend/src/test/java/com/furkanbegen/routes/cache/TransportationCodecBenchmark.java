@@ -0,0 +1,106 @@
+package com.furkanbegen.routes.cache;
+
+import com.furkanbegen.routes.model.Location;
+import com.furkanbegen.routes.model.Transportation;
+import com.furkanbegen.routes.model.TransportationType;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+/**
+ * Compares the binary transportation codec with the JSON format it replaced. Payload sizes are
+ * printed once per trial. Run with {@code mvn -Pbenchmark test -Dbenchmark=TransportationCodec}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransportationCodecBenchmark {
+
+  @Param({"1000", "10000"})
+  private int transportationCount;
+
+  private final TransportationCodec binary = new TransportationCodec();
+  private final RedisSerializer<Object> json = RedisSerializer.json();
+
+  private List<Transportation> transportations;
+  private byte[] binaryPayload;
+  private byte[] jsonPayload;
+
+  @Setup
+  public void setUp() {
+    Random random = new Random(42);
+    int locationCount = Math.max(2, transportationCount / 10);
+    List<Location> locations = new ArrayList<>();
+    for (long id = 1; id <= locationCount; id++) {
+      var location = new Location();
+      location.setId(id);
+      location.setName("Location " + id);
+      location.setLatitude(random.nextDouble() * 180 - 90);
+      location.setLongitude(random.nextDouble() * 360 - 180);
+      location.setVersion(0L);
+      location.setCreatedAt(new Date());
+      location.setUpdatedAt(new Date());
+      locations.add(location);
+    }
+
+    transportations = new ArrayList<>();
+    for (long id = 1; id <= transportationCount; id++) {
+      var transportation = new Transportation();
+      transportation.setId(id);
+      transportation.setFromLocation(locations.get(random.nextInt(locationCount)));
+      transportation.setToLocation(locations.get(random.nextInt(locationCount)));
+      transportation.setType(
+          random.nextInt(3) == 0 ? TransportationType.FLIGHT : TransportationType.OTHER);
+      transportation.setName("Transportation " + id);
+      transportation.setPrice((double) random.nextInt(1000));
+      transportation.setDurationInMinutes((double) random.nextInt(600));
+      transportation.setVersion(0L);
+      transportation.setCreatedAt(new Date());
+      transportation.setUpdatedAt(new Date());
+      transportations.add(transportation);
+    }
+
+    binaryPayload = binary.serialize(transportations);
+    jsonPayload = json.serialize(transportations);
+    System.out.printf(
+        "%n%d transportations: binary %d bytes, json %d bytes%n",
+        transportationCount, binaryPayload.length, jsonPayload.length);
+  }
+
+  @Benchmark
+  public byte[] encodeBinary() {
+    return binary.serialize(transportations);
+  }
+
+  @Benchmark
+  public byte[] encodeJson() {
+    return json.serialize(transportations);
+  }
+
+  @Benchmark
+  public List<Transportation> decodeBinary() {
+    return binary.deserialize(binaryPayload);
+  }
+
+  @Benchmark
+  public Object decodeJson() {
+    return json.deserialize(jsonPayload);
+  }
+}
@@ -0,0 +1,94 @@
+package com.furkanbegen.routes.cache;
+
+import static com.furkanbegen.routes.RouteFixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.furkanbegen.routes.model.Location;
+import com.furkanbegen.routes.model.Transportation;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+class TransportationCodecTest {
+
+  private final TransportationCodec codec = new TransportationCodec();
+
+  @Test
+  void deserialize_WhenSerialized_ShouldRestoreEveryFieldAndShareLocations() {
+    // given
+    var istanbulAirport = createAirport(1L, "Istanbul Airport");
+    var heathrowAirport = createAirport(2L, "Heathrow Airport");
+    var flight = createFlight(1L, istanbulAirport, heathrowAirport);
+    var returnFlight = createFlight(2L, heathrowAirport, istanbulAirport);
+    returnFlight.setName(null);
+    returnFlight.setPrice(null);
+
+    // when
+    List<Transportation> decoded =
+        codec.deserialize(codec.serialize(List.of(flight, returnFlight)));
+
+    // then
+    // Entity equality is by identity, so fields are compared through toString
+    assertEquals(List.of(flight, returnFlight).toString(), decoded.toString());
+    assertEquals(3L, decoded.get(0).getVersion());
+    assertEquals(0L, decoded.get(0).getFromLocation().getVersion());
+    assertSame(decoded.get(0).getFromLocation(), decoded.get(1).getToLocation());
+  }
+
+  @Test
+  void serialize_WhenComparedWithJson_ShouldBeSmaller() {
+    // given
+    var istanbulAirport = createAirport(1L, "Istanbul Airport");
+    var heathrowAirport = createAirport(2L, "Heathrow Airport");
+    List<Transportation> transportations =
+        List.of(
+            createFlight(1L, istanbulAirport, heathrowAirport),
+            createFlight(2L, heathrowAirport, istanbulAirport),
+            createFlight(3L, istanbulAirport, heathrowAirport));
+
+    // when
+    byte[] binary = codec.serialize(transportations);
+    byte[] json = RedisSerializer.json().serialize(transportations);
+
+    // then
+    assertTrue(binary.length * 4 < json.length, binary.length + " vs " + json.length);
+  }
+
+  @Test
+  void deserialize_WhenEmpty_ShouldReturnNull() {
+    assertNull(codec.deserialize(new byte[0]));
+    assertEquals(List.of(), codec.deserialize(codec.serialize(List.of())));
+  }
+
+  @Test
+  void deserialize_WhenTruncated_ShouldThrowSerializationException() {
+    // given
+    var istanbulAirport = createAirport(1L, "Istanbul Airport");
+    byte[] bytes = codec.serialize(List.of(createFlight(1L, istanbulAirport, istanbulAirport)));
+
+    // when / then
+    assertThrows(
+        SerializationException.class,
+        () -> codec.deserialize(Arrays.copyOf(bytes, bytes.length - 3)));
+  }
+
+  // Every field set, so that a round trip that drops one shows up
+  private Location createAirport(Long id, String name) {
+    var location = createLocation(id, name);
+    location.setLatitude(41.27);
+    location.setLongitude(28.75);
+    location.setVersion(0L);
+    return location;
+  }
+
+  private Transportation createFlight(Long id, Location from, Location to) {
+    var transportation = createTransportation(id, from, to);
+    transportation.setName("Flight " + id);
+    transportation.setPrice(250.0);
+    transportation.setDurationInMinutes(240.0);
+    transportation.setVersion(3L);
+    return transportation;
+  }
+}
@@ -0,0 +1,254 @@
+package com.furkanbegen.routes.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import jdk.jfr.consumer.RecordingStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+class TwoLevelCacheManagerTest {
+
+  private final ConcurrentMapCacheManager remote = new ConcurrentMapCacheManager();
+  private final List<String> published = new ArrayList<>();
+  private final List<String> invalidated = new ArrayList<>();
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  private TwoLevelCacheManager cacheManager;
+
+  @BeforeEach
+  void setUp() {
+    cacheManager = createCacheManager(false);
+  }
+
+  @Test
+  void get_WhenReadBefore_ShouldServeLocalCopyWithoutRemote() {
+    // given
+    Cache cache = cacheManager.getCache("transportations");
+    remote.getCache("transportations").put("all", "remote value");
+    cache.get("all");
+    remote.getCache("transportations").put("all", "changed behind the local copy");
+
+    // when
+    Cache.ValueWrapper value = cache.get("all");
+
+    // then
+    assertEquals("remote value", value.get());
+  }
+
+  @Test
+  void clear_WhenCalled_ShouldClearBothLevelsAndPublishInvalidation() {
+    // given
+    Cache cache = cacheManager.getCache("transportations");
+    cache.get("all", () -> "loaded");
+
+    // when
+    cache.clear();
+
+    // then
+    assertNull(cache.get("all"));
+    assertNull(remote.getCache("transportations").get("all"));
+    assertEquals(1, published.size());
+    assertTrue(published.get(0).endsWith(":transportations"));
+  }
+
+  @Test
+  void onInvalidation_WhenFromAnotherInstance_ShouldClearLocalCopies() {
+    // given
+    Cache cache = cacheManager.getCache("transportations");
+    cache.get("all", () -> "loaded");
+    remote.getCache("transportations").put("all", "reloaded elsewhere");
+
+    // when
+    cacheManager.onInvalidation("other-instance:transportations");
+
+    // then
+    assertEquals("reloaded elsewhere", cache.get("all").get());
+    assertEquals(List.of("transportations"), invalidated);
+  }
+
+  @Test
+  void onInvalidation_WhenFromThisInstance_ShouldKeepLocalCopies() {
+    // given
+    Cache cache = cacheManager.getCache("transportations");
+    cache.evict("all");
+    cache.get("all", () -> "loaded");
+    remote.getCache("transportations").put("all", "reloaded elsewhere");
+
+    // when
+    cacheManager.onInvalidation(published.get(0));
+
+    // then
+    assertEquals("loaded", cache.get("all").get());
+    assertTrue(invalidated.isEmpty());
+  }
+
+  @Test
+  void get_WhenLoadInFlight_ShouldWaitForItInsteadOfLoadingAgain() throws Exception {
+    // given
+    Cache cache = cacheManager.getCache("transportations");
+    CountDownLatch loaderStarted = new CountDownLatch(1);
+    CountDownLatch releaseLoader = new CountDownLatch(1);
+    AtomicInteger loads = new AtomicInteger();
+    Callable<String> loader =
+        () -> {
+          loads.incrementAndGet();
+          loaderStarted.countDown();
+          releaseLoader.await();
+          return "loaded";
+        };
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    try {
+      // when
+      Future<String> first = executor.submit(() -> cache.get("all", loader));
+      loaderStarted.await();
+      Future<String> second = executor.submit(() -> cache.get("all", loader));
+      awaitCoalescedLoads(1);
+      releaseLoader.countDown();
+
+      // then
+      assertEquals("loaded", first.get(5, TimeUnit.SECONDS));
+      assertEquals("loaded", second.get(5, TimeUnit.SECONDS));
+      assertEquals(1, loads.get());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void get_WhenStaleWhileRevalidateAndReloading_ShouldServePreviousValue() throws Exception {
+    // given
+    cacheManager = createCacheManager(true);
+    Cache cache = cacheManager.getCache("transportations");
+    cache.get("all", () -> "previous");
+    cache.clear();
+    CountDownLatch loaderStarted = new CountDownLatch(1);
+    CountDownLatch releaseLoader = new CountDownLatch(1);
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    try {
+      Future<String> reload =
+          executor.submit(
+              () ->
+                  cache.get(
+                      "all",
+                      () -> {
+                        loaderStarted.countDown();
+                        releaseLoader.await();
+                        return "reloaded";
+                      }));
+      loaderStarted.await();
+
+      // when
+      String duringReload = cache.get("all", () -> fail("should not load again"));
+      releaseLoader.countDown();
+
+      // then
+      assertEquals("previous", duringReload);
+      assertEquals("reloaded", reload.get(5, TimeUnit.SECONDS));
+      assertEquals("reloaded", cache.get("all", () -> fail("should be cached")));
+      assertEquals(1, meterRegistry.get("cache.stale.reads").counter().count());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void get_WhenNewerValueReadOrPut_ShouldDropStaleValue() {
+    // given
+    com.github.benmanes.caffeine.cache.Cache<Object, Cache.ValueWrapper> stale =
+        Caffeine.newBuilder().build();
+    var cache =
+        new TwoLevelCache(
+            "transportations",
+            Caffeine.newBuilder().build(),
+            remote.getCache("transportations"),
+            name -> {},
+            stale,
+            meterRegistry);
+    cache.get("read", () -> "previous");
+    cache.get("put", () -> "previous");
+    cache.clearLocal();
+    remote.getCache("transportations").put("read", "reloaded elsewhere");
+
+    // when
+    cache.get("read");
+    cache.put("put", "written here");
+
+    // then
+    assertNull(stale.getIfPresent("read"));
+    assertNull(stale.getIfPresent("put"));
+  }
+
+  @Test
+  void get_WhenLoadingOnVirtualThreads_ShouldNotPinCarrierThreads() throws Exception {
+    // given
+    Cache cache = cacheManager.getCache("transportations");
+    AtomicInteger pinned = new AtomicInteger();
+
+    try (var recording = new RecordingStream();
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO);
+      recording.onEvent("jdk.VirtualThreadPinned", event -> pinned.incrementAndGet());
+      recording.startAsync();
+
+      // when
+      List<Future<String>> reads = new ArrayList<>();
+      for (int i = 0; i < 20; i++) {
+        String key = "key " + (i % 5);
+        reads.add(
+            executor.submit(
+                () ->
+                    cache.get(
+                        key,
+                        () -> {
+                          // Stands in for the blocking database load behind the cache
+                          Thread.sleep(20);
+                          return "loaded";
+                        })));
+      }
+      for (Future<String> read : reads) {
+        assertEquals("loaded", read.get(5, TimeUnit.SECONDS));
+      }
+      recording.stop();
+    }
+
+    // then
+    assertEquals(0, pinned.get());
+  }
+
+  private TwoLevelCacheManager createCacheManager(boolean staleWhileRevalidate) {
+    return new TwoLevelCacheManager(
+        remote,
+        published::add,
+        invalidated::add,
+        10,
+        Duration.ofMinutes(1),
+        staleWhileRevalidate,
+        meterRegistry);
+  }
+
+  private void awaitCoalescedLoads(int count) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (meterRegistry.get("cache.loads.coalesced").counter().count() < count) {
+      if (System.nanoTime() > deadline) {
+        fail("no coalesced load");
+      }
+      Thread.sleep(5);
+    }
+  }
+}
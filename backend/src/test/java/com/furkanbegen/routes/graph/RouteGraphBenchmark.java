@@ -0,0 +1,56 @@
+package com.furkanbegen.routes.graph;
+
+import com.furkanbegen.routes.model.Transportation;
+import com.furkanbegen.routes.seed.SyntheticNetwork;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compiles route graph snapshots from synthetic networks. Run with {@code mvn -Pbenchmark test
+ * -Dbenchmark=RouteGraph}; densities can be changed with e.g. {@code -Dbenchmark.args="-p
+ * flightsPerAirport=20"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RouteGraphBenchmark {
+
+  @Param({"100", "1000", "10000", "100000"})
+  private int locationCount;
+
+  @Param({"5"})
+  private double flightsPerAirport;
+
+  @Param({"2"})
+  private double groundLegsPerLocation;
+
+  private List<Transportation> transportations;
+
+  @Setup
+  public void setUp() {
+    transportations =
+        SyntheticNetwork.generate(
+                42,
+                SyntheticNetwork.Shape.of(locationCount, flightsPerAirport, groundLegsPerLocation))
+            .transportations();
+  }
+
+  @Benchmark
+  public RouteGraphSnapshot compile() {
+    return RouteGraphSnapshot.compile(transportations, 1L);
+  }
+}
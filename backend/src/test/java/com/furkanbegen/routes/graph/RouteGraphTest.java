@@ -0,0 +1,349 @@
+package com.furkanbegen.routes.graph;
+
+import static com.furkanbegen.routes.RouteFixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.furkanbegen.routes.cache.TwoLevelCacheManager;
+import com.furkanbegen.routes.event.LocationChangedEvent;
+import com.furkanbegen.routes.event.TransportationChangedEvent;
+import com.furkanbegen.routes.event.TransportationsInvalidatedEvent;
+import com.furkanbegen.routes.model.Location;
+import com.furkanbegen.routes.model.Transportation;
+import com.furkanbegen.routes.model.TransportationType;
+import com.furkanbegen.routes.service.CacheableTransportationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+
+@ExtendWith(MockitoExtension.class)
+class RouteGraphTest {
+
+  @Mock private CacheableTransportationService cacheableTransportationService;
+
+  private RouteGraph routeGraph;
+  private Location taksimSquare;
+  private Location istanbulAirport;
+  private Location heathrowAirport;
+
+  @BeforeEach
+  void setUp() {
+    routeGraph = new RouteGraph(cacheableTransportationService);
+    taksimSquare = createLocation(1L, "Taksim Square");
+    istanbulAirport = createLocation(2L, "Istanbul Airport");
+    heathrowAirport = createLocation(3L, "Heathrow Airport");
+  }
+
+  @Test
+  void current_WhenTransportationsExist_ShouldGroupEdgesByOriginInOriginalOrder() {
+    // given
+    var bus = createTransportation(1L, taksimSquare, istanbulAirport, TransportationType.OTHER);
+    var flight =
+        createTransportation(2L, istanbulAirport, heathrowAirport, TransportationType.FLIGHT);
+    var taxi = createTransportation(3L, taksimSquare, heathrowAirport, TransportationType.OTHER);
+    when(cacheableTransportationService.findAll()).thenReturn(List.of(bus, flight, taxi));
+
+    // when
+    RouteGraphSnapshot graph = routeGraph.current();
+
+    // then
+    assertEquals(3, graph.locationCount());
+    assertEquals(3, graph.edgeCount());
+
+    int taksim = graph.indexOf(1L);
+    assertEquals(2, graph.degree(taksim));
+    assertSame(bus, graph.transportation(graph.edge(taksim, 0)));
+    assertSame(taxi, graph.transportation(graph.edge(taksim, 1)));
+    assertEquals(graph.indexOf(2L), graph.target(graph.edge(taksim, 0)));
+
+    int istanbul = graph.indexOf(2L);
+    assertEquals(RouteGraphSnapshot.FLIGHT, graph.type(graph.edge(istanbul, 0)));
+    assertEquals(3L, graph.locationId(graph.target(graph.edge(istanbul, 0))));
+
+    assertEquals(0, graph.degree(graph.indexOf(3L)));
+  }
+
+  @Test
+  void current_WhenLocationHasNoTransportations_ShouldReturnMinusOneIndex() {
+    // given
+    when(cacheableTransportationService.findAll()).thenReturn(List.of());
+
+    // when
+    RouteGraphSnapshot graph = routeGraph.current();
+
+    // then
+    assertEquals(-1, graph.indexOf(42L));
+  }
+
+  @Test
+  void current_WhenCalledRepeatedly_ShouldCompileOnlyOnce() {
+    // given
+    when(cacheableTransportationService.findAll()).thenReturn(List.of());
+
+    // when
+    RouteGraphSnapshot first = routeGraph.current();
+    RouteGraphSnapshot second = routeGraph.current();
+
+    // then
+    assertSame(first, second);
+    verify(cacheableTransportationService, times(1)).findAll();
+  }
+
+  @Test
+  void onTransportationChanged_WhenTransportationSaved_ShouldApplyDeltaWithoutReloading() {
+    // given
+    var bus = createTransportation(1L, taksimSquare, istanbulAirport, TransportationType.OTHER);
+    when(cacheableTransportationService.findAll()).thenReturn(List.of(bus));
+    RouteGraphSnapshot before = routeGraph.current();
+    var flight =
+        createTransportation(2L, istanbulAirport, heathrowAirport, TransportationType.FLIGHT);
+
+    // when
+    routeGraph.onTransportationChanged(TransportationChangedEvent.saved(flight));
+    RouteGraphSnapshot after = routeGraph.current();
+
+    // then
+    assertTrue(after.version() > before.version());
+    assertEquals(1, before.edgeCount());
+    assertEquals(0, before.degree(before.indexOf(2L)));
+    assertEquals(-1, before.indexOf(3L));
+
+    assertEquals(2, after.edgeCount());
+    int istanbul = after.indexOf(2L);
+    assertEquals(1, after.degree(istanbul));
+    assertSame(flight, after.transportation(after.edge(istanbul, 0)));
+    assertEquals(after.indexOf(3L), after.target(after.edge(istanbul, 0)));
+    assertSame(bus, after.transportation(after.edge(after.indexOf(1L), 0)));
+    assertEquals(before.layoutVersion(), after.layoutVersion());
+    assertEquals(after.version(), after.changeVersion(istanbul));
+    assertEquals(before.version(), after.changeVersion(after.indexOf(1L)));
+    verify(cacheableTransportationService, times(1)).findAll();
+  }
+
+  @Test
+  void onTransportationChanged_WhenOriginChanged_ShouldMoveEdge() {
+    // given
+    var bus = createTransportation(1L, taksimSquare, istanbulAirport, TransportationType.OTHER);
+    var flight =
+        createTransportation(2L, istanbulAirport, heathrowAirport, TransportationType.FLIGHT);
+    when(cacheableTransportationService.findAll()).thenReturn(List.of(bus, flight));
+    routeGraph.current();
+    var movedBus =
+        createTransportation(1L, heathrowAirport, istanbulAirport, TransportationType.OTHER);
+
+    // when
+    routeGraph.onTransportationChanged(TransportationChangedEvent.saved(movedBus));
+    RouteGraphSnapshot graph = routeGraph.current();
+
+    // then
+    assertEquals(2, graph.edgeCount());
+    assertEquals(0, graph.degree(graph.indexOf(1L)));
+    assertEquals(1, graph.degree(graph.indexOf(3L)));
+    assertSame(movedBus, graph.transportation(graph.edge(graph.indexOf(3L), 0)));
+  }
+
+  @Test
+  void onTransportationChanged_WhenTransportationDeleted_ShouldRemoveEdge() {
+    // given
+    var bus = createTransportation(1L, taksimSquare, istanbulAirport, TransportationType.OTHER);
+    var taxi = createTransportation(3L, taksimSquare, heathrowAirport, TransportationType.OTHER);
+    when(cacheableTransportationService.findAll()).thenReturn(List.of(bus, taxi));
+    routeGraph.current();
+
+    // when
+    routeGraph.onTransportationChanged(TransportationChangedEvent.deleted(1L));
+    RouteGraphSnapshot graph = routeGraph.current();
+
+    // then
+    assertEquals(1, graph.edgeCount());
+    int taksim = graph.indexOf(1L);
+    assertEquals(1, graph.degree(taksim));
+    assertSame(taxi, graph.transportation(graph.edge(taksim, 0)));
+  }
+
+  @Test
+  void onTransportationChanged_WhenManyWritesApplied_ShouldCompactAndKeepAllEdges() {
+    // given
+    when(cacheableTransportationService.findAll()).thenReturn(List.of());
+    routeGraph.current();
+
+    // when
+    for (long id = 1; id <= 500; id++) {
+      var from = createLocation(1000 + id, "From " + id);
+      var to = createLocation(2000 + id, "To " + id);
+      routeGraph.onTransportationChanged(
+          TransportationChangedEvent.saved(
+              createTransportation(id, from, to, TransportationType.FLIGHT)));
+    }
+    for (long id = 1; id <= 500; id += 2) {
+      routeGraph.onTransportationChanged(TransportationChangedEvent.deleted(id));
+    }
+    RouteGraphSnapshot graph = routeGraph.current();
+
+    // then
+    assertEquals(250, graph.edgeCount());
+    for (long id = 1; id <= 500; id++) {
+      int from = graph.indexOf(1000 + id);
+      int degree = from < 0 ? 0 : graph.degree(from);
+      assertEquals(id % 2 == 0 ? 1 : 0, degree);
+      if (degree == 1) {
+        assertEquals(id, graph.transportation(graph.edge(from, 0)).getId());
+      }
+    }
+  }
+
+  @Test
+  void withTransportation_WhenWritesFollowEachOther_ShouldMatchRecompiledGraph() {
+    // given
+    Random random = new Random(3);
+    List<Location> locations = new ArrayList<>();
+    for (long id = 1; id <= 40; id++) {
+      locations.add(createLocation(id));
+    }
+    Map<Long, Transportation> live = new HashMap<>();
+    long version = 1;
+    RouteGraphSnapshot graph = RouteGraphSnapshot.compile(List.of(), version);
+
+    // when
+    for (int write = 0; write < 2_000; write++) {
+      long id = 1 + random.nextInt(200);
+      if (random.nextInt(4) == 0) {
+        live.remove(id);
+        graph = graph.withoutTransportation(id, ++version);
+      } else {
+        var transportation =
+            createTransportation(
+                id,
+                locations.get(random.nextInt(locations.size())),
+                locations.get(random.nextInt(locations.size())));
+        live.put(id, transportation);
+        graph = graph.withTransportation(transportation, ++version);
+      }
+      if (graph.needsCompaction()) {
+        graph = graph.compact();
+      }
+    }
+
+    // then
+    assertEquals(
+        edgesByOrigin(RouteGraphSnapshot.compile(List.copyOf(live.values()), 1L)),
+        edgesByOrigin(graph));
+  }
+
+  @Test
+  void withTransportation_WhenWrittenOnOlderSnapshot_ShouldApplyToThatSnapshot() {
+    // given
+    var bus = createTransportation(1L, taksimSquare, istanbulAirport, TransportationType.OTHER);
+    var flight = createTransportation(2L, istanbulAirport, heathrowAirport);
+    RouteGraphSnapshot base = RouteGraphSnapshot.compile(List.of(bus, flight), 1L);
+    RouteGraphSnapshot newer = base.withoutTransportation(1L, 2L);
+
+    // when
+    var movedBus =
+        createTransportation(1L, heathrowAirport, taksimSquare, TransportationType.OTHER);
+    RouteGraphSnapshot branch = base.withTransportation(movedBus, 3L);
+
+    // then
+    assertEquals(Map.of(2L, List.of(2L)), edgesByOrigin(newer));
+    assertEquals(Map.of(2L, List.of(2L), 3L, List.of(1L)), edgesByOrigin(branch));
+  }
+
+  @Test
+  void onTransportationsInvalidated_WhenSavedOnAnotherInstance_ShouldSearchNewEdge() {
+    // given
+    var bus = createTransportation(1L, taksimSquare, istanbulAirport, TransportationType.OTHER);
+    var flight =
+        createTransportation(2L, istanbulAirport, heathrowAirport, TransportationType.FLIGHT);
+    List<Transportation> database = new ArrayList<>(List.of(bus));
+    var remote = new ConcurrentMapCacheManager();
+    var cacheManager =
+        new TwoLevelCacheManager(
+            remote,
+            message -> {},
+            cacheName ->
+                routeGraph.onTransportationsInvalidated(new TransportationsInvalidatedEvent()),
+            10,
+            Duration.ofMinutes(1),
+            false,
+            new SimpleMeterRegistry());
+    Cache cache = cacheManager.getCache("transportations");
+    when(cacheableTransportationService.findAll())
+        .thenAnswer(invocation -> cache.get(SimpleKey.EMPTY, () -> List.copyOf(database)));
+    RouteGraphSnapshot before = routeGraph.current();
+
+    // when
+    database.add(flight);
+    remote.getCache("transportations").evict(SimpleKey.EMPTY);
+    cacheManager.onInvalidation("other-instance:transportations");
+    RouteGraphSnapshot after = routeGraph.current();
+
+    // then
+    assertEquals(-1, before.indexOf(3L));
+    int istanbul = after.indexOf(2L);
+    assertEquals(1, after.degree(istanbul));
+    assertSame(flight, after.transportation(after.edge(istanbul, 0)));
+  }
+
+  @Test
+  void onLocationChanged_WhenLocationRenamed_ShouldReloadWithNewName() {
+    // given
+    var bus = createTransportation(1L, taksimSquare, istanbulAirport, TransportationType.OTHER);
+    var renamedTaksim = createLocation(1L, "Taksim");
+    var reloadedBus =
+        createTransportation(1L, renamedTaksim, istanbulAirport, TransportationType.OTHER);
+    when(cacheableTransportationService.findAll())
+        .thenReturn(List.of(bus))
+        .thenReturn(List.of(reloadedBus));
+    RouteGraphSnapshot before = routeGraph.current();
+
+    // when
+    routeGraph.onLocationChanged(new LocationChangedEvent(1L));
+    RouteGraphSnapshot after = routeGraph.current();
+
+    // then
+    assertTrue(after.version() > before.version());
+    Transportation reloaded = after.transportation(after.edge(after.indexOf(1L), 0));
+    assertEquals("Taksim", reloaded.getFromLocation().getName());
+    verify(cacheableTransportationService, times(2)).findAll();
+  }
+
+  @Test
+  void onTransportationChanged_WhenGraphNotLoaded_ShouldNotLoad() {
+    // when
+    routeGraph.onTransportationChanged(TransportationChangedEvent.deleted(1L));
+
+    // then
+    verify(cacheableTransportationService, never()).findAll();
+  }
+
+  // Transportation ids leaving each location id, sorted; locations without any are left out
+  private static Map<Long, List<Long>> edgesByOrigin(RouteGraphSnapshot graph) {
+    Map<Long, List<Long>> edges = new HashMap<>();
+    for (int node = 0; node < graph.locationCount(); node++) {
+      List<Long> ids = new ArrayList<>();
+      for (int i = 0; i < graph.degree(node); i++) {
+        ids.add(graph.transportation(graph.edge(node, i)).getId());
+      }
+      if (!ids.isEmpty()) {
+        ids.sort(null);
+        edges.put(graph.locationId(node), ids);
+      }
+    }
+    return edges;
+  }
+}
@@ -0,0 +1,336 @@
+package com.furkanbegen.routes.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.furkanbegen.routes.model.Location;
+import com.furkanbegen.routes.seed.SyntheticNetwork;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop HTTP load driver for a backend started with the {@code synthetic-network} profile.
+ * Requests are issued at a fixed rate regardless of how fast responses come back, and latencies are
+ * measured from the time each request was due, so a stalled server shows up in the percentiles
+ * instead of slowing the driver down. The driver regenerates the loaded network from the same
+ * profile settings to pick location names and connected location pairs, and draws the request
+ * sequence from its own seed, so two runs with the same options send the same requests.
+ *
+ * <p>Run with {@code mvn -Pload-test test -Dload.args="--rate=200 --duration=60"}. Options are
+ * given as {@code --name=value}: {@code base-url}, {@code rate} (requests per second), {@code
+ * duration} and {@code warmup} (seconds), {@code mix} (weights such as {@code
+ * login=5,location-search=45,route-search=50}), {@code seed}, {@code email} and {@code password};
+ * {@code seed.network.*} options override the profile when the server was started with others.
+ */
+public final class LoadDriver {
+
+  private static final String PROFILE = "application-synthetic-network.properties";
+  private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+  enum Operation {
+    LOGIN("login"),
+    LOCATION_SEARCH("location-search"),
+    ROUTE_SEARCH("route-search");
+
+    private final String option;
+
+    Operation(String option) {
+      this.option = option;
+    }
+  }
+
+  private final Map<String, String> options;
+  private final SyntheticNetwork network;
+  private final HttpClient client;
+  private final String baseUrl;
+  private final String credentials;
+
+  private LoadDriver(Map<String, String> options, SyntheticNetwork network) {
+    this.options = options;
+    this.network = network;
+    this.client =
+        HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(REQUEST_TIMEOUT)
+            .build();
+    this.baseUrl = options.getOrDefault("base-url", "http://localhost:8080") + "/api/v1";
+    try {
+      this.credentials =
+          OBJECT_MAPPER.writeValueAsString(
+              Map.of(
+                  "email", options.getOrDefault("email", "test@test.com"),
+                  "password", options.getOrDefault("password", "123456")));
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  public static void main(String[] args) throws Exception {
+    Map<String, String> options = parse(args);
+    Properties profile = new Properties();
+    try (InputStream in = LoadDriver.class.getClassLoader().getResourceAsStream(PROFILE)) {
+      profile.load(in);
+    }
+    options.forEach(
+        (name, value) -> {
+          if (name.startsWith("seed.network.")) {
+            profile.setProperty(name, value);
+          }
+        });
+
+    SyntheticNetwork network =
+        SyntheticNetwork.generate(
+            Long.parseLong(profile.getProperty("seed.network.seed")),
+            new SyntheticNetwork.Shape(
+                Integer.parseInt(profile.getProperty("seed.network.locations")),
+                Integer.parseInt(profile.getProperty("seed.network.cities")),
+                Integer.parseInt(profile.getProperty("seed.network.hubs")),
+                Double.parseDouble(profile.getProperty("seed.network.flights-per-airport")),
+                Double.parseDouble(profile.getProperty("seed.network.hub-share")),
+                Double.parseDouble(profile.getProperty("seed.network.ground-legs-per-location"))));
+    new LoadDriver(options, network).run();
+  }
+
+  private void run() throws Exception {
+    double rate = Double.parseDouble(options.getOrDefault("rate", "100"));
+    long warmupNanos =
+        Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup", "10"))).toNanos();
+    long durationNanos =
+        Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "60"))).toNanos();
+    Map<Operation, Integer> mix =
+        mix(options.getOrDefault("mix", "login=5,location-search=45,route-search=50"));
+    Random random = new Random(Long.parseLong(options.getOrDefault("seed", "1")));
+
+    String token = login();
+    Map<Operation, Recorder> recorders = new EnumMap<>(Operation.class);
+    for (Operation operation : Operation.values()) {
+      recorders.put(operation, new Recorder());
+    }
+
+    System.out.printf(
+        Locale.ROOT,
+        "Sending %.0f requests/s to %s for %d s after %d s warm-up, network %s%n",
+        rate,
+        baseUrl,
+        Duration.ofNanos(durationNanos).toSeconds(),
+        Duration.ofNanos(warmupNanos).toSeconds(),
+        network.shape());
+    long interval = Math.round(1_000_000_000 / rate);
+    long start = System.nanoTime();
+    long measureFrom = start + warmupNanos;
+    long end = measureFrom + durationNanos;
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (long due = start; due < end; due += interval) {
+        // The request is chosen here, on one thread, to keep the sequence reproducible
+        Operation operation = pick(mix, random);
+        HttpRequest request = request(operation, token, random);
+        long wait = due - System.nanoTime();
+        if (wait > 0) {
+          LockSupport.parkNanos(wait);
+        }
+        long scheduled = due;
+        executor.execute(
+            () -> {
+              boolean ok = send(request);
+              if (scheduled >= measureFrom) {
+                recorders.get(operation).record(System.nanoTime() - scheduled, ok);
+              }
+            });
+      }
+    }
+    report(recorders, durationNanos);
+  }
+
+  private String login() throws IOException, InterruptedException {
+    HttpResponse<String> response =
+        client.send(loginRequest(), HttpResponse.BodyHandlers.ofString());
+    if (response.statusCode() != 200) {
+      throw new IllegalStateException(
+          "Login failed with status " + response.statusCode() + ": " + response.body());
+    }
+    return OBJECT_MAPPER.readTree(response.body()).get("accessToken").asText();
+  }
+
+  private HttpRequest loginRequest() {
+    return HttpRequest.newBuilder(URI.create(baseUrl + "/login"))
+        .timeout(REQUEST_TIMEOUT)
+        .header("Content-Type", "application/json")
+        .POST(HttpRequest.BodyPublishers.ofString(credentials))
+        .build();
+  }
+
+  private HttpRequest request(Operation operation, String token, Random random) {
+    if (operation == Operation.LOGIN) {
+      return loginRequest();
+    }
+    String path;
+    if (operation == Operation.LOCATION_SEARCH) {
+      path = "/locations/search?query=" + encode(searchQuery(random));
+    } else {
+      long[] pair = network.connectedPair(random);
+      path = "/routes?fromLocationId=" + pair[0] + "&toLocationId=" + pair[1];
+    }
+    return HttpRequest.newBuilder(URI.create(baseUrl + path))
+        .timeout(REQUEST_TIMEOUT)
+        .header("Authorization", "Bearer " + token)
+        .GET()
+        .build();
+  }
+
+  // What a user has typed so far into the search box: a name prefix, now and then with a typo
+  private String searchQuery(Random random) {
+    List<Location> locations = network.locations();
+    String name = locations.get(random.nextInt(locations.size())).getName();
+    String query = name.substring(0, Math.min(name.length(), 3 + random.nextInt(6)));
+    if (query.length() > 4 && random.nextInt(10) == 0) {
+      int typo = 1 + random.nextInt(query.length() - 1);
+      query = query.substring(0, typo) + query.substring(typo + 1);
+    }
+    return query;
+  }
+
+  private boolean send(HttpRequest request) {
+    try {
+      int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+      return status >= 200 && status < 300;
+    } catch (IOException e) {
+      return false;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  private static void report(Map<Operation, Recorder> recorders, long durationNanos) {
+    System.out.printf(
+        Locale.ROOT,
+        "%-16s %9s %7s %9s %9s %9s %9s %9s%n",
+        "operation",
+        "requests",
+        "errors",
+        "p50 ms",
+        "p90 ms",
+        "p99 ms",
+        "p99.9 ms",
+        "max ms");
+    long total = 0;
+    for (Map.Entry<Operation, Recorder> entry : recorders.entrySet()) {
+      // Percentiles are over successful requests, errors are counted on their own
+      long[] latencies = entry.getValue().sorted();
+      long errors = entry.getValue().errors();
+      total += latencies.length + errors;
+      System.out.printf(
+          Locale.ROOT,
+          "%-16s %9d %7d %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+          entry.getKey().option,
+          latencies.length + errors,
+          errors,
+          percentile(latencies, 0.5),
+          percentile(latencies, 0.9),
+          percentile(latencies, 0.99),
+          percentile(latencies, 0.999),
+          percentile(latencies, 1));
+    }
+    System.out.printf(Locale.ROOT, "Sent %.1f requests/s%n", total / (durationNanos / 1e9));
+  }
+
+  // Nearest-rank percentile in milliseconds
+  private static double percentile(long[] sorted, double percentile) {
+    if (sorted.length == 0) {
+      return Double.NaN;
+    }
+    int rank = (int) Math.ceil(percentile * sorted.length);
+    return sorted[Math.max(0, rank - 1)] / 1e6;
+  }
+
+  private static Operation pick(Map<Operation, Integer> mix, Random random) {
+    int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+    int draw = random.nextInt(total);
+    for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+      draw -= entry.getValue();
+      if (draw < 0) {
+        return entry.getKey();
+      }
+    }
+    throw new IllegalStateException("Empty mix");
+  }
+
+  private static Map<Operation, Integer> mix(String weights) {
+    Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+    for (String weight : weights.split(",")) {
+      String[] parts = weight.split("=");
+      Operation operation =
+          Arrays.stream(Operation.values())
+              .filter(candidate -> candidate.option.equals(parts[0].trim()))
+              .findFirst()
+              .orElseThrow(() -> new IllegalArgumentException("Unknown operation " + parts[0]));
+      mix.put(operation, Integer.parseInt(parts[1].trim()));
+    }
+    if (mix.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+      throw new IllegalArgumentException("The mix needs a positive weight");
+    }
+    return mix;
+  }
+
+  private static Map<String, String> parse(String[] args) {
+    Map<String, String> options = new LinkedHashMap<>();
+    for (String arg : args) {
+      int separator = arg.indexOf('=');
+      if (!arg.startsWith("--") || separator < 0) {
+        throw new IllegalArgumentException("Expected --name=value but got " + arg);
+      }
+      options.put(arg.substring(2, separator), arg.substring(separator + 1));
+    }
+    return options;
+  }
+
+  private static String encode(String value) {
+    return URLEncoder.encode(value, StandardCharsets.UTF_8);
+  }
+
+  /** Latencies of one operation; requests complete on many threads. */
+  private static final class Recorder {
+
+    private long[] latencies = new long[1024];
+    private int count;
+    private long errors;
+
+    synchronized void record(long nanos, boolean ok) {
+      if (!ok) {
+        errors++;
+        return;
+      }
+      if (count == latencies.length) {
+        latencies = Arrays.copyOf(latencies, count * 2);
+      }
+      latencies[count++] = nanos;
+    }
+
+    synchronized long[] sorted() {
+      long[] sorted = Arrays.copyOf(latencies, count);
+      Arrays.sort(sorted);
+      return sorted;
+    }
+
+    synchronized long errors() {
+      return errors;
+    }
+  }
+}
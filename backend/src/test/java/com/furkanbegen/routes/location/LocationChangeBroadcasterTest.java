@@ -0,0 +1,47 @@
+package com.furkanbegen.routes.location;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import com.furkanbegen.routes.event.LocationChangedEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+@ExtendWith(MockitoExtension.class)
+class LocationChangeBroadcasterTest {
+
+  @Mock private StringRedisTemplate redisTemplate;
+
+  @Mock private LocationIndex locationIndex;
+
+  @InjectMocks private LocationChangeBroadcaster locationChangeBroadcaster;
+
+  @Test
+  void onMessage_WhenFromAnotherInstance_ShouldRebuildIndex() {
+    // when
+    locationChangeBroadcaster.onMessage("other-instance:42");
+
+    // then
+    verify(locationIndex).scheduleRebuild();
+  }
+
+  @Test
+  void onMessage_WhenFromThisInstance_ShouldKeepIndex() {
+    // given
+    locationChangeBroadcaster.onLocationChanged(new LocationChangedEvent(42L));
+    ArgumentCaptor<String> message = ArgumentCaptor.forClass(String.class);
+    verify(redisTemplate).convertAndSend(anyString(), message.capture());
+
+    // when
+    locationChangeBroadcaster.onMessage(message.getValue());
+
+    // then
+    verify(locationIndex, never()).scheduleRebuild();
+  }
+}
@@ -0,0 +1,97 @@
+package com.furkanbegen.routes.location;
+
+import com.furkanbegen.routes.model.Location;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Nearby-location lookups over 100k synthetic locations: the grid against the full scan it
+ * replaces. Locations cluster around a few hundred cities, as real stations and airports do. Run
+ * with {@code mvn -Pbenchmark test -Dbenchmark=LocationGrid}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LocationGridBenchmark {
+
+  private static final int LOCATION_COUNT = 100_000;
+  private static final int CITY_COUNT = 500;
+  private static final int LIMIT = 20;
+
+  @Param({"25", "250"})
+  private double radiusKm;
+
+  private List<Location> locations;
+  private LocationGrid grid;
+  private double[][] queries;
+  private int next;
+
+  @Setup
+  public void setUp() {
+    Random random = new Random(42);
+    double[][] cities = new double[CITY_COUNT][];
+    for (int i = 0; i < CITY_COUNT; i++) {
+      cities[i] = new double[] {random.nextDouble() * 120 - 60, random.nextDouble() * 360 - 180};
+    }
+
+    locations = new ArrayList<>(LOCATION_COUNT);
+    for (long id = 1; id <= LOCATION_COUNT; id++) {
+      double[] city = cities[random.nextInt(CITY_COUNT)];
+      var location = new Location();
+      location.setId(id);
+      location.setName("Location " + id);
+      location.setLatitude(city[0] + random.nextGaussian() * 0.5);
+      location.setLongitude(city[1] + random.nextGaussian() * 0.5);
+      locations.add(location);
+    }
+    grid = LocationGrid.build(locations);
+
+    queries = new double[1024][];
+    for (int i = 0; i < queries.length; i++) {
+      double[] city = cities[random.nextInt(CITY_COUNT)];
+      queries[i] = new double[] {city[0] + random.nextGaussian(), city[1] + random.nextGaussian()};
+    }
+  }
+
+  @Benchmark
+  public List<Location> grid() {
+    double[] query = nextQuery();
+    return grid.nearby(query[0], query[1], radiusKm, LIMIT);
+  }
+
+  @Benchmark
+  public List<Location> fullScan() {
+    double[] query = nextQuery();
+    return locations.stream()
+        .filter(location -> distance(query, location) <= radiusKm)
+        .sorted(Comparator.comparingDouble(location -> distance(query, location)))
+        .limit(LIMIT)
+        .toList();
+  }
+
+  private double[] nextQuery() {
+    return queries[next++ & (queries.length - 1)];
+  }
+
+  private static double distance(double[] query, Location location) {
+    return GreatCircle.distanceKm(
+        query[0], query[1], location.getLatitude(), location.getLongitude());
+  }
+}
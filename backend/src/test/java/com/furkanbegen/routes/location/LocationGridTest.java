@@ -0,0 +1,85 @@
+package com.furkanbegen.routes.location;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.furkanbegen.routes.model.Location;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class LocationGridTest {
+
+  @Test
+  void nearby_WhenLocationsAround_ShouldReturnThoseWithinRadiusNearestFirst() {
+    // given
+    Location istanbul = location(1L, "Istanbul", 41.0082, 28.9784);
+    Location sabihaGokcen = location(2L, "Sabiha Gökçen", 40.8986, 29.3092);
+    Location ankara = location(3L, "Ankara", 39.9334, 32.8597);
+    Location unplaced = location(4L, "Unplaced", null, null);
+    LocationGrid grid = LocationGrid.build(List.of(ankara, sabihaGokcen, istanbul, unplaced));
+
+    // when
+    List<Location> nearby = grid.nearby(41.0, 29.0, 100, 10);
+
+    // then
+    assertEquals(List.of(istanbul, sabihaGokcen), nearby);
+    assertEquals(3, grid.size());
+  }
+
+  @ParameterizedTest
+  @CsvSource({
+    "41.0, 29.0, 300",
+    // Across the antimeridian
+    "-17.7, 179.9, 500",
+    // Around the north pole, where every longitude is in reach
+    "89.5, 10.0, 400",
+    "0.0, 0.0, 20000"
+  })
+  void nearby_WhenRandomLocations_ShouldMatchFullScan(
+      double latitude, double longitude, double radiusKm) {
+    // given
+    Random random = new Random(7);
+    List<Location> locations = new ArrayList<>();
+    for (long id = 1; id <= 20_000; id++) {
+      // Uniform over the sphere, not over the lat/lon rectangle
+      double pointLatitude = Math.toDegrees(Math.asin(random.nextDouble() * 2 - 1));
+      locations.add(location(id, "L" + id, pointLatitude, random.nextDouble() * 360 - 180));
+    }
+    LocationGrid grid = LocationGrid.build(locations);
+
+    // when
+    List<Location> nearby = grid.nearby(latitude, longitude, radiusKm, 50);
+
+    // then
+    List<Location> expected =
+        locations.stream()
+            .filter(location -> distance(latitude, longitude, location) <= radiusKm)
+            .sorted(Comparator.comparingDouble(location -> distance(latitude, longitude, location)))
+            .limit(50)
+            .toList();
+    assertFalse(expected.isEmpty());
+    assertEquals(ids(expected), ids(nearby));
+  }
+
+  private static double distance(double latitude, double longitude, Location location) {
+    return GreatCircle.distanceKm(
+        latitude, longitude, location.getLatitude(), location.getLongitude());
+  }
+
+  private static List<Long> ids(List<Location> locations) {
+    return locations.stream().map(Location::getId).toList();
+  }
+
+  private static Location location(Long id, String name, Double latitude, Double longitude) {
+    var location = new Location();
+    location.setId(id);
+    location.setName(name);
+    location.setLatitude(latitude);
+    location.setLongitude(longitude);
+    return location;
+  }
+}
@@ -0,0 +1,106 @@
+package com.furkanbegen.routes.location;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.furkanbegen.routes.model.Location;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class LocationNameTableTest {
+
+  private final LocationNameTable table =
+      LocationNameTable.build(
+          locations(
+              "London Heathrow Airport",
+              "London",
+              "New London",
+              "Londonderry",
+              "Istanbul Airport",
+              "Zürich",
+              "Kraków Airport",
+              "Paris"));
+
+  @Test
+  void search_WhenPrefixAndSubstringMatch_ShouldRankPrefixesFirst() {
+    // when
+    LocationNameTable.Matches matches = table.search("london", 0, 10);
+
+    // then
+    assertEquals(
+        List.of("London", "Londonderry", "London Heathrow Airport", "New London"), names(matches));
+    assertEquals(4, matches.total());
+  }
+
+  @Test
+  void search_WhenWordPrefix_ShouldRankAboveSubstring() {
+    // when
+    LocationNameTable.Matches matches = table.search("air", 0, 10);
+
+    // then
+    assertEquals(
+        List.of("Kraków Airport", "Istanbul Airport", "London Heathrow Airport"), names(matches));
+  }
+
+  @Test
+  void search_WhenAccentsAndCaseDiffer_ShouldMatch() {
+    // when & then
+    assertEquals(List.of("Zürich"), names(table.search("ZURICH", 0, 10)));
+    assertEquals(List.of("Kraków Airport"), names(table.search("krakow", 0, 10)));
+  }
+
+  @Test
+  void search_WhenQueryHasTypos_ShouldMatchWithinEditBudget() {
+    // when & then
+    assertEquals(List.of("Istanbul Airport"), names(table.search("istnabul", 0, 10)));
+    assertEquals("London", names(table.search("lodnon", 0, 10)).get(0));
+    assertTrue(table.search("lpx", 0, 10).locations().isEmpty());
+  }
+
+  @Test
+  void search_WhenPaged_ShouldReturnSliceAndTotal() {
+    // when
+    LocationNameTable.Matches matches = table.search("lon", 1, 2);
+
+    // then
+    assertEquals(List.of("Londonderry", "London Heathrow Airport"), names(matches));
+    assertEquals(4, matches.total());
+  }
+
+  @Test
+  void search_WhenManyNamesShareTrigrams_ShouldFindEveryCandidate() {
+    // given
+    String[] names = new String[100];
+    for (int i = 0; i < names.length; i++) {
+      names[i] = (i % 2 == 0 ? "Harbour " : "Market ") + i;
+    }
+    LocationNameTable harbours = LocationNameTable.build(locations(names));
+
+    // when & then
+    assertEquals(50, harbours.search("harbour", 0, 10).total());
+    assertEquals(50, harbours.search("habrour", 0, 10).total());
+    assertEquals(100, harbours.search("r", 0, 10).total());
+  }
+
+  @Test
+  void substringDistance_WhenComparing_ShouldCountTranspositionAsOneEdit() {
+    assertEquals(0, LocationNameTable.substringDistance("don", "london"));
+    assertEquals(1, LocationNameTable.substringDistance("lodnon", "new london"));
+    assertEquals(2, LocationNameTable.substringDistance("lndn", "london"));
+  }
+
+  private static List<Location> locations(String... names) {
+    List<Location> locations = new ArrayList<>();
+    for (int i = 0; i < names.length; i++) {
+      var location = new Location();
+      location.setId((long) i + 1);
+      location.setName(names[i]);
+      locations.add(location);
+    }
+    return locations;
+  }
+
+  private static List<String> names(LocationNameTable.Matches matches) {
+    return matches.locations().stream().map(Location::getName).toList();
+  }
+}
@@ -0,0 +1,63 @@
+package com.furkanbegen.routes.mapper;
+
+import com.furkanbegen.routes.dto.RouteDTO;
+import com.furkanbegen.routes.model.Transportation;
+import com.furkanbegen.routes.seed.SyntheticNetwork;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Maps routes of {@code legCount} transportations to DTOs, as done for every route on a page. Run
+ * with {@code mvn -Pbenchmark test -Dbenchmark=RouteMapper}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RouteMapperBenchmark {
+
+  @Param({"1", "3"})
+  private int legCount;
+
+  // The location repository is only used when mapping requests to entities
+  private final RouteMapper routeMapper =
+      new RouteMapper(new TransportationMapper(null, new LocationMapper()));
+
+  private List<List<Transportation>> routes;
+  private int next;
+
+  @Setup
+  public void setUp() {
+    List<Transportation> transportations =
+        SyntheticNetwork.generate(42, SyntheticNetwork.Shape.of(1000, 5, 2)).transportations();
+    Random random = new Random(7);
+    routes = new ArrayList<>();
+    for (int i = 0; i < 1024; i++) {
+      List<Transportation> route = new ArrayList<>(legCount);
+      for (int leg = 0; leg < legCount; leg++) {
+        route.add(transportations.get(random.nextInt(transportations.size())));
+      }
+      routes.add(route);
+    }
+  }
+
+  @Benchmark
+  public RouteDTO convertToRouteDTO() {
+    return routeMapper.convertToRouteDTO(routes.get(next++ & (routes.size() - 1)));
+  }
+}
@@ -0,0 +1,81 @@
+package com.furkanbegen.routes.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.furkanbegen.routes.model.Location;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import jakarta.persistence.EntityManager;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+@AutoConfigureEmbeddedDatabase(provider = AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY)
+class SchemaMigrationTest {
+
+  @Autowired private LocationRepository locationRepository;
+  @Autowired private EntityManager entityManager;
+
+  @BeforeEach
+  void setUp() {
+    // Enough rows, with statistics, for the planner to prefer an index where one applies
+    execute(
+        "INSERT INTO locations (name, version) "
+            + "SELECT 'Location ' || g, 0 FROM generate_series(1, 50000) g");
+    execute(
+        "INSERT INTO transportations (from_location_id, to_location_id, type, version) "
+            + "SELECT l.id, l.id, CASE WHEN l.id % 50 = 0 THEN 'FLIGHT' ELSE 'OTHER' END, 0 "
+            + "FROM locations l");
+    execute("ANALYZE locations");
+    execute("ANALYZE transportations");
+  }
+
+  @Test
+  void searchByName_WhenSubstringQuery_ShouldUseTrigramIndex() {
+    // when
+    Page<Location> locations =
+        locationRepository.searchByNameContainingIgnoreCase("ATION 24242", PageRequest.of(0, 10));
+    String plan =
+        explain(
+            "SELECT * FROM locations WHERE LOWER(name) LIKE LOWER('%' || 'ATION 24242' || '%')");
+
+    // then
+    assertEquals(1, locations.getTotalElements());
+    assertTrue(plan.contains("idx_locations_name_trgm"), plan);
+  }
+
+  @Test
+  void transportationsByEndpoint_WhenFiltered_ShouldUseEndpointIndexes() {
+    // when
+    String fromPlan = explain("SELECT * FROM transportations WHERE from_location_id = 42");
+    String toPlan = explain("SELECT * FROM transportations WHERE to_location_id = 42");
+
+    // then
+    assertTrue(fromPlan.contains("idx_transportations_from_location_id"), fromPlan);
+    assertTrue(toPlan.contains("idx_transportations_to_location_id"), toPlan);
+  }
+
+  @Test
+  void transportationsByType_WhenSelectiveType_ShouldUseTypeIndex() {
+    // when
+    String plan = explain("SELECT * FROM transportations WHERE type = 'FLIGHT'");
+
+    // then
+    assertTrue(plan.contains("idx_transportations_type"), plan);
+  }
+
+  private void execute(String sql) {
+    entityManager.createNativeQuery(sql).executeUpdate();
+  }
+
+  @SuppressWarnings("unchecked")
+  private String explain(String sql) {
+    List<Object> rows = entityManager.createNativeQuery("EXPLAIN " + sql).getResultList();
+    return rows.stream().map(Object::toString).collect(Collectors.joining("\n"));
+  }
+}
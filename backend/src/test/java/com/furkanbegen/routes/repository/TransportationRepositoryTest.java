@@ -0,0 +1,141 @@
+package com.furkanbegen.routes.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.furkanbegen.routes.model.Location;
+import com.furkanbegen.routes.model.Transportation;
+import com.furkanbegen.routes.model.TransportationType;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+@DataJpaTest(
+    properties = {
+      "spring.jpa.properties.hibernate.generate_statistics=true",
+      "spring.jpa.show-sql=false"
+    })
+@AutoConfigureEmbeddedDatabase(provider = AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY)
+class TransportationRepositoryTest {
+
+  @Autowired private TransportationRepository transportationRepository;
+  @Autowired private TestEntityManager entityManager;
+  @Autowired private EntityManagerFactory entityManagerFactory;
+
+  @ParameterizedTest
+  @ValueSource(ints = {5, 50})
+  void findAll_WhenListingAll_ShouldUseOneStatementRegardlessOfRows(int rows) {
+    // given
+    persistTransportations(rows);
+    Statistics statistics = resetStatistics();
+
+    // when
+    List<Transportation> transportations = transportationRepository.findAll();
+    touchLocations(transportations);
+
+    // then
+    assertEquals(rows, transportations.size());
+    assertEquals(1, statistics.getPrepareStatementCount());
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {5, 50})
+  void streamGraphRows_WhenLoadingRouteGraph_ShouldUseOneStatementAndNoManagedEntities(int rows) {
+    // given
+    persistTransportations(rows);
+    Statistics statistics = resetStatistics();
+
+    // when
+    List<TransportationGraphRow> graphRows;
+    try (Stream<TransportationGraphRow> stream = transportationRepository.streamGraphRows()) {
+      graphRows = stream.toList();
+    }
+
+    // then
+    assertEquals(rows, graphRows.size());
+    assertEquals(1, statistics.getPrepareStatementCount());
+    assertEquals(0, statistics.getEntityLoadCount());
+    TransportationGraphRow first =
+        graphRows.stream()
+            .filter(row -> row.fromLocationName().equals("Location 0"))
+            .findFirst()
+            .orElseThrow();
+    assertEquals("Location 1", first.toLocationName());
+    assertEquals(TransportationType.FLIGHT, first.type());
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {25, 100})
+  void findAll_WhenListingPage_ShouldUseSelectAndCountRegardlessOfRows(int rows) {
+    // given
+    persistTransportations(rows);
+    Statistics statistics = resetStatistics();
+
+    // when
+    Page<Transportation> page = transportationRepository.findAll(PageRequest.of(1, 10));
+    touchLocations(page.getContent());
+
+    // then
+    assertEquals(10, page.getNumberOfElements());
+    assertEquals(2, statistics.getPrepareStatementCount());
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {5, 50})
+  void findByIdGreaterThan_WhenListingSlice_ShouldUseOneStatementRegardlessOfRows(int rows) {
+    // given
+    persistTransportations(rows);
+    Statistics statistics = resetStatistics();
+
+    // when
+    List<Transportation> slice =
+        transportationRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(rows));
+    touchLocations(slice);
+
+    // then
+    assertEquals(rows, slice.size());
+    assertEquals(1, statistics.getPrepareStatementCount());
+  }
+
+  private void persistTransportations(int count) {
+    List<Location> locations = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      var location = new Location();
+      location.setName("Location " + i);
+      locations.add(entityManager.persist(location));
+    }
+    for (int i = 0; i < count; i++) {
+      var transportation = new Transportation();
+      transportation.setFromLocation(locations.get(i));
+      transportation.setToLocation(locations.get((i + 1) % count));
+      transportation.setType(TransportationType.FLIGHT);
+      entityManager.persist(transportation);
+    }
+    entityManager.flush();
+    entityManager.clear();
+  }
+
+  private Statistics resetStatistics() {
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+    return statistics;
+  }
+
+  private void touchLocations(List<Transportation> transportations) {
+    for (Transportation transportation : transportations) {
+      assertNotNull(transportation.getFromLocation().getName());
+      assertNotNull(transportation.getToLocation().getName());
+    }
+  }
+}
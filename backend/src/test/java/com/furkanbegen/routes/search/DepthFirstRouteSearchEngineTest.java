@@ -0,0 +1,177 @@
+package com.furkanbegen.routes.search;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.furkanbegen.routes.graph.RouteGraphSnapshot;
+import com.furkanbegen.routes.model.Location;
+import com.furkanbegen.routes.model.Transportation;
+import com.furkanbegen.routes.model.TransportationType;
+import com.furkanbegen.routes.validator.RouteValidator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class DepthFirstRouteSearchEngineTest {
+
+  private final DepthFirstRouteSearchEngine sequential =
+      new DepthFirstRouteSearchEngine(new RouteValidator());
+  private final DepthFirstRouteSearchEngine parallel =
+      new DepthFirstRouteSearchEngine(new RouteValidator(), 1, RouteSearchMetrics.disabled());
+
+  @Test
+  void search_WhenParallel_ShouldEmitSameRoutesInSameOrderAsSequential() {
+    Random random = new Random(42);
+    for (int round = 0; round < 50; round++) {
+      // given
+      int locationCount = 2 + random.nextInt(20);
+      RouteGraphSnapshot graph = randomGraph(random, locationCount, 1 + random.nextInt(200));
+      int[] origins = randomSubset(random, graph.locationCount());
+      int[] destinations = randomSubset(random, graph.locationCount());
+
+      // when
+      List<List<Long>> expected =
+          search(sequential, graph, origins, destinations, Integer.MAX_VALUE);
+      List<List<Long>> actual = search(parallel, graph, origins, destinations, Integer.MAX_VALUE);
+
+      // then
+      assertEquals(expected, actual, "round " + round);
+    }
+  }
+
+  @Test
+  void search_WhenParallelSinkDeclines_ShouldStopAfterSameRoutes() {
+    // given
+    RouteGraphSnapshot graph = randomGraph(new Random(7), 30, 600);
+    int[] origins = {0, 1, 2};
+    int[] destinations = {3, 4, 5, 6};
+
+    // when
+    List<List<Long>> expected = search(sequential, graph, origins, destinations, 25);
+    List<List<Long>> actual = search(parallel, graph, origins, destinations, 25);
+
+    // then
+    assertEquals(25, actual.size());
+    assertEquals(expected, actual);
+  }
+
+  @Test
+  void search_WhenParallelSinkCapped_ShouldStopAsEarlyAsSequential() {
+    // given
+    RouteGraphSnapshot graph = randomGraph(new Random(11), 30, 600);
+    int[] origins = {0, 1, 2};
+    int[] destinations = {3, 4, 5, 6};
+    var cappedRegistry = new SimpleMeterRegistry();
+    var exhaustiveRegistry = new SimpleMeterRegistry();
+
+    // when
+    search(
+        new DepthFirstRouteSearchEngine(
+            new RouteValidator(), 1, new RouteSearchMetrics(cappedRegistry)),
+        graph,
+        origins,
+        destinations,
+        1);
+    search(
+        new DepthFirstRouteSearchEngine(
+            new RouteValidator(), 1, new RouteSearchMetrics(exhaustiveRegistry)),
+        graph,
+        origins,
+        destinations,
+        Integer.MAX_VALUE);
+
+    // then
+    double capped = cappedRegistry.get("routes.search.nodes.expanded").counter().count();
+    double exhaustive = exhaustiveRegistry.get("routes.search.nodes.expanded").counter().count();
+    assertTrue(capped * 10 < exhaustive, capped + " of " + exhaustive);
+  }
+
+  @Test
+  void search_WhenParallel_ShouldCountSameWorkAsSequential() {
+    // given
+    RouteGraphSnapshot graph = randomGraph(new Random(11), 30, 600);
+    int[] origins = {0, 1, 2};
+    int[] destinations = {3, 4, 5, 6};
+    var sequentialRegistry = new SimpleMeterRegistry();
+    var parallelRegistry = new SimpleMeterRegistry();
+    var countingSequential =
+        new DepthFirstRouteSearchEngine(
+            new RouteValidator(), 0, new RouteSearchMetrics(sequentialRegistry));
+    var countingParallel =
+        new DepthFirstRouteSearchEngine(
+            new RouteValidator(), 1, new RouteSearchMetrics(parallelRegistry));
+
+    // when
+    search(countingSequential, graph, origins, destinations, Integer.MAX_VALUE);
+    search(countingParallel, graph, origins, destinations, Integer.MAX_VALUE);
+
+    // then
+    for (String counter : List.of("routes.search.nodes.expanded", "routes.search.edges.pruned")) {
+      double expected = sequentialRegistry.get(counter).counter().count();
+      assertTrue(expected > 0, counter);
+      assertEquals(expected, parallelRegistry.get(counter).counter().count(), counter);
+    }
+  }
+
+  // Without a limit the sink takes every route, which lets the engine search in parallel
+  private List<List<Long>> search(
+      RouteSearchEngine engine,
+      RouteGraphSnapshot graph,
+      int[] origins,
+      int[] destinations,
+      int limit) {
+    List<List<Long>> routes = new ArrayList<>();
+    engine.search(
+        graph,
+        origins,
+        destinations,
+        new RouteSink() {
+          @Override
+          public boolean accept(int[] edges, int length) {
+            List<Long> route = new ArrayList<>(length);
+            for (int i = 0; i < length; i++) {
+              route.add(graph.transportation(edges[i]).getId());
+            }
+            routes.add(route);
+            return routes.size() < limit;
+          }
+
+          @Override
+          public boolean isExhaustive() {
+            return limit == Integer.MAX_VALUE;
+          }
+        });
+    return routes;
+  }
+
+  private int[] randomSubset(Random random, int locationCount) {
+    return random
+        .ints(0, locationCount)
+        .distinct()
+        .limit(1 + random.nextInt(locationCount))
+        .toArray();
+  }
+
+  private RouteGraphSnapshot randomGraph(Random random, int locationCount, int edgeCount) {
+    List<Location> locations = new ArrayList<>();
+    for (long id = 1; id <= locationCount; id++) {
+      var location = new Location();
+      location.setId(id);
+      location.setName("Location " + id);
+      locations.add(location);
+    }
+
+    List<Transportation> transportations = new ArrayList<>();
+    for (long id = 1; id <= edgeCount; id++) {
+      var transportation = new Transportation();
+      transportation.setId(id);
+      transportation.setFromLocation(locations.get(random.nextInt(locationCount)));
+      transportation.setToLocation(locations.get(random.nextInt(locationCount)));
+      transportation.setType(
+          random.nextInt(3) == 0 ? TransportationType.FLIGHT : TransportationType.OTHER);
+      transportations.add(transportation);
+    }
+    return RouteGraphSnapshot.compile(transportations, 1L);
+  }
+}
@@ -0,0 +1,176 @@
+package com.furkanbegen.routes.search;
+
+import static com.furkanbegen.routes.RouteFixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.furkanbegen.routes.graph.RouteGraphSnapshot;
+import com.furkanbegen.routes.model.Location;
+import com.furkanbegen.routes.model.Transportation;
+import com.furkanbegen.routes.model.TransportationType;
+import com.furkanbegen.routes.validator.RouteValidator;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class FlightAnchoredRouteSearchEngineTest {
+
+  private final FlightAnchoredRouteSearchEngine flightAnchored =
+      new FlightAnchoredRouteSearchEngine();
+  private final DepthFirstRouteSearchEngine depthFirst =
+      new DepthFirstRouteSearchEngine(new RouteValidator());
+
+  @Test
+  void search_WhenOtherLegsAroundFlight_ShouldFindEveryValidRoute() {
+    // given
+    var taksimSquare = createLocation(1L);
+    var istanbulAirport = createLocation(2L);
+    var heathrowAirport = createLocation(3L);
+    var wembleyStadium = createLocation(4L);
+    RouteGraphSnapshot graph =
+        RouteGraphSnapshot.compile(
+            List.of(
+                createTransportation(1L, taksimSquare, istanbulAirport, TransportationType.OTHER),
+                createTransportation(
+                    2L, istanbulAirport, heathrowAirport, TransportationType.FLIGHT),
+                createTransportation(3L, heathrowAirport, wembleyStadium, TransportationType.OTHER),
+                createTransportation(4L, taksimSquare, wembleyStadium, TransportationType.OTHER),
+                createTransportation(5L, taksimSquare, heathrowAirport, TransportationType.FLIGHT)),
+            1L);
+
+    // when
+    Set<List<Long>> routes = search(flightAnchored, graph, 1L, 4L);
+
+    // then
+    assertEquals(Set.of(List.of(1L, 2L, 3L), List.of(5L, 3L)), routes);
+  }
+
+  @Test
+  void search_WhenRandomNetworks_ShouldMatchDepthFirstSearch() {
+    Random random = new Random(42);
+    for (int round = 0; round < 50; round++) {
+      // given
+      int locationCount = 2 + random.nextInt(12);
+      RouteGraphSnapshot graph = randomGraph(random, locationCount, random.nextInt(60));
+
+      for (long from = 1; from <= locationCount; from++) {
+        for (long to = 1; to <= locationCount; to++) {
+          // when
+          Set<List<Long>> expected = search(depthFirst, graph, from, to);
+          Set<List<Long>> actual = search(flightAnchored, graph, from, to);
+
+          // then
+          assertEquals(expected, actual, "round " + round + ", " + from + " -> " + to);
+        }
+      }
+    }
+  }
+
+  @Test
+  void search_WhenManyOriginsAndDestinations_ShouldMatchUnionOfPairSearches() {
+    Random random = new Random(11);
+    for (int round = 0; round < 50; round++) {
+      // given
+      int locationCount = 2 + random.nextInt(12);
+      RouteGraphSnapshot graph = randomGraph(random, locationCount, random.nextInt(60));
+      int[] origins = randomSubset(random, graph.locationCount());
+      int[] destinations = randomSubset(random, graph.locationCount());
+
+      Set<List<Long>> expected = new HashSet<>();
+      for (int origin : origins) {
+        for (int destination : destinations) {
+          expected.addAll(search(depthFirst, graph, origin, destination));
+        }
+      }
+
+      // when
+      Set<List<Long>> anchored = search(flightAnchored, graph, origins, destinations);
+      Set<List<Long>> combined = search(depthFirst, graph, origins, destinations);
+
+      // then
+      assertEquals(expected, anchored, "round " + round);
+      assertEquals(expected, combined, "round " + round);
+    }
+  }
+
+  @Test
+  void search_WhenSinkDeclines_ShouldStop() {
+    // given
+    var origin = createLocation(1L);
+    var destination = createLocation(2L);
+    List<Transportation> transportations = new ArrayList<>();
+    for (long id = 1; id <= 5; id++) {
+      transportations.add(createTransportation(id, origin, destination, TransportationType.FLIGHT));
+    }
+    RouteGraphSnapshot graph = RouteGraphSnapshot.compile(transportations, 1L);
+    int[] accepted = new int[1];
+
+    // when
+    flightAnchored.search(
+        graph, graph.indexOf(1L), graph.indexOf(2L), (edges, length) -> ++accepted[0] < 2);
+
+    // then
+    assertEquals(2, accepted[0]);
+  }
+
+  private Set<List<Long>> search(
+      RouteSearchEngine engine, RouteGraphSnapshot graph, long fromId, long toId) {
+    int from = graph.indexOf(fromId);
+    int to = graph.indexOf(toId);
+    if (from < 0 || to < 0) {
+      return new HashSet<>();
+    }
+    return search(engine, graph, new int[] {from}, new int[] {to});
+  }
+
+  private Set<List<Long>> search(
+      RouteSearchEngine engine, RouteGraphSnapshot graph, int from, int to) {
+    return search(engine, graph, new int[] {from}, new int[] {to});
+  }
+
+  private Set<List<Long>> search(
+      RouteSearchEngine engine, RouteGraphSnapshot graph, int[] origins, int[] destinations) {
+    Set<List<Long>> routes = new HashSet<>();
+    engine.search(
+        graph,
+        origins,
+        destinations,
+        (edges, length) -> {
+          List<Long> route = new ArrayList<>(length);
+          for (int i = 0; i < length; i++) {
+            route.add(graph.transportation(edges[i]).getId());
+          }
+          assertTrue(routes.add(route), "duplicate route " + route);
+          return true;
+        });
+    return routes;
+  }
+
+  private int[] randomSubset(Random random, int locationCount) {
+    return random
+        .ints(0, locationCount)
+        .distinct()
+        .limit(1 + random.nextInt(locationCount))
+        .toArray();
+  }
+
+  private RouteGraphSnapshot randomGraph(Random random, int locationCount, int edgeCount) {
+    List<Location> locations = new ArrayList<>();
+    for (long id = 1; id <= locationCount; id++) {
+      locations.add(createLocation(id));
+    }
+
+    List<Transportation> transportations = new ArrayList<>();
+    for (long id = 1; id <= edgeCount; id++) {
+      transportations.add(
+          createTransportation(
+              id,
+              locations.get(random.nextInt(locationCount)),
+              locations.get(random.nextInt(locationCount)),
+              random.nextInt(3) == 0 ? TransportationType.FLIGHT : TransportationType.OTHER));
+    }
+    return RouteGraphSnapshot.compile(transportations, 1L);
+  }
+}
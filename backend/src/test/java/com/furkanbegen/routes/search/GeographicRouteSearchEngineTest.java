@@ -0,0 +1,149 @@
+package com.furkanbegen.routes.search;
+
+import static com.furkanbegen.routes.RouteFixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.furkanbegen.routes.graph.RouteGraphSnapshot;
+import com.furkanbegen.routes.model.Location;
+import com.furkanbegen.routes.model.Transportation;
+import com.furkanbegen.routes.model.TransportationType;
+import com.furkanbegen.routes.validator.RouteValidator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class GeographicRouteSearchEngineTest {
+
+  private final DepthFirstRouteSearchEngine depthFirst =
+      new DepthFirstRouteSearchEngine(new RouteValidator());
+
+  private final Location taksimSquare = createLocation(1L, 41.0370, 28.9850);
+  private final Location istanbulAirport = createLocation(2L, 41.2753, 28.7519);
+  private final Location heathrowAirport = createLocation(3L, 51.4700, -0.4543);
+  private final Location naritaAirport = createLocation(4L, 35.7720, 140.3929);
+  private final Location frankfurtAirport = createLocation(5L, 50.0379, 8.5622);
+
+  private final RouteGraphSnapshot graph =
+      RouteGraphSnapshot.compile(
+          List.of(
+              createTransportation(1L, taksimSquare, istanbulAirport, TransportationType.OTHER),
+              createTransportation(2L, istanbulAirport, naritaAirport, TransportationType.FLIGHT),
+              createTransportation(3L, naritaAirport, heathrowAirport, TransportationType.OTHER),
+              createTransportation(4L, istanbulAirport, heathrowAirport, TransportationType.FLIGHT),
+              createTransportation(
+                  5L, istanbulAirport, frankfurtAirport, TransportationType.FLIGHT),
+              createTransportation(
+                  6L, frankfurtAirport, heathrowAirport, TransportationType.OTHER)),
+          1L);
+
+  @Test
+  void search_WhenLegDetoursTooFar_ShouldPruneIt() {
+    // given
+    var geographic = new GeographicRouteSearchEngine(new RouteValidator(), 1.5);
+
+    // when
+    List<List<Long>> routes = search(geographic, 1L, 3L);
+
+    // then
+    assertEquals(List.of(List.of(1L, 4L), List.of(1L, 5L, 6L)), routes);
+    assertTrue(search(depthFirst, 1L, 3L).contains(List.of(1L, 2L, 3L)));
+  }
+
+  @Test
+  void search_WhenRatioGenerous_ShouldFindEveryRouteNearestFirst() {
+    // given
+    var geographic = new GeographicRouteSearchEngine(new RouteValidator(), 100);
+
+    // when
+    List<List<Long>> routes = search(geographic, 1L, 3L);
+
+    // then
+    assertEquals(List.of(List.of(1L, 4L), List.of(1L, 5L, 6L), List.of(1L, 2L, 3L)), routes);
+    assertEquals(Set.copyOf(search(depthFirst, 1L, 3L)), Set.copyOf(routes));
+  }
+
+  @Test
+  void search_WhenRandomNetworksWithoutDetourLimit_ShouldMatchDepthFirstSearch() {
+    var geographic = new GeographicRouteSearchEngine(new RouteValidator(), 1e9);
+    Random random = new Random(42);
+    for (int round = 0; round < 50; round++) {
+      // given
+      int locationCount = 2 + random.nextInt(12);
+      RouteGraphSnapshot randomGraph = randomGraph(random, locationCount, random.nextInt(60));
+      int[] origins = randomSubset(random, randomGraph.locationCount());
+      int[] destinations = randomSubset(random, randomGraph.locationCount());
+
+      // when
+      List<List<Long>> expected = search(depthFirst, randomGraph, origins, destinations);
+      List<List<Long>> actual = search(geographic, randomGraph, origins, destinations);
+
+      // then
+      assertEquals(Set.copyOf(expected), Set.copyOf(actual), "round " + round);
+      assertEquals(expected.size(), actual.size(), "round " + round);
+    }
+  }
+
+  @Test
+  void constructor_WhenRatioBelowOne_ShouldThrowIllegalArgumentException() {
+    // when & then
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new GeographicRouteSearchEngine(new RouteValidator(), 0.5));
+  }
+
+  private List<List<Long>> search(RouteSearchEngine engine, long fromId, long toId) {
+    return search(
+        engine, graph, new int[] {graph.indexOf(fromId)}, new int[] {graph.indexOf(toId)});
+  }
+
+  private List<List<Long>> search(
+      RouteSearchEngine engine, RouteGraphSnapshot graph, int[] origins, int[] destinations) {
+    List<List<Long>> routes = new ArrayList<>();
+    engine.search(
+        graph,
+        origins,
+        destinations,
+        (edges, length) -> {
+          List<Long> route = new ArrayList<>(length);
+          for (int i = 0; i < length; i++) {
+            route.add(graph.transportation(edges[i]).getId());
+          }
+          routes.add(route);
+          return true;
+        });
+    return routes;
+  }
+
+  private int[] randomSubset(Random random, int locationCount) {
+    return random
+        .ints(0, locationCount)
+        .distinct()
+        .limit(1 + random.nextInt(locationCount))
+        .toArray();
+  }
+
+  private RouteGraphSnapshot randomGraph(Random random, int locationCount, int edgeCount) {
+    List<Location> locations = new ArrayList<>();
+    for (long id = 1; id <= locationCount; id++) {
+      // Some locations have no coordinates
+      locations.add(
+          random.nextInt(4) == 0
+              ? createLocation(id, null, null)
+              : createLocation(
+                  id, random.nextDouble() * 180 - 90, random.nextDouble() * 360 - 180));
+    }
+
+    List<Transportation> transportations = new ArrayList<>();
+    for (long id = 1; id <= edgeCount; id++) {
+      transportations.add(
+          createTransportation(
+              id,
+              locations.get(random.nextInt(locationCount)),
+              locations.get(random.nextInt(locationCount)),
+              random.nextInt(3) == 0 ? TransportationType.FLIGHT : TransportationType.OTHER));
+    }
+    return RouteGraphSnapshot.compile(transportations, 1L);
+  }
+}
@@ -0,0 +1,188 @@
+package com.furkanbegen.routes.search;
+
+import static com.furkanbegen.routes.RouteFixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+import com.furkanbegen.routes.event.TransportationChangedEvent;
+import com.furkanbegen.routes.graph.RouteGraph;
+import com.furkanbegen.routes.graph.RouteGraphSnapshot;
+import com.furkanbegen.routes.model.Location;
+import com.furkanbegen.routes.model.Transportation;
+import com.furkanbegen.routes.model.TransportationType;
+import com.furkanbegen.routes.service.CacheableTransportationService;
+import com.furkanbegen.routes.validator.RouteValidator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class RouteCacheTest {
+
+  @Mock private CacheableTransportationService cacheableTransportationService;
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final DepthFirstRouteSearchEngine depthFirst =
+      new DepthFirstRouteSearchEngine(new RouteValidator());
+
+  private RouteCache routeCache;
+  private List<Transportation> transportations;
+  private Location istanbulAirport;
+  private Location heathrowAirport;
+
+  @BeforeEach
+  void setUp() {
+    routeCache = new RouteCache(1_000, meterRegistry);
+
+    istanbulAirport = createLocation(1L);
+    heathrowAirport = createLocation(2L);
+    transportations = new ArrayList<>();
+    for (long id = 1; id <= 3; id++) {
+      transportations.add(createTransportation(id, istanbulAirport, heathrowAirport));
+    }
+  }
+
+  @Test
+  void search_WhenSameVersionSearchedAgain_ShouldReplayWithoutSearching() {
+    // given
+    RouteGraphSnapshot graph = RouteGraphSnapshot.compile(transportations, 1L);
+    AtomicInteger searches = new AtomicInteger();
+    List<List<Long>> first = search(graph, searches, Integer.MAX_VALUE);
+
+    // when
+    List<List<Long>> second = search(graph, searches, Integer.MAX_VALUE);
+
+    // then
+    assertEquals(1, searches.get());
+    assertEquals(List.of(List.of(1L), List.of(2L), List.of(3L)), second);
+    assertEquals(first, second);
+    assertEquals(1, meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count());
+    assertEquals(
+        1, meterRegistry.get("cache.gets").tag("result", "miss").functionCounter().count());
+  }
+
+  @Test
+  void search_WhenGraphRecompiled_ShouldSearchAgain() {
+    // given
+    AtomicInteger searches = new AtomicInteger();
+    search(RouteGraphSnapshot.compile(transportations, 1L), searches, Integer.MAX_VALUE);
+
+    // when
+    search(RouteGraphSnapshot.compile(transportations, 2L), searches, Integer.MAX_VALUE);
+
+    // then
+    assertEquals(2, searches.get());
+  }
+
+  @Test
+  void search_WhenUnrelatedTransportationChanged_ShouldKeepReplaying() {
+    // given
+    when(cacheableTransportationService.findAll()).thenReturn(transportations);
+    var routeGraph = new RouteGraph(cacheableTransportationService);
+    AtomicInteger searches = new AtomicInteger();
+    search(routeGraph.current(), searches, Integer.MAX_VALUE);
+    var elsewhere =
+        createTransportation(4L, createLocation(3L), createLocation(4L), TransportationType.OTHER);
+
+    // when
+    routeGraph.onTransportationChanged(TransportationChangedEvent.saved(elsewhere));
+    List<List<Long>> routes = search(routeGraph.current(), searches, Integer.MAX_VALUE);
+
+    // then
+    assertEquals(1, searches.get());
+    assertEquals(List.of(List.of(1L), List.of(2L), List.of(3L)), routes);
+  }
+
+  @Test
+  void search_WhenTransportationWithinReachChanged_ShouldSearchAgain() {
+    // given
+    when(cacheableTransportationService.findAll()).thenReturn(transportations);
+    var routeGraph = new RouteGraph(cacheableTransportationService);
+    AtomicInteger searches = new AtomicInteger();
+    search(routeGraph.current(), searches, Integer.MAX_VALUE);
+    var sabihaGokcen = createLocation(3L);
+    var toSabihaGokcen = createTransportation(4L, istanbulAirport, sabihaGokcen);
+    toSabihaGokcen.setType(TransportationType.OTHER);
+    var fromSabihaGokcen = createTransportation(5L, sabihaGokcen, heathrowAirport);
+
+    // when
+    routeGraph.onTransportationChanged(TransportationChangedEvent.saved(toSabihaGokcen));
+    List<List<Long>> afterFirstLeg = search(routeGraph.current(), searches, Integer.MAX_VALUE);
+    routeGraph.onTransportationChanged(TransportationChangedEvent.saved(fromSabihaGokcen));
+    List<List<Long>> afterSecondLeg = search(routeGraph.current(), searches, Integer.MAX_VALUE);
+
+    // then
+    assertEquals(3, searches.get());
+    assertEquals(3, afterFirstLeg.size());
+    assertTrue(afterSecondLeg.contains(List.of(4L, 5L)));
+  }
+
+  @Test
+  void search_WhenSinkStoppedEarly_ShouldNotCachePartialResult() {
+    // given
+    RouteGraphSnapshot graph = RouteGraphSnapshot.compile(transportations, 1L);
+    AtomicInteger searches = new AtomicInteger();
+    search(graph, searches, 1);
+
+    // when
+    List<List<Long>> routes = search(graph, searches, Integer.MAX_VALUE);
+
+    // then
+    assertEquals(2, searches.get());
+    assertEquals(3, routes.size());
+  }
+
+  @Test
+  void search_WhenStreamed_ShouldNotFillCache() {
+    // given
+    RouteGraphSnapshot graph = RouteGraphSnapshot.compile(transportations, 1L);
+    AtomicInteger searches = new AtomicInteger();
+    List<List<Long>> streamed = search(graph, searches, 10_000);
+
+    // when
+    List<List<Long>> routes = search(graph, searches, Integer.MAX_VALUE);
+
+    // then
+    assertEquals(3, streamed.size());
+    assertEquals(2, searches.get());
+    assertEquals(streamed, routes);
+  }
+
+  // Without a limit the sink takes every route, as a page does; with one it can stop, as a stream
+  private List<List<Long>> search(RouteGraphSnapshot graph, AtomicInteger searches, int limit) {
+    int from = graph.indexOf(1L);
+    int to = graph.indexOf(2L);
+    List<List<Long>> routes = new ArrayList<>();
+    routeCache.search(
+        graph,
+        from,
+        to,
+        new RouteSink() {
+          @Override
+          public boolean accept(int[] edges, int length) {
+            List<Long> route = new ArrayList<>(length);
+            for (int i = 0; i < length; i++) {
+              route.add(graph.transportation(edges[i]).getId());
+            }
+            routes.add(route);
+            return routes.size() < limit;
+          }
+
+          @Override
+          public boolean isExhaustive() {
+            return limit == Integer.MAX_VALUE;
+          }
+        },
+        recorder -> {
+          searches.incrementAndGet();
+          depthFirst.search(graph, from, to, recorder);
+        });
+    return routes;
+  }
+}
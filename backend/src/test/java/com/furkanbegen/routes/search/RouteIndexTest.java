@@ -0,0 +1,156 @@
+package com.furkanbegen.routes.search;
+
+import static com.furkanbegen.routes.RouteFixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+import com.furkanbegen.routes.event.TransportationChangedEvent;
+import com.furkanbegen.routes.graph.RouteGraph;
+import com.furkanbegen.routes.graph.RouteGraphSnapshot;
+import com.furkanbegen.routes.model.Location;
+import com.furkanbegen.routes.model.Transportation;
+import com.furkanbegen.routes.model.TransportationType;
+import com.furkanbegen.routes.service.CacheableTransportationService;
+import com.furkanbegen.routes.validator.RouteValidator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class RouteIndexTest {
+
+  @Mock private CacheableTransportationService cacheableTransportationService;
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final DepthFirstRouteSearchEngine depthFirst =
+      new DepthFirstRouteSearchEngine(new RouteValidator());
+
+  private RouteGraph routeGraph;
+  private RouteIndex routeIndex;
+
+  @BeforeEach
+  void setUp() {
+    routeGraph = new RouteGraph(cacheableTransportationService);
+    routeIndex = new RouteIndex(routeGraph, meterRegistry, false);
+    routeIndex.bindTo(meterRegistry);
+  }
+
+  @AfterEach
+  void tearDown() {
+    routeIndex.shutdown();
+  }
+
+  @Test
+  void lookup_WhenBuilt_ShouldMatchLiveSearchForEveryPair() {
+    // given
+    Random random = new Random(7);
+    int locationCount = 12;
+    when(cacheableTransportationService.findAll())
+        .thenReturn(randomTransportations(random, locationCount, 80));
+    routeIndex.rebuild();
+    RouteGraphSnapshot graph = routeGraph.current();
+
+    for (long from = 1; from <= locationCount; from++) {
+      for (long to = 1; to <= locationCount; to++) {
+        int fromIndex = graph.indexOf(from);
+        int toIndex = graph.indexOf(to);
+        if (fromIndex < 0 || toIndex < 0) {
+          continue;
+        }
+
+        // when
+        Set<List<Long>> indexed = new HashSet<>();
+        boolean answered = routeIndex.lookup(graph, fromIndex, toIndex, collect(graph, indexed));
+        Set<List<Long>> live = new HashSet<>();
+        depthFirst.search(graph, fromIndex, toIndex, collect(graph, live));
+
+        // then
+        assertTrue(answered);
+        assertEquals(live, indexed, from + " -> " + to);
+      }
+    }
+  }
+
+  @Test
+  void lookup_WhenGraphChangedSinceBuild_ShouldFallBack() {
+    // given
+    var istanbulAirport = createLocation(1L);
+    var heathrowAirport = createLocation(2L);
+    var flight = createTransportation(1L, istanbulAirport, heathrowAirport);
+    when(cacheableTransportationService.findAll()).thenReturn(List.of(flight));
+    routeIndex.rebuild();
+    routeGraph.onTransportationChanged(
+        TransportationChangedEvent.saved(
+            createTransportation(2L, heathrowAirport, istanbulAirport)));
+    RouteGraphSnapshot graph = routeGraph.current();
+
+    // when
+    boolean answered =
+        routeIndex.lookup(graph, graph.indexOf(1L), graph.indexOf(2L), (edges, length) -> true);
+
+    // then
+    assertFalse(answered);
+  }
+
+  @Test
+  void rebuild_WhenBuilt_ShouldRecordBuildTimeAndSize() {
+    // given
+    var taksimSquare = createLocation(1L);
+    var istanbulAirport = createLocation(2L);
+    var heathrowAirport = createLocation(3L);
+    var bus = createTransportation(1L, taksimSquare, istanbulAirport);
+    bus.setType(TransportationType.OTHER);
+    var flight = createTransportation(2L, istanbulAirport, heathrowAirport);
+    when(cacheableTransportationService.findAll()).thenReturn(List.of(bus, flight));
+
+    // when
+    routeIndex.rebuild();
+
+    // then
+    assertEquals(1, meterRegistry.get("routes.index.build").timer().count());
+    assertEquals(2, meterRegistry.get("routes.index.pairs").gauge().value());
+    assertEquals(2, meterRegistry.get("routes.index.routes").gauge().value());
+  }
+
+  private RouteSink collect(RouteGraphSnapshot graph, Set<List<Long>> routes) {
+    return (edges, length) -> {
+      List<Long> route = new ArrayList<>(length);
+      for (int i = 0; i < length; i++) {
+        route.add(graph.transportation(edges[i]).getId());
+      }
+      assertTrue(routes.add(route), "duplicate route " + route);
+      return true;
+    };
+  }
+
+  private List<Transportation> randomTransportations(
+      Random random, int locationCount, int transportationCount) {
+    List<Location> locations = new ArrayList<>();
+    for (long id = 1; id <= locationCount; id++) {
+      locations.add(createLocation(id));
+    }
+
+    List<Transportation> transportations = new ArrayList<>();
+    for (long id = 1; id <= transportationCount; id++) {
+      var transportation =
+          createTransportation(
+              id,
+              locations.get(random.nextInt(locationCount)),
+              locations.get(random.nextInt(locationCount)));
+      if (random.nextInt(3) != 0) {
+        transportation.setType(TransportationType.OTHER);
+      }
+      transportations.add(transportation);
+    }
+    return transportations;
+  }
+}
@@ -0,0 +1,126 @@
+package com.furkanbegen.routes.search;
+
+import static com.furkanbegen.routes.RouteFixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.furkanbegen.routes.exception.InvalidRequestException;
+import com.furkanbegen.routes.graph.RouteGraphSnapshot;
+import com.furkanbegen.routes.model.Transportation;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+class TopRoutesTest {
+
+  private RouteGraphSnapshot graph;
+
+  @BeforeEach
+  void setUp() {
+    var origin = createLocation(1L);
+    var destination = createLocation(2L);
+    // Edge i costs prices[i] and takes durations[i]
+    double[] prices = {300, 100, 200, 100, 50};
+    double[] durations = {60, 240, 120, 90, 30};
+    List<Transportation> transportations = new ArrayList<>();
+    for (int i = 0; i < prices.length; i++) {
+      transportations.add(
+          createTransportation((long) i + 1, origin, destination, prices[i], durations[i]));
+    }
+    graph = RouteGraphSnapshot.compile(transportations, 1L);
+  }
+
+  @Test
+  void drain_WhenSortedByTotalPrice_ShouldReturnCheapestFirstWithDiscoveryOrderOnTies() {
+    // given
+    var topRoutes = new TopRoutes(graph, Sort.by(TopRoutes.TOTAL_PRICE), 10);
+    feed(topRoutes, new int[] {0}, new int[] {1}, new int[] {2}, new int[] {3});
+
+    // when
+    int[][] page = topRoutes.drain(0);
+
+    // then
+    assertArrayEquals(new int[][] {{1}, {3}, {2}, {0}}, page);
+    assertEquals(4, topRoutes.total());
+  }
+
+  @Test
+  void drain_WhenLimitedAndOffset_ShouldKeepOnlyTheRequestedPage() {
+    // given
+    var topRoutes = new TopRoutes(graph, Sort.by(Sort.Order.desc(TopRoutes.TOTAL_DURATION)), 3);
+    feed(topRoutes, new int[] {0}, new int[] {1}, new int[] {2}, new int[] {3}, new int[] {4});
+
+    // when
+    int[][] page = topRoutes.drain(1);
+
+    // then
+    assertArrayEquals(new int[][] {{2}, {3}}, page);
+    assertEquals(5, topRoutes.total());
+  }
+
+  @Test
+  void drain_WhenSortedByLegCountThenPrice_ShouldApplyOrdersInTurn() {
+    // given
+    var topRoutes = new TopRoutes(graph, Sort.by(TopRoutes.LEG_COUNT, TopRoutes.TOTAL_PRICE), 10);
+    feed(topRoutes, new int[] {0, 4}, new int[] {2}, new int[] {4, 1}, new int[] {0});
+
+    // when
+    int[][] page = topRoutes.drain(0);
+
+    // then
+    assertArrayEquals(new int[][] {{2}, {0}, {4, 1}, {0, 4}}, page);
+  }
+
+  @Test
+  void drain_WhenUnsorted_ShouldKeepDiscoveryOrder() {
+    // given
+    var topRoutes = new TopRoutes(graph, Sort.unsorted(), 2);
+    feed(topRoutes, new int[] {3}, new int[] {1}, new int[] {0});
+
+    // when
+    int[][] page = topRoutes.drain(0);
+
+    // then
+    assertArrayEquals(new int[][] {{3}, {1}}, page);
+  }
+
+  @Test
+  void after_WhenKeyGiven_ShouldKeepFollowingRoutesInTransportationIdOrder() {
+    // given
+    var topRoutes = TopRoutes.after(graph, new long[] {2L}, 2);
+    feed(
+        topRoutes,
+        new int[] {4},
+        new int[] {0},
+        new int[] {1, 0},
+        new int[] {2},
+        new int[] {1},
+        new int[] {3});
+
+    // when
+    int[][] page = topRoutes.drain(0);
+
+    // then
+    assertArrayEquals(new int[][] {{1, 0}, {2}}, page);
+    assertArrayEquals(new long[] {3L}, topRoutes.idsOf(page[1]));
+    // Only the four routes after the key are counted
+    assertEquals(4, topRoutes.total());
+  }
+
+  @Test
+  void constructor_WhenUnknownSortProperty_ShouldThrowInvalidRequestException() {
+    assertThrows(InvalidRequestException.class, () -> new TopRoutes(graph, Sort.by("name"), 10));
+  }
+
+  private void feed(TopRoutes topRoutes, int[]... routes) {
+    int[] buffer = new int[3];
+    for (int[] route : routes) {
+      // The sink must copy the reused buffer
+      Arrays.fill(buffer, -1);
+      System.arraycopy(route, 0, buffer, 0, route.length);
+      topRoutes.accept(buffer, route.length);
+    }
+  }
+}
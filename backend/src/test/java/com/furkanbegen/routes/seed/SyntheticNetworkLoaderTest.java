@@ -0,0 +1,78 @@
+package com.furkanbegen.routes.seed;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import com.furkanbegen.routes.model.Location;
+import com.furkanbegen.routes.repository.LocationRepository;
+import com.furkanbegen.routes.repository.TransportationRepository;
+import com.furkanbegen.routes.service.CacheableTransportationService;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+@DataJpaTest(
+    properties = {
+      "spring.jpa.show-sql=false",
+      "seed.network.enabled=true",
+      "seed.network.locations=500",
+      "seed.network.cities=50",
+      "seed.network.hubs=3"
+    })
+@AutoConfigureEmbeddedDatabase(provider = AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY)
+@Import(SyntheticNetworkLoader.class)
+class SyntheticNetworkLoaderTest {
+
+  @Autowired private SyntheticNetworkLoader loader;
+  @Autowired private LocationRepository locationRepository;
+  @Autowired private TransportationRepository transportationRepository;
+  @MockBean private CacheableTransportationService cacheableTransportationService;
+
+  // The loader runs once when the test context starts, on an empty database
+
+  @Test
+  void run_OnStartup_ShouldLoadGeneratedNetworkWithItsIds() {
+    // given
+    SyntheticNetwork expected =
+        SyntheticNetwork.generate(42, new SyntheticNetwork.Shape(500, 50, 3, 5, 0.5, 2));
+
+    // when
+    Location location = locationRepository.findById(123L).orElseThrow();
+
+    // then
+    assertEquals(500, locationRepository.count());
+    assertEquals(expected.transportations().size(), transportationRepository.count());
+    assertEquals(expected.locations().get(122).getName(), location.getName());
+  }
+
+  @Test
+  void run_WhenLoaded_ShouldContinueIdsAfterGeneratedOnes() {
+    // given
+    var location = new Location();
+    location.setName("Added Later");
+
+    // when
+    Location saved = locationRepository.saveAndFlush(location);
+
+    // then
+    assertEquals(501L, saved.getId());
+  }
+
+  @Test
+  void run_WhenLocationsExist_ShouldNotLoadAgain() {
+    // given
+    long transportations = transportationRepository.count();
+
+    // when
+    loader.run();
+
+    // then
+    assertEquals(500, locationRepository.count());
+    assertEquals(transportations, transportationRepository.count());
+    verify(cacheableTransportationService, never()).evictAll();
+  }
+}
@@ -0,0 +1,122 @@
+package com.furkanbegen.routes.seed;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.furkanbegen.routes.graph.RouteGraphSnapshot;
+import com.furkanbegen.routes.model.Location;
+import com.furkanbegen.routes.model.Transportation;
+import com.furkanbegen.routes.model.TransportationType;
+import com.furkanbegen.routes.search.DepthFirstRouteSearchEngine;
+import com.furkanbegen.routes.validator.RouteValidator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class SyntheticNetworkTest {
+
+  private final SyntheticNetwork.Shape shape = new SyntheticNetwork.Shape(2000, 200, 5, 6, 0.5, 2);
+
+  @Test
+  void generate_WhenSameSeed_ShouldProduceSameNetwork() {
+    // when
+    SyntheticNetwork first = SyntheticNetwork.generate(42, shape);
+    SyntheticNetwork second = SyntheticNetwork.generate(42, shape);
+    SyntheticNetwork other = SyntheticNetwork.generate(43, shape);
+
+    // then
+    assertEquals(describe(first), describe(second));
+    assertNotEquals(describe(first), describe(other));
+  }
+
+  @Test
+  void generate_ShouldGiveUniqueNamesAndSequentialIds() {
+    // when
+    SyntheticNetwork network = SyntheticNetwork.generate(42, shape);
+
+    // then
+    List<Location> locations = network.locations();
+    assertEquals(2000, locations.size());
+    assertEquals(2000, locations.stream().map(Location::getName).distinct().count());
+    for (int i = 0; i < locations.size(); i++) {
+      assertEquals(i + 1L, locations.get(i).getId());
+    }
+    List<Transportation> transportations = network.transportations();
+    for (int i = 0; i < transportations.size(); i++) {
+      assertEquals(i + 1L, transportations.get(i).getId());
+    }
+  }
+
+  @Test
+  void generate_ShouldFlyBetweenAirportsAndKeepGroundLegsWithinCities() {
+    // when
+    SyntheticNetwork network = SyntheticNetwork.generate(42, shape);
+
+    // then
+    int[] departures = new int[shape.cities()];
+    for (Transportation transportation : network.transportations()) {
+      long from = transportation.getFromLocation().getId() - 1;
+      long to = transportation.getToLocation().getId() - 1;
+      assertNotEquals(from, to);
+      if (transportation.getType() == TransportationType.FLIGHT) {
+        assertTrue(from < shape.cities() && to < shape.cities());
+        assertTrue(transportation.getFromLocation().getName().endsWith(" Airport"));
+        departures[(int) from]++;
+      } else {
+        assertEquals(from % shape.cities(), to % shape.cities());
+      }
+    }
+
+    // Hubs take half of all flights between five of them
+    double hubAverage = 0;
+    for (int hub = 0; hub < shape.hubs(); hub++) {
+      hubAverage += departures[hub] / (double) shape.hubs();
+    }
+    assertTrue(hubAverage > 5 * shape.flightsPerAirport(), "hub average " + hubAverage);
+  }
+
+  @Test
+  void connectedPair_ShouldHaveRouteBetweenLocations() {
+    // given
+    SyntheticNetwork network = SyntheticNetwork.generate(42, shape);
+    RouteGraphSnapshot graph = RouteGraphSnapshot.compile(network.transportations(), 1L);
+    DepthFirstRouteSearchEngine engine = new DepthFirstRouteSearchEngine(new RouteValidator());
+    Random random = new Random(7);
+
+    for (int i = 0; i < 100; i++) {
+      // when
+      long[] pair = network.connectedPair(random);
+      AtomicInteger routes = new AtomicInteger();
+      engine.search(
+          graph,
+          graph.indexOf(pair[0]),
+          graph.indexOf(pair[1]),
+          (edges, length) -> routes.incrementAndGet() < 1);
+
+      // then
+      assertEquals(1, routes.get(), () -> "no route from " + pair[0] + " to " + pair[1]);
+    }
+  }
+
+  @Test
+  void shape_WhenHubsExceedCities_ShouldThrow() {
+    // when & then
+    assertThrows(
+        IllegalArgumentException.class, () -> new SyntheticNetwork.Shape(100, 10, 11, 5, 0.5, 2));
+  }
+
+  private static String describe(SyntheticNetwork network) {
+    var description = new StringBuilder();
+    for (Location location : network.locations()) {
+      description.append(location.getName()).append(location.getLatitude()).append('\n');
+    }
+    for (Transportation transportation : network.transportations()) {
+      description
+          .append(transportation.getFromLocation().getId())
+          .append(transportation.getToLocation().getId())
+          .append(transportation.getPrice())
+          .append('\n');
+    }
+    return description.toString();
+  }
+}
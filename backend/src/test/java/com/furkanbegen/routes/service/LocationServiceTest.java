@@ -2,29 +2,45 @@ package com.furkanbegen.routes.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.furkanbegen.routes.dto.CursorPage;
 import com.furkanbegen.routes.dto.LocationDTO;
+import com.furkanbegen.routes.event.LocationChangedEvent;
+import com.furkanbegen.routes.exception.InvalidRequestException;
 import com.furkanbegen.routes.exception.ResourceNotFoundException;
+import com.furkanbegen.routes.exception.ServiceUnavailableException;
+import com.furkanbegen.routes.location.LocationIndex;
+import com.furkanbegen.routes.mapper.CursorCodec;
 import com.furkanbegen.routes.mapper.LocationMapper;
 import com.furkanbegen.routes.model.Location;
 import com.furkanbegen.routes.repository.LocationRepository;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
 @ExtendWith(MockitoExtension.class)
 public class LocationServiceTest {
@@ -36,6 +52,12 @@ public class LocationServiceTest {
 
   @Mock private LocationMapper locationMapper;
 
+  @Mock private LocationIndex locationIndex;
+
+  @Mock private CacheableTransportationService cacheableTransportationService;
+
+  @Mock private ApplicationEventPublisher eventPublisher;
+
   @InjectMocks private LocationService locationService;
 
   @Test
@@ -78,6 +100,52 @@ public class LocationServiceTest {
     verify(locationMapper, times(2)).toDTO(any(Location.class));
   }
 
+  @Test
+  void getLocationsAfter_WhenMoreLocationsFollow_ShouldReturnSliceWithNextCursor() {
+    // given
+    Location location1 = new Location();
+    location1.setId(3L);
+    location1.setName(ISTANBUL);
+
+    Location location2 = new Location();
+    location2.setId(5L);
+    location2.setName(LONDON);
+
+    LocationDTO locationDTO1 = new LocationDTO();
+    locationDTO1.setId(3L);
+    locationDTO1.setName(ISTANBUL);
+
+    when(locationRepository.findByIdGreaterThanOrderByIdAsc(2L, Limit.of(2)))
+        .thenReturn(List.of(location1, location2));
+    when(locationMapper.toDTO(location1)).thenReturn(locationDTO1);
+
+    // when
+    CursorPage<LocationDTO> result = locationService.getLocationsAfter(CursorCodec.encode(2L), 1);
+
+    // then
+    assertEquals(List.of(locationDTO1), result.getContent());
+    assertEquals(3L, CursorCodec.decodeId(result.getNextCursor()));
+    verify(locationMapper, never()).toDTO(location2);
+  }
+
+  @Test
+  void getLocationsAfter_WhenLastSlice_ShouldReturnNoCursor() {
+    // given
+    Location location = new Location();
+    location.setId(1L);
+    location.setName(ISTANBUL);
+
+    when(locationRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(11)))
+        .thenReturn(List.of(location));
+
+    // when
+    CursorPage<LocationDTO> result = locationService.getLocationsAfter("", 10);
+
+    // then
+    assertEquals(1, result.getContent().size());
+    assertNull(result.getNextCursor());
+  }
+
   @Test
   void getLocationById_WhenLocationExists_ShouldReturnLocationDTO() {
     // given
@@ -155,6 +223,7 @@ public class LocationServiceTest {
     verify(locationMapper).toEntity(inputDTO);
     verify(locationRepository).save(locationToSave);
     verify(locationMapper).toDTO(savedLocation);
+    verify(eventPublisher).publishEvent(new LocationChangedEvent(1L));
   }
 
   @Test
@@ -206,6 +275,8 @@ public class LocationServiceTest {
     verify(locationMapper).toEntity(updateDTO, existingLocation);
     verify(locationRepository).save(locationToUpdate);
     verify(locationMapper).toDTO(updatedLocation);
+    verify(cacheableTransportationService).evictAll();
+    verify(eventPublisher).publishEvent(new LocationChangedEvent(locationId));
   }
 
   @Test
@@ -239,6 +310,8 @@ public class LocationServiceTest {
     // then
     verify(locationRepository).findById(locationId);
     verify(locationRepository).delete(location);
+    verify(cacheableTransportationService).evictAll();
+    verify(eventPublisher).publishEvent(new LocationChangedEvent(locationId));
   }
 
   @Test
@@ -252,4 +325,179 @@ public class LocationServiceTest {
     verify(locationRepository).findById(locationId);
     verify(locationRepository, never()).delete(any());
   }
+
+  @Test
+  void searchLocations_WhenIndexWarm_ShouldNotQueryDatabase() {
+    // given
+    Location location = new Location();
+    location.setId(1L);
+    location.setName(LONDON);
+    LocationDTO locationDTO = new LocationDTO();
+    locationDTO.setId(1L);
+    locationDTO.setName(LONDON);
+    Pageable pageable = PageRequest.of(0, 10);
+
+    when(locationIndex.searchByName("lond", pageable))
+        .thenReturn(Optional.of(new PageImpl<>(List.of(location), pageable, 1)));
+    when(locationMapper.toDTO(location)).thenReturn(locationDTO);
+
+    // when
+    Page<LocationDTO> result = locationService.searchLocations("lond", pageable);
+
+    // then
+    assertEquals(List.of(locationDTO), result.getContent());
+    verify(locationRepository, never()).searchByNameContainingIgnoreCase(any(), any());
+  }
+
+  @Test
+  void searchLocations_WhenIndexCold_ShouldFallBackToDatabase() {
+    // given
+    Pageable pageable = PageRequest.of(0, 10);
+    when(locationIndex.searchByName("lond", pageable)).thenReturn(Optional.empty());
+    when(locationRepository.searchByNameContainingIgnoreCase("lond", pageable))
+        .thenReturn(Page.empty(pageable));
+
+    // when
+    Page<LocationDTO> result = locationService.searchLocations("lond", pageable);
+
+    // then
+    assertEquals(0, result.getTotalElements());
+    verify(locationRepository).searchByNameContainingIgnoreCase("lond", pageable);
+  }
+
+  @Test
+  void searchLocations_WhenSorted_ShouldQueryDatabase() {
+    // given
+    Pageable pageable = PageRequest.of(0, 10, Sort.by("name"));
+    when(locationRepository.searchByNameContainingIgnoreCase("lond", pageable))
+        .thenReturn(Page.empty(pageable));
+
+    // when
+    locationService.searchLocations("lond", pageable);
+
+    // then
+    verify(locationIndex, never()).searchByName(any(), any());
+    verify(locationRepository).searchByNameContainingIgnoreCase("lond", pageable);
+  }
+
+  @Test
+  void findNearbyLocations_WhenIndexWarm_ShouldReturnIndexedLocations() {
+    // given
+    Location location = new Location();
+    location.setId(1L);
+    location.setName(ISTANBUL);
+    LocationDTO locationDTO = new LocationDTO();
+    locationDTO.setId(1L);
+    locationDTO.setName(ISTANBUL);
+
+    when(locationIndex.findNearby(41.0, 29.0, 50, 10)).thenReturn(Optional.of(List.of(location)));
+    when(locationMapper.toDTO(location)).thenReturn(locationDTO);
+
+    // when
+    List<LocationDTO> result = locationService.findNearbyLocations(41.0, 29.0, 50, 10);
+
+    // then
+    assertEquals(List.of(locationDTO), result);
+    verify(locationRepository, never())
+        .findByLatitudeBetweenAndLongitudeBetween(
+            anyDouble(), anyDouble(), anyDouble(), anyDouble(), any(Limit.class));
+  }
+
+  @Test
+  void findNearbyLocations_WhenIndexCold_ShouldFilterBoundingBoxByDistance() {
+    // given
+    Location istanbul = new Location();
+    istanbul.setName(ISTANBUL);
+    istanbul.setLatitude(41.0082);
+    istanbul.setLongitude(28.9784);
+    Location sameLatitudeFarAway = new Location();
+    sameLatitudeFarAway.setName("Madrid");
+    sameLatitudeFarAway.setLatitude(40.4168);
+    sameLatitudeFarAway.setLongitude(-3.7038);
+    LocationDTO istanbulDTO = new LocationDTO();
+    istanbulDTO.setName(ISTANBUL);
+
+    when(locationIndex.findNearby(41.0, 29.0, 50, 10)).thenReturn(Optional.empty());
+    when(locationRepository.findByLatitudeBetweenAndLongitudeBetween(
+            anyDouble(), anyDouble(), anyDouble(), anyDouble(), any(Limit.class)))
+        .thenReturn(List.of(sameLatitudeFarAway, istanbul));
+    when(locationMapper.toDTO(istanbul)).thenReturn(istanbulDTO);
+
+    // when
+    List<LocationDTO> result = locationService.findNearbyLocations(41.0, 29.0, 50, 10);
+
+    // then
+    assertEquals(List.of(istanbulDTO), result);
+    ArgumentCaptor<Double> minLongitude = ArgumentCaptor.forClass(Double.class);
+    ArgumentCaptor<Double> maxLongitude = ArgumentCaptor.forClass(Double.class);
+    verify(locationRepository)
+        .findByLatitudeBetweenAndLongitudeBetween(
+            anyDouble(),
+            anyDouble(),
+            minLongitude.capture(),
+            maxLongitude.capture(),
+            eq(Limit.of(LocationService.MAX_COLD_NEARBY_ROWS + 1)));
+    assertEquals(28.4, minLongitude.getValue(), 0.05);
+    assertEquals(29.6, maxLongitude.getValue(), 0.05);
+  }
+
+  @Test
+  void findNearbyLocations_WhenIndexColdAcrossAntimeridian_ShouldBoundLatitudeOnly() {
+    // given
+    Location fiji = new Location();
+    fiji.setName("Suva");
+    fiji.setLatitude(-18.1);
+    fiji.setLongitude(178.4);
+    Location samoa = new Location();
+    samoa.setName("Apia");
+    samoa.setLatitude(-13.8);
+    samoa.setLongitude(-171.8);
+    LocationDTO fijiDTO = new LocationDTO();
+    fijiDTO.setName("Suva");
+
+    when(locationIndex.findNearby(-18.0, 179.9, 200, 10)).thenReturn(Optional.empty());
+    when(locationRepository.findByLatitudeBetween(anyDouble(), anyDouble(), any(Limit.class)))
+        .thenReturn(List.of(samoa, fiji));
+    when(locationMapper.toDTO(fiji)).thenReturn(fijiDTO);
+
+    // when
+    List<LocationDTO> result = locationService.findNearbyLocations(-18.0, 179.9, 200, 10);
+
+    // then
+    assertEquals(List.of(fijiDTO), result);
+    verify(locationRepository, never())
+        .findByLatitudeBetweenAndLongitudeBetween(
+            anyDouble(), anyDouble(), anyDouble(), anyDouble(), any(Limit.class));
+  }
+
+  @Test
+  void findNearbyLocations_WhenIndexColdAndTooManyRows_ShouldThrowServiceUnavailableException() {
+    // given
+    Location location = new Location();
+    location.setLatitude(41.0);
+    location.setLongitude(29.0);
+    when(locationIndex.findNearby(41.0, 29.0, 500, 10)).thenReturn(Optional.empty());
+    when(locationRepository.findByLatitudeBetweenAndLongitudeBetween(
+            anyDouble(), anyDouble(), anyDouble(), anyDouble(), any(Limit.class)))
+        .thenReturn(Collections.nCopies(LocationService.MAX_COLD_NEARBY_ROWS + 1, location));
+
+    // when & then
+    ServiceUnavailableException exception =
+        assertThrows(
+            ServiceUnavailableException.class,
+            () -> locationService.findNearbyLocations(41.0, 29.0, 500, 10));
+    assertTrue(exception.getRetryAfter().isPositive());
+  }
+
+  @Test
+  void findNearbyLocations_WhenParametersOutOfRange_ShouldThrowInvalidRequestException() {
+    // when & then
+    assertThrows(
+        InvalidRequestException.class, () -> locationService.findNearbyLocations(91, 0, 50, 10));
+    assertThrows(
+        InvalidRequestException.class, () -> locationService.findNearbyLocations(0, 0, 0, 10));
+    assertThrows(
+        InvalidRequestException.class, () -> locationService.findNearbyLocations(0, 0, 50, 0));
+    verify(locationIndex, never()).findNearby(anyDouble(), anyDouble(), anyDouble(), anyInt());
+  }
 }
@@ -0,0 +1,135 @@
+package com.furkanbegen.routes.service;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import ch.qos.logback.classic.Level;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.furkanbegen.routes.dto.RouteDTO;
+import com.furkanbegen.routes.graph.RouteGraph;
+import com.furkanbegen.routes.mapper.LocationMapper;
+import com.furkanbegen.routes.mapper.RouteMapper;
+import com.furkanbegen.routes.mapper.TransportationMapper;
+import com.furkanbegen.routes.model.Location;
+import com.furkanbegen.routes.repository.LocationRepository;
+import com.furkanbegen.routes.search.DepthFirstRouteSearchEngine;
+import com.furkanbegen.routes.search.RouteSearchMetrics;
+import com.furkanbegen.routes.seed.SyntheticNetwork;
+import com.furkanbegen.routes.validator.RouteValidator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+/**
+ * One page of routes between random connected location pairs of a synthetic network, through the
+ * default depth-first engine without route index or cache, so every call searches. Locations come
+ * from an in-memory repository stub. Run with {@code mvn -Pbenchmark test
+ * -Dbenchmark=RouteService}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RouteServiceBenchmark {
+
+  private static final Pageable FIRST_PAGE = PageRequest.of(0, 20);
+  private static final Pageable CHEAPEST_FIRST =
+      PageRequest.of(0, 20, Sort.by("totalPrice", "totalDuration"));
+
+  @Param({"100", "1000", "10000", "100000"})
+  private int locationCount;
+
+  @Param({"5"})
+  private double flightsPerAirport;
+
+  @Param({"2"})
+  private double groundLegsPerLocation;
+
+  private RouteService routeService;
+  private long[][] pairs;
+  private int next;
+
+  @Setup
+  public void setUp() {
+    // Every search logs at INFO; keep console output out of the measurement
+    ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME))
+        .setLevel(Level.WARN);
+
+    var network =
+        SyntheticNetwork.generate(
+            42, SyntheticNetwork.Shape.of(locationCount, flightsPerAirport, groundLegsPerLocation));
+    List<Location> locations = network.locations();
+
+    var cacheableTransportationService =
+        mock(CacheableTransportationService.class, withSettings().stubOnly());
+    when(cacheableTransportationService.findAll()).thenReturn(network.transportations());
+    LocationRepository locationRepository = locationRepository(locations);
+
+    var metrics = new RouteSearchMetrics(new SimpleMeterRegistry());
+    routeService =
+        new RouteService(
+            new RouteGraph(cacheableTransportationService),
+            locationRepository,
+            new RouteMapper(new TransportationMapper(locationRepository, new LocationMapper())),
+            new DepthFirstRouteSearchEngine(new RouteValidator(), 0, metrics),
+            Optional.empty(),
+            Optional.empty(),
+            new ObjectMapper(),
+            metrics);
+
+    Random random = new Random(7);
+    pairs = new long[1024][];
+    for (int i = 0; i < pairs.length; i++) {
+      pairs[i] = network.connectedPair(random);
+    }
+  }
+
+  @Benchmark
+  public Page<RouteDTO> findRoutes() {
+    long[] pair = nextPair();
+    return routeService.findRoutes(pair[0], pair[1], FIRST_PAGE);
+  }
+
+  @Benchmark
+  public Page<RouteDTO> findRoutesCheapestFirst() {
+    long[] pair = nextPair();
+    return routeService.findRoutes(pair[0], pair[1], CHEAPEST_FIRST);
+  }
+
+  private long[] nextPair() {
+    return pairs[next++ & (pairs.length - 1)];
+  }
+
+  // Ids are 1..n in list order
+  private static LocationRepository locationRepository(List<Location> locations) {
+    LocationRepository repository = mock(LocationRepository.class, withSettings().stubOnly());
+    when(repository.findById(anyLong()))
+        .thenAnswer(
+            invocation ->
+                Optional.of(locations.get((int) (long) invocation.<Long>getArgument(0) - 1)));
+    return repository;
+  }
+}
@@ -2,26 +2,50 @@ package com.furkanbegen.routes.service;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyByte;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.furkanbegen.routes.cache.TwoLevelCacheManager;
 import com.furkanbegen.routes.dto.LocationDTO;
+import com.furkanbegen.routes.dto.RouteBatchResultDTO;
 import com.furkanbegen.routes.dto.RouteDTO;
+import com.furkanbegen.routes.dto.RoutePairDTO;
 import com.furkanbegen.routes.dto.TransportationDTO;
+import com.furkanbegen.routes.event.TransportationsInvalidatedEvent;
+import com.furkanbegen.routes.exception.InvalidRequestException;
+import com.furkanbegen.routes.exception.ResourceNotFoundException;
+import com.furkanbegen.routes.graph.RouteGraph;
 import com.furkanbegen.routes.mapper.RouteMapper;
 import com.furkanbegen.routes.model.Location;
 import com.furkanbegen.routes.model.Transportation;
 import com.furkanbegen.routes.model.TransportationType;
 import com.furkanbegen.routes.repository.LocationRepository;
+import com.furkanbegen.routes.search.DepthFirstRouteSearchEngine;
+import com.furkanbegen.routes.search.RouteCache;
+import com.furkanbegen.routes.search.RouteSearchMetrics;
 import com.furkanbegen.routes.validator.RouteValidator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 
@@ -40,7 +64,8 @@ class RouteServiceTest {
   @Mock private LocationRepository locationRepository;
   @Mock private RouteMapper routeMapper;
   @Mock private RouteValidator routeValidator;
-  @InjectMocks private RouteService routeService;
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private RouteService routeService;
 
   private Location taksimSquare;
   private Location istanbulAirport;
@@ -52,6 +77,18 @@ class RouteServiceTest {
 
   @BeforeEach
   void setUp() {
+    var routeSearchMetrics = new RouteSearchMetrics(meterRegistry);
+    routeService =
+        new RouteService(
+            new RouteGraph(cacheableTransportationService),
+            locationRepository,
+            routeMapper,
+            new DepthFirstRouteSearchEngine(routeValidator, 0, routeSearchMetrics),
+            Optional.empty(),
+            Optional.empty(),
+            new ObjectMapper(),
+            routeSearchMetrics);
+
     taksimSquare = new Location();
     taksimSquare.setId(1L);
     taksimSquare.setName(TAKSIM_SQUARE);
@@ -128,8 +165,8 @@ class RouteServiceTest {
 
     lenient().when(routeMapper.convertToRouteDTO(any())).thenReturn(mockRouteDTO);
 
-    when(routeValidator.isValidPath(any())).thenReturn(true);
-    when(routeValidator.isValidAddition(any(), any())).thenReturn(true);
+    when(routeValidator.isAccepting(anyInt())).thenReturn(true);
+    when(routeValidator.next(anyInt(), anyByte())).thenReturn(RouteValidator.START);
 
     // when
     Page<RouteDTO> routes = routeService.findRoutes(2L, 4L, PageRequest.of(0, 10));
@@ -210,8 +247,8 @@ class RouteServiceTest {
               return null;
             });
 
-    when(routeValidator.isValidPath(any())).thenReturn(true);
-    when(routeValidator.isValidAddition(any(), any())).thenReturn(true);
+    when(routeValidator.isAccepting(anyInt())).thenReturn(true);
+    when(routeValidator.next(anyInt(), anyByte())).thenReturn(RouteValidator.START);
 
     // when
     Page<RouteDTO> routes = routeService.findRoutes(2L, 4L, PageRequest.of(0, 10));
@@ -304,8 +341,8 @@ class RouteServiceTest {
     mockRouteDTO.setTransportations(List.of());
     lenient().when(routeMapper.convertToRouteDTO(any())).thenReturn(mockRouteDTO);
 
-    when(routeValidator.isValidPath(any())).thenReturn(true);
-    when(routeValidator.isValidAddition(any(), any())).thenReturn(true);
+    when(routeValidator.isAccepting(anyInt())).thenReturn(true);
+    when(routeValidator.next(anyInt(), anyByte())).thenReturn(RouteValidator.START);
 
     // when
     Page<RouteDTO> routes = routeService.findRoutes(5L, 7L, PageRequest.of(0, 10));
@@ -361,8 +398,8 @@ class RouteServiceTest {
     mockRouteDTO.setTransportations(List.of());
     lenient().when(routeMapper.convertToRouteDTO(any())).thenReturn(mockRouteDTO);
 
-    when(routeValidator.isValidPath(any())).thenReturn(true);
-    when(routeValidator.isValidAddition(any(), any())).thenReturn(true);
+    when(routeValidator.isAccepting(anyInt())).thenReturn(true);
+    when(routeValidator.next(anyInt(), anyByte())).thenReturn(RouteValidator.START);
 
     // when
     Page<RouteDTO> routes = routeService.findRoutes(5L, 7L, PageRequest.of(0, 10));
@@ -409,8 +446,8 @@ class RouteServiceTest {
 
     lenient().when(routeMapper.convertToRouteDTO(any())).thenReturn(mockRouteDTO);
 
-    when(routeValidator.isValidPath(any())).thenReturn(true);
-    when(routeValidator.isValidAddition(any(), any())).thenReturn(true);
+    when(routeValidator.isAccepting(anyInt())).thenReturn(true);
+    when(routeValidator.next(anyInt(), anyByte())).thenReturn(RouteValidator.START);
 
     // when
     Page<RouteDTO> routes = routeService.findRoutes(5L, 6L, PageRequest.of(0, 10));
@@ -453,7 +490,7 @@ class RouteServiceTest {
                 istanbulAirportToHeatrowAirport,
                 heatrowAirportToWembleyStadium));
 
-    when(routeValidator.isValidAddition(any(), any())).thenReturn(false);
+    when(routeValidator.next(anyInt(), anyByte())).thenReturn(RouteValidator.REJECT);
 
     // when
     Page<RouteDTO> routes = routeService.findRoutes(11L, 4L, PageRequest.of(0, 10));
@@ -482,8 +519,8 @@ class RouteServiceTest {
     when(cacheableTransportationService.findAll())
         .thenReturn(List.of(istanbulAirportToHeatrowAirport, istanbulToParis));
 
-    when(routeValidator.isValidPath(any())).thenReturn(false);
-    when(routeValidator.isValidAddition(any(), any())).thenReturn(true);
+    when(routeValidator.isAccepting(anyInt())).thenReturn(false);
+    when(routeValidator.next(anyInt(), anyByte())).thenReturn(RouteValidator.START);
 
     // when
     Page<RouteDTO> routes = routeService.findRoutes(2L, 11L, PageRequest.of(0, 10));
@@ -492,6 +529,235 @@ class RouteServiceTest {
     assertEquals(0, routes.getTotalElements());
   }
 
+  @Test
+  void findRoutesBatch_WhenValidPairs_ShouldSearchEveryPairOnOneGraph() {
+    // given
+    when(locationRepository.findAllById(any()))
+        .thenReturn(List.of(taksimSquare, istanbulAirport, wembleyStadium));
+    when(cacheableTransportationService.findAll())
+        .thenReturn(
+            List.of(
+                taksimSquareToIstanbulAirport,
+                istanbulAirportToHeatrowAirport,
+                heatrowAirportToWembleyStadium));
+    when(routeMapper.convertToRouteDTO(any())).thenReturn(new RouteDTO());
+    when(routeValidator.isAccepting(anyInt())).thenReturn(true);
+    when(routeValidator.next(anyInt(), anyByte())).thenReturn(RouteValidator.START);
+
+    List<RoutePairDTO> pairs =
+        List.of(
+            new RoutePairDTO(taksimSquare.getId(), wembleyStadium.getId()),
+            new RoutePairDTO(istanbulAirport.getId(), taksimSquare.getId()));
+
+    // when
+    List<RouteBatchResultDTO> results = routeService.findRoutesBatch(pairs, PageRequest.of(0, 10));
+
+    // then
+    assertEquals(2, results.size());
+    assertEquals(taksimSquare.getId(), results.get(0).getFromLocationId());
+    assertEquals(1, results.get(0).getRoutes().getTotalElements());
+    assertEquals(istanbulAirport.getId(), results.get(1).getFromLocationId());
+    assertEquals(0, results.get(1).getRoutes().getTotalElements());
+    verify(locationRepository, never()).findById(any());
+    verify(cacheableTransportationService, times(1)).findAll();
+  }
+
+  @Test
+  void findRoutesBatch_WhenLocationMissing_ShouldThrowResourceNotFoundException() {
+    // given
+    when(locationRepository.findAllById(any())).thenReturn(List.of(taksimSquare));
+    List<RoutePairDTO> pairs = List.of(new RoutePairDTO(taksimSquare.getId(), 99L));
+
+    // when & then
+    assertThrows(
+        ResourceNotFoundException.class,
+        () -> routeService.findRoutesBatch(pairs, PageRequest.of(0, 10)));
+  }
+
+  @Test
+  void findRoutes_WhenLocationSets_ShouldSearchAllCombinationsAtOnce() {
+    // given
+    when(locationRepository.findAllById(any()))
+        .thenReturn(List.of(taksimSquare, istanbulAirport, heatrowAirport, wembleyStadium));
+    when(cacheableTransportationService.findAll())
+        .thenReturn(
+            List.of(
+                taksimSquareToIstanbulAirport,
+                istanbulAirportToHeatrowAirport,
+                heatrowAirportToWembleyStadium));
+    when(routeMapper.convertToRouteDTO(any())).thenReturn(new RouteDTO());
+    when(routeValidator.isAccepting(anyInt())).thenReturn(true);
+    when(routeValidator.next(anyInt(), anyByte())).thenReturn(RouteValidator.START);
+
+    // when
+    Page<RouteDTO> routes =
+        routeService.findRoutes(
+            Set.of(taksimSquare.getId(), istanbulAirport.getId()),
+            Set.of(heatrowAirport.getId(), wembleyStadium.getId()),
+            PageRequest.of(0, 10));
+
+    // then
+    assertEquals(4, routes.getTotalElements());
+    verify(locationRepository, never()).findById(any());
+  }
+
+  @Test
+  void findRoutes_WhenLocationSetEmpty_ShouldThrowInvalidRequestException() {
+    assertThrows(
+        InvalidRequestException.class,
+        () -> routeService.findRoutes(Set.of(), Set.of(4L), PageRequest.of(0, 10)));
+  }
+
+  @Test
+  void streamRoutes_WhenRoutesFound_ShouldWriteOneJsonLinePerRouteUpToLimit() throws Exception {
+    // given
+    var trainToWembley = new Transportation();
+    trainToWembley.setId(6L);
+    trainToWembley.setFromLocation(heatrowAirport);
+    trainToWembley.setToLocation(wembleyStadium);
+    trainToWembley.setType(TransportationType.OTHER);
+    trainToWembley.setName("Train");
+
+    when(locationRepository.findById(3L)).thenReturn(Optional.of(istanbulAirport));
+    when(locationRepository.findById(4L)).thenReturn(Optional.of(wembleyStadium));
+    when(cacheableTransportationService.findAll())
+        .thenReturn(
+            List.of(
+                istanbulAirportToHeatrowAirport, heatrowAirportToWembleyStadium, trainToWembley));
+    when(routeMapper.convertToRouteDTO(any()))
+        .thenAnswer(
+            invocation -> {
+              List<Transportation> route = invocation.getArgument(0);
+              var routeDTO = new RouteDTO();
+              routeDTO.setTotalPrice((double) route.get(route.size() - 1).getId());
+              return routeDTO;
+            });
+    when(routeValidator.isAccepting(anyInt())).thenReturn(true);
+    when(routeValidator.next(anyInt(), anyByte())).thenReturn(RouteValidator.START);
+
+    // when
+    var all = new ByteArrayOutputStream();
+    routeService.streamRoutes(3L, 4L, 10).writeTo(all);
+    var capped = new ByteArrayOutputStream();
+    routeService.streamRoutes(3L, 4L, 1).writeTo(capped);
+
+    // then
+    String[] lines = all.toString(StandardCharsets.UTF_8).split("\n");
+    assertEquals(2, lines.length);
+    assertEquals(3.0, new ObjectMapper().readValue(lines[0], RouteDTO.class).getTotalPrice());
+    assertEquals(6.0, new ObjectMapper().readValue(lines[1], RouteDTO.class).getTotalPrice());
+    assertEquals(lines[0] + "\n", capped.toString(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  void streamRoutes_WhenLimitOutOfRange_ShouldThrowInvalidRequestException() {
+    assertThrows(InvalidRequestException.class, () -> routeService.streamRoutes(2L, 4L, 0));
+    assertThrows(
+        InvalidRequestException.class,
+        () -> routeService.streamRoutes(2L, 4L, RouteService.MAX_STREAMED_ROUTES + 1));
+  }
+
+  @Test
+  void findRoutes_WhenSearched_ShouldRecordPhasesAndSearchWork() {
+    // given
+    var heatrowAirportToWembleyStadiumFlight = new Transportation();
+    heatrowAirportToWembleyStadiumFlight.setId(4L);
+    heatrowAirportToWembleyStadiumFlight.setFromLocation(heatrowAirport);
+    heatrowAirportToWembleyStadiumFlight.setToLocation(wembleyStadium);
+    heatrowAirportToWembleyStadiumFlight.setType(TransportationType.FLIGHT);
+    heatrowAirportToWembleyStadiumFlight.setPrice(90.0);
+    heatrowAirportToWembleyStadiumFlight.setDurationInMinutes(15.0);
+
+    when(locationRepository.findById(2L)).thenReturn(Optional.of(taksimSquare));
+    when(locationRepository.findById(4L)).thenReturn(Optional.of(wembleyStadium));
+    when(cacheableTransportationService.findAll())
+        .thenReturn(
+            List.of(
+                taksimSquareToIstanbulAirport,
+                istanbulAirportToHeatrowAirport,
+                heatrowAirportToWembleyStadium,
+                heatrowAirportToWembleyStadiumFlight));
+    when(routeMapper.convertToRouteDTO(any())).thenReturn(new RouteDTO());
+
+    // A second flight after Heathrow is the one leg the validator rejects
+    var validator = new RouteValidator();
+    when(routeValidator.isAccepting(anyInt()))
+        .thenAnswer(invocation -> validator.isAccepting(invocation.getArgument(0)));
+    when(routeValidator.next(anyInt(), anyByte()))
+        .thenAnswer(
+            invocation -> validator.next(invocation.getArgument(0), invocation.getArgument(1)));
+
+    // when
+    routeService.findRoutes(2L, 4L, PageRequest.of(0, 10));
+
+    // then
+    for (String phase : List.of("location-lookup", "graph", "traversal", "pagination", "mapping")) {
+      assertEquals(
+          1, meterRegistry.get("routes.search.phase").tag("phase", phase).timer().count(), phase);
+    }
+    assertEquals(3, meterRegistry.get("routes.search.nodes.expanded").counter().count());
+    assertEquals(1, meterRegistry.get("routes.search.edges.pruned").counter().count());
+    assertEquals(1, meterRegistry.get("routes.search.routes.found").counter().count());
+    assertEquals(1, meterRegistry.get("routes.search.results").summary().totalAmount());
+  }
+
+  @Test
+  void findRoutes_WhenTransportationAddedOnAnotherInstance_ShouldFindNewRoute() {
+    // given
+    List<Transportation> database =
+        new ArrayList<>(
+            List.of(
+                taksimSquareToIstanbulAirport,
+                istanbulAirportToHeatrowAirport,
+                heatrowAirportToWembleyStadium));
+    var remote = new ConcurrentMapCacheManager();
+    var routeGraph = new RouteGraph(cacheableTransportationService);
+    var cacheManager =
+        new TwoLevelCacheManager(
+            remote,
+            message -> {},
+            cacheName ->
+                routeGraph.onTransportationsInvalidated(new TransportationsInvalidatedEvent()),
+            10,
+            Duration.ofMinutes(1),
+            false,
+            meterRegistry);
+    Cache cache = cacheManager.getCache("transportations");
+    when(cacheableTransportationService.findAll())
+        .thenAnswer(invocation -> cache.get(SimpleKey.EMPTY, () -> List.copyOf(database)));
+    when(locationRepository.findById(2L)).thenReturn(Optional.of(taksimSquare));
+    when(locationRepository.findById(4L)).thenReturn(Optional.of(wembleyStadium));
+    when(routeMapper.convertToRouteDTO(any())).thenReturn(new RouteDTO());
+    var routeSearchMetrics = RouteSearchMetrics.disabled();
+    var cachingRouteService =
+        new RouteService(
+            routeGraph,
+            locationRepository,
+            routeMapper,
+            new DepthFirstRouteSearchEngine(new RouteValidator(), 0, routeSearchMetrics),
+            Optional.empty(),
+            Optional.of(new RouteCache(1_000, meterRegistry)),
+            new ObjectMapper(),
+            routeSearchMetrics);
+    Page<RouteDTO> before = cachingRouteService.findRoutes(2L, 4L, PageRequest.of(0, 10));
+
+    var trainToWembley = new Transportation();
+    trainToWembley.setId(6L);
+    trainToWembley.setFromLocation(heatrowAirport);
+    trainToWembley.setToLocation(wembleyStadium);
+    trainToWembley.setType(TransportationType.OTHER);
+
+    // when
+    database.add(trainToWembley);
+    remote.getCache("transportations").evict(SimpleKey.EMPTY);
+    cacheManager.onInvalidation("other-instance:transportations");
+    Page<RouteDTO> after = cachingRouteService.findRoutes(2L, 4L, PageRequest.of(0, 10));
+
+    // then
+    assertEquals(1, before.getTotalElements());
+    assertEquals(2, after.getTotalElements());
+  }
+
   private TransportationDTO createTransportationDTO(Transportation transportation) {
     var transportationDTO = new TransportationDTO();
     transportationDTO.setId(transportation.getId());
@@ -4,10 +4,14 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
+import com.furkanbegen.routes.dto.CursorPage;
 import com.furkanbegen.routes.dto.LocationDTO;
 import com.furkanbegen.routes.dto.TransportationDTO;
 import com.furkanbegen.routes.dto.TransportationRequestDTO;
+import com.furkanbegen.routes.event.TransportationChangedEvent;
+import com.furkanbegen.routes.exception.InvalidRequestException;
 import com.furkanbegen.routes.exception.ResourceNotFoundException;
+import com.furkanbegen.routes.mapper.CursorCodec;
 import com.furkanbegen.routes.mapper.TransportationMapper;
 import com.furkanbegen.routes.model.Location;
 import com.furkanbegen.routes.model.Transportation;
@@ -19,6 +23,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -29,6 +34,7 @@ class TransportationServiceTest {
 
   @Mock private CacheableTransportationService cacheableTransportationService;
   @Mock private TransportationMapper transportationMapper;
+  @Mock private ApplicationEventPublisher eventPublisher;
   @InjectMocks private TransportationService transportationService;
 
   @Test
@@ -214,6 +220,7 @@ class TransportationServiceTest {
     verify(transportationMapper).toEntity(requestDTO);
     verify(cacheableTransportationService).save(transportation);
     verify(transportationMapper).toDTO(transportation);
+    verify(eventPublisher).publishEvent(TransportationChangedEvent.saved(transportation));
   }
 
   @Test
@@ -288,6 +295,7 @@ class TransportationServiceTest {
     verify(transportationMapper).toEntity(requestDTO, existingTransportation);
     verify(cacheableTransportationService).update(updatedTransportation);
     verify(transportationMapper).toDTO(updatedTransportation);
+    verify(eventPublisher).publishEvent(TransportationChangedEvent.saved(updatedTransportation));
   }
 
   @Test
@@ -319,6 +327,7 @@ class TransportationServiceTest {
     // then
     verify(cacheableTransportationService).existsById(1L);
     verify(cacheableTransportationService).deleteById(1L);
+    verify(eventPublisher).publishEvent(TransportationChangedEvent.deleted(1L));
   }
 
   @Test
@@ -332,5 +341,36 @@ class TransportationServiceTest {
 
     verify(cacheableTransportationService).existsById(1L);
     verify(cacheableTransportationService, never()).deleteById(any());
+    verifyNoInteractions(eventPublisher);
+  }
+
+  @Test
+  void getTransportationsAfter_WhenMoreTransportationsFollow_ShouldReturnNextCursor() {
+    // given
+    Transportation first = new Transportation();
+    first.setId(7L);
+    Transportation second = new Transportation();
+    second.setId(9L);
+    TransportationDTO firstDTO = new TransportationDTO();
+    firstDTO.setId(7L);
+
+    when(cacheableTransportationService.findAfter(4L, 2)).thenReturn(List.of(first, second));
+    when(transportationMapper.toDTO(first)).thenReturn(firstDTO);
+
+    // when
+    CursorPage<TransportationDTO> result =
+        transportationService.getTransportationsAfter(CursorCodec.encode(4L), 1);
+
+    // then
+    assertEquals(List.of(firstDTO), result.getContent());
+    assertEquals(7L, CursorCodec.decodeId(result.getNextCursor()));
+  }
+
+  @Test
+  void getTransportationsAfter_WhenCursorIsMalformed_ShouldThrowInvalidRequestException() {
+    assertThrows(
+        InvalidRequestException.class,
+        () -> transportationService.getTransportationsAfter("not a cursor!", 10));
+    verify(cacheableTransportationService, never()).findAfter(any(), anyInt());
   }
 }
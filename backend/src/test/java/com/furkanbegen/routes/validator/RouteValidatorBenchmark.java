@@ -0,0 +1,75 @@
+package com.furkanbegen.routes.validator;
+
+import com.furkanbegen.routes.model.Transportation;
+import com.furkanbegen.routes.seed.SyntheticNetwork;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Validates random paths of up to {@link RouteValidator#MAX_TRANSPORTATIONS} legs drawn from a
+ * synthetic network. Run with {@code mvn -Pbenchmark test -Dbenchmark=RouteValidator}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RouteValidatorBenchmark {
+
+  @Param({"5"})
+  private double flightsPerAirport;
+
+  @Param({"2"})
+  private double groundLegsPerLocation;
+
+  private final RouteValidator routeValidator = new RouteValidator();
+
+  private Deque<Transportation>[] paths;
+  private Transportation[] additions;
+  private int next;
+
+  @Setup
+  @SuppressWarnings("unchecked")
+  public void setUp() {
+    List<Transportation> transportations =
+        SyntheticNetwork.generate(
+                42, SyntheticNetwork.Shape.of(1000, flightsPerAirport, groundLegsPerLocation))
+            .transportations();
+    Random random = new Random(7);
+    paths = new Deque[1024];
+    additions = new Transportation[paths.length];
+    for (int i = 0; i < paths.length; i++) {
+      paths[i] = new ArrayDeque<>();
+      for (int leg = random.nextInt(RouteValidator.MAX_TRANSPORTATIONS); leg >= 0; leg--) {
+        paths[i].addFirst(transportations.get(random.nextInt(transportations.size())));
+      }
+      additions[i] = transportations.get(random.nextInt(transportations.size()));
+    }
+  }
+
+  @Benchmark
+  public boolean isValidPath() {
+    return routeValidator.isValidPath(paths[next++ & (paths.length - 1)]);
+  }
+
+  @Benchmark
+  public boolean isValidAddition() {
+    int i = next++ & (paths.length - 1);
+    return routeValidator.isValidAddition(paths[i], additions[i]);
+  }
+}
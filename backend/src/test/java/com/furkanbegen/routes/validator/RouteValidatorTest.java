@@ -0,0 +1,103 @@
+package com.furkanbegen.routes.validator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.furkanbegen.routes.model.Transportation;
+import com.furkanbegen.routes.model.TransportationType;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import org.junit.jupiter.api.Test;
+
+class RouteValidatorTest {
+
+  private static final byte FLIGHT = (byte) TransportationType.FLIGHT.ordinal();
+  private static final byte OTHER = (byte) TransportationType.OTHER.ordinal();
+
+  private final RouteValidator routeValidator = new RouteValidator();
+
+  @Test
+  void isAccepting_WhenSingleFlight_ShouldReturnTrue() {
+    assertTrue(routeValidator.isAccepting(accept(FLIGHT)));
+  }
+
+  @Test
+  void isAccepting_WhenOtherAroundFlight_ShouldReturnTrue() {
+    assertTrue(routeValidator.isAccepting(accept(OTHER, FLIGHT)));
+    assertTrue(routeValidator.isAccepting(accept(FLIGHT, OTHER)));
+    assertTrue(routeValidator.isAccepting(accept(OTHER, FLIGHT, OTHER)));
+  }
+
+  @Test
+  void isAccepting_WhenNoFlight_ShouldReturnFalse() {
+    assertFalse(routeValidator.isAccepting(RouteValidator.START));
+    assertFalse(routeValidator.isAccepting(accept(OTHER)));
+    assertFalse(routeValidator.isAccepting(accept(OTHER, OTHER)));
+  }
+
+  @Test
+  void next_WhenSecondFlight_ShouldReject() {
+    int state = accept(OTHER, FLIGHT);
+
+    assertEquals(RouteValidator.REJECT, routeValidator.next(state, FLIGHT));
+  }
+
+  @Test
+  void next_WhenMaxTransportationsReached_ShouldReject() {
+    int state = accept(OTHER, FLIGHT, OTHER);
+
+    assertEquals(RouteValidator.REJECT, routeValidator.next(state, OTHER));
+    assertEquals(RouteValidator.REJECT, routeValidator.next(RouteValidator.REJECT, OTHER));
+    assertFalse(routeValidator.isAccepting(RouteValidator.REJECT));
+  }
+
+  @Test
+  void isValidPath_WhenPathHasExactlyOneFlight_ShouldReturnTrue() {
+    assertTrue(routeValidator.isValidPath(path(TransportationType.FLIGHT)));
+    assertTrue(
+        routeValidator.isValidPath(
+            path(TransportationType.OTHER, TransportationType.FLIGHT, TransportationType.OTHER)));
+  }
+
+  @Test
+  void isValidPath_WhenPathIsEmptyOrHasTwoFlights_ShouldReturnFalse() {
+    assertFalse(routeValidator.isValidPath(path()));
+    assertFalse(
+        routeValidator.isValidPath(path(TransportationType.FLIGHT, TransportationType.FLIGHT)));
+    assertFalse(routeValidator.isValidPath(path(TransportationType.OTHER)));
+  }
+
+  @Test
+  void isValidAddition_WhenAddingToPath_ShouldAllowAtMostOneFlight() {
+    assertTrue(routeValidator.isValidAddition(path(), transportation(TransportationType.FLIGHT)));
+    assertTrue(
+        routeValidator.isValidAddition(
+            path(TransportationType.FLIGHT), transportation(TransportationType.OTHER)));
+    assertFalse(
+        routeValidator.isValidAddition(
+            path(TransportationType.OTHER, TransportationType.FLIGHT),
+            transportation(TransportationType.FLIGHT)));
+  }
+
+  private int accept(byte... types) {
+    int state = RouteValidator.START;
+    for (byte type : types) {
+      state = routeValidator.next(state, type);
+      assertNotEquals(RouteValidator.REJECT, state);
+    }
+    return state;
+  }
+
+  private Deque<Transportation> path(TransportationType... types) {
+    Deque<Transportation> path = new ArrayDeque<>();
+    for (TransportationType type : types) {
+      path.addFirst(transportation(type));
+    }
+    return path;
+  }
+
+  private Transportation transportation(TransportationType type) {
+    var transportation = new Transportation();
+    transportation.setType(type);
+    return transportation;
+  }
+}